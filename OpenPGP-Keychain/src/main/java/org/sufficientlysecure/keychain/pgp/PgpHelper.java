@@ -21,17 +21,16 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
 import java.security.SecureRandom;
 import java.util.Iterator;
 import java.util.regex.Pattern;
 
+import org.spongycastle.bcpg.PacketTags;
 import org.spongycastle.openpgp.PGPEncryptedDataList;
 import org.spongycastle.openpgp.PGPObjectFactory;
+import org.spongycastle.openpgp.PGPPacketParser;
 import org.spongycastle.openpgp.PGPPublicKeyEncryptedData;
-import org.spongycastle.openpgp.PGPPublicKeyRing;
 import org.spongycastle.openpgp.PGPSecretKey;
-import org.spongycastle.openpgp.PGPSecretKeyRing;
 import org.spongycastle.openpgp.PGPUtil;
 import org.sufficientlysecure.keychain.Constants;
 import org.sufficientlysecure.keychain.Id;
@@ -39,8 +38,10 @@ import org.sufficientlysecure.keychain.R;
 import org.sufficientlysecure.keychain.pgp.exception.NoAsymmetricEncryptionException;
 import org.sufficientlysecure.keychain.pgp.exception.PgpGeneralException;
 import org.sufficientlysecure.keychain.provider.ProviderHelper;
+import org.sufficientlysecure.keychain.util.FileWiper;
 import org.sufficientlysecure.keychain.util.Log;
 import org.sufficientlysecure.keychain.util.ProgressDialogUpdater;
+import org.sufficientlysecure.keychain.util.ThreadLocalSecureRandom;
 
 import android.content.Context;
 import android.content.pm.PackageInfo;
@@ -124,15 +125,20 @@ public class PgpHelper {
 
     public static int getStreamContent(Context context, InputStream inStream) throws IOException {
         InputStream in = PGPUtil.getDecoderStream(inStream);
-        PGPObjectFactory pgpF = new PGPObjectFactory(in);
-        Object object = pgpF.nextObject();
-        while (object != null) {
-            if (object instanceof PGPPublicKeyRing || object instanceof PGPSecretKeyRing) {
+        // look at one packet at a time, without building whole key rings or signature lists
+        PGPPacketParser parser = new PGPPacketParser(in);
+        int tag;
+        while ((tag = parser.next()) != PGPPacketParser.END_OF_STREAM) {
+            switch (tag) {
+            case PacketTags.PUBLIC_KEY:
+            case PacketTags.SECRET_KEY:
                 return Id.content.keys;
-            } else if (object instanceof PGPEncryptedDataList) {
+            case PacketTags.PUBLIC_KEY_ENC_SESSION:
+            case PacketTags.SYMMETRIC_KEY_ENC_SESSION:
                 return Id.content.encrypted_data;
+            default:
+                break;
             }
-            object = pgpF.nextObject();
         }
 
         return Id.content.unknown;
@@ -145,7 +151,7 @@ public class PgpHelper {
      * @return
      */
     public static String generateRandomFilename(int length) {
-        SecureRandom random = new SecureRandom();
+        SecureRandom random = ThreadLocalSecureRandom.current();
 
         byte bytes[] = new byte[length];
         random.nextBytes(bytes);
@@ -198,22 +204,7 @@ public class PgpHelper {
      */
     public static void deleteFileSecurely(Context context, ProgressDialogUpdater progress, File file)
             throws FileNotFoundException, IOException {
-        long length = file.length();
-        SecureRandom random = new SecureRandom();
-        RandomAccessFile raf = new RandomAccessFile(file, "rws");
-        raf.seek(0);
-        raf.getFilePointer();
-        byte[] data = new byte[1 << 16];
-        int pos = 0;
         String msg = context.getString(R.string.progress_deleting_securely, file.getName());
-        while (pos < length) {
-            if (progress != null)
-                progress.setProgress(msg, (int) (100 * pos / length), 100);
-            random.nextBytes(data);
-            raf.write(data);
-            pos += data.length;
-        }
-        raf.close();
-        file.delete();
+        new FileWiper(FileWiper.Scheme.RANDOM).wipe(file, progress, msg);
     }
 }
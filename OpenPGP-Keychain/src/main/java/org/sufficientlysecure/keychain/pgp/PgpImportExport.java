@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.spongycastle.bcpg.ArmoredOutputStream;
 import org.spongycastle.openpgp.PGPException;
@@ -58,11 +59,22 @@ import android.os.Environment;
 public class PgpImportExport {
     private Context mContext;
     private ProgressDialogUpdater mProgress;
+    private ExecutorService mExecutor;
 
     public PgpImportExport(Context context, ProgressDialogUpdater progress) {
+        this(context, progress, null);
+    }
+
+    /**
+     * @param executor long-lived executor to verify the certifications of stored keys on, or
+     *                 null to verify on the calling thread only. It is not shut down here.
+     */
+    public PgpImportExport(Context context, ProgressDialogUpdater progress,
+            ExecutorService executor) {
         super();
         this.mContext = context;
         this.mProgress = progress;
+        this.mExecutor = executor;
     }
 
     public void updateProgress(int message, int current, int total) {
@@ -256,13 +268,13 @@ public class PgpImportExport {
                         newPubRing = PGPPublicKeyRing.insertPublicKey(newPubRing, key);
                     }
                     if (newPubRing != null)
-                        ProviderHelper.saveKeyRing(mContext, newPubRing);
+                        ProviderHelper.saveKeyRing(mContext, newPubRing, mExecutor);
                     // TODO: remove status returns, use exceptions!
                     status = Id.return_value.ok;
                 }
             } else if (keyring instanceof PGPPublicKeyRing) {
                 PGPPublicKeyRing publicKeyRing = (PGPPublicKeyRing) keyring;
-                ProviderHelper.saveKeyRing(mContext, publicKeyRing);
+                ProviderHelper.saveKeyRing(mContext, publicKeyRing, mExecutor);
                 // TODO: remove status returns, use exceptions!
                 status = Id.return_value.ok;
             }
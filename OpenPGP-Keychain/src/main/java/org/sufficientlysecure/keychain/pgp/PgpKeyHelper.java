@@ -17,11 +17,15 @@
 
 package org.sufficientlysecure.keychain.pgp;
 
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Vector;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,7 +35,9 @@ import org.spongycastle.openpgp.PGPPublicKeyRing;
 import org.spongycastle.openpgp.PGPSecretKey;
 import org.spongycastle.openpgp.PGPSecretKeyRing;
 import org.spongycastle.openpgp.PGPSignature;
+import org.spongycastle.openpgp.PGPSignatureBatchVerifier;
 import org.spongycastle.openpgp.PGPSignatureSubpacketVector;
+import org.spongycastle.openpgp.operator.jcajce.JcaPGPContentVerifierBuilderProvider;
 import org.sufficientlysecure.keychain.Constants;
 import org.sufficientlysecure.keychain.R;
 import org.sufficientlysecure.keychain.provider.ProviderHelper;
@@ -519,6 +525,69 @@ public class PgpKeyHelper {
         return (Long.parseLong(s1, 16) << 32) | Long.parseLong(s2, 16);
     }
 
+    /**
+     * Verifies user id certifications in one batch, spread over one thread per processor when
+     * an executor is given.
+     * certifications.get(i) is checked as a certification of userIds.get(i) on masterKey.
+     * Certifications made by keys we don't have cannot be checked and are reported as not
+     * verified.
+     *
+     * @param executor executor to verify on next to the calling thread, or null to verify on the
+     *                 calling thread only. It is not shut down here.
+     * @return the indexes of the certifications that verified
+     */
+    public static BitSet verifyCertifications(Context context, PGPPublicKey masterKey,
+                                              List<String> userIds, List<PGPSignature> certifications,
+                                              ExecutorService executor) {
+        BitSet result = new BitSet(certifications.size());
+
+        // find the keys the certifications were made with, each one is only looked up once
+        PGPPublicKey[] signerKeys = new PGPPublicKey[certifications.size()];
+        HashMap<Long, PGPPublicKey> signers = new HashMap<Long, PGPPublicKey>();
+        int count = 0;
+
+        for (int i = 0; i < certifications.size(); ++i) {
+            long signerKeyId = certifications.get(i).getKeyID();
+
+            if (signerKeyId == masterKey.getKeyID()) {
+                signerKeys[i] = masterKey;
+            } else if (signers.containsKey(signerKeyId)) {
+                signerKeys[i] = signers.get(signerKeyId);
+            } else {
+                signerKeys[i] = ProviderHelper.getPGPPublicKeyByKeyId(context, signerKeyId);
+                signers.put(signerKeyId, signerKeys[i]);
+            }
+
+            if (signerKeys[i] != null) {
+                ++count;
+            }
+        }
+
+        if (count == 0) {
+            return result;
+        }
+
+        int threads = (executor == null) ? 1 : Runtime.getRuntime().availableProcessors();
+        PGPSignatureBatchVerifier verifier = new PGPSignatureBatchVerifier(
+                new JcaPGPContentVerifierBuilderProvider().setProvider(Constants.BOUNCY_CASTLE_PROVIDER_NAME),
+                executor, threads);
+        int[] positions = new int[count];
+
+        for (int i = 0; i < certifications.size(); ++i) {
+            if (signerKeys[i] != null) {
+                positions[verifier.addCertification(certifications.get(i), signerKeys[i],
+                        userIds.get(i), masterKey)] = i;
+            }
+        }
+
+        BitSet verified = verifier.verify();
+        for (int i = verified.nextSetBit(0); i >= 0; i = verified.nextSetBit(i + 1)) {
+            result.set(positions[i]);
+        }
+
+        return result;
+    }
+
     /**
      * Splits userId string into naming part, email part, and comment part
      * 
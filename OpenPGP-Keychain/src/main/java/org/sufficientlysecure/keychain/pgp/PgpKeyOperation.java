@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
 
 import org.spongycastle.bcpg.CompressionAlgorithmTags;
 import org.spongycastle.bcpg.HashAlgorithmTags;
@@ -50,6 +51,7 @@ import org.spongycastle.openpgp.PGPSignatureGenerator;
 import org.spongycastle.openpgp.PGPSignatureSubpacketGenerator;
 import org.spongycastle.openpgp.PGPSignatureSubpacketVector;
 import org.spongycastle.openpgp.PGPUtil;
+import org.spongycastle.openpgp.operator.CachingPBESecretKeyDecryptor;
 import org.spongycastle.openpgp.operator.PBESecretKeyDecryptor;
 import org.spongycastle.openpgp.operator.PBESecretKeyEncryptor;
 import org.spongycastle.openpgp.operator.PGPContentSignerBuilder;
@@ -73,6 +75,7 @@ import android.content.Context;
 public class PgpKeyOperation {
     private Context mContext;
     private ProgressDialogUpdater mProgress;
+    private ExecutorService mExecutor;
 
     private static final int[] PREFERRED_SYMMETRIC_ALGORITHMS = new int[] {
             SymmetricKeyAlgorithmTags.AES_256, SymmetricKeyAlgorithmTags.AES_192,
@@ -85,9 +88,19 @@ public class PgpKeyOperation {
             CompressionAlgorithmTags.ZIP };
 
     public PgpKeyOperation(Context context, ProgressDialogUpdater progress) {
+        this(context, progress, null);
+    }
+
+    /**
+     * @param executor long-lived executor to spread the work of key operations over, or null to
+     *                 do everything on the calling thread. It is not shut down here.
+     */
+    public PgpKeyOperation(Context context, ProgressDialogUpdater progress,
+            ExecutorService executor) {
         super();
         this.mContext = context;
         this.mProgress = progress;
+        this.mExecutor = executor;
     }
 
     public void updateProgress(int message, int current, int total) {
@@ -201,13 +214,21 @@ public class PgpKeyOperation {
             newPassPhrase = "";
         }
 
-        PGPSecretKeyRing newKeyRing = PGPSecretKeyRing.copyWithNewPassword(
-                keyRing,
-                new JcePBESecretKeyDecryptorBuilder(new JcaPGPDigestCalculatorProviderBuilder()
+        PBESecretKeyDecryptor keyDecryptor = new JcePBESecretKeyDecryptorBuilder(
+                new JcaPGPDigestCalculatorProviderBuilder()
                         .setProvider(Constants.BOUNCY_CASTLE_PROVIDER_NAME).build()).setProvider(
-                        Constants.BOUNCY_CASTLE_PROVIDER_NAME).build(oldPassPhrase.toCharArray()),
-                new JcePBESecretKeyEncryptorBuilder(keyRing.getSecretKey()
-                        .getKeyEncryptionAlgorithm()).build(newPassPhrase.toCharArray()));
+                Constants.BOUNCY_CASTLE_PROVIDER_NAME).build(oldPassPhrase.toCharArray());
+        PBESecretKeyEncryptor keyEncryptor = new JcePBESecretKeyEncryptorBuilder(keyRing
+                .getSecretKey().getKeyEncryptionAlgorithm()).build(newPassPhrase.toCharArray());
+
+        PGPSecretKeyRing newKeyRing;
+        if (mExecutor != null) {
+            // decrypt the subkeys in parallel, re-encryption stays in ring order
+            newKeyRing = PGPSecretKeyRing.copyWithNewPassword(keyRing, keyDecryptor, keyEncryptor,
+                    mExecutor);
+        } else {
+            newKeyRing = PGPSecretKeyRing.copyWithNewPassword(keyRing, keyDecryptor, keyEncryptor);
+        }
 
         updateProgress(R.string.progress_saving_key_ring, 50, 100);
 
@@ -261,9 +282,20 @@ public class PgpKeyOperation {
         // masterPublicKey = masterPublicKeyRmCert;
         // }
 
-        PBESecretKeyDecryptor keyDecryptor = new JcePBESecretKeyDecryptorBuilder().setProvider(
-                Constants.BOUNCY_CASTLE_PROVIDER_NAME).build(oldPassPhrase.toCharArray());
-        PGPPrivateKey masterPrivateKey = masterKey.extractPrivateKey(keyDecryptor);
+        // subkeys usually share the passphrase and S2K of the master key, derive each key once
+        CachingPBESecretKeyDecryptor keyDecryptor = new CachingPBESecretKeyDecryptor(
+                new JcePBESecretKeyDecryptorBuilder().setProvider(
+                        Constants.BOUNCY_CASTLE_PROVIDER_NAME).build(oldPassPhrase.toCharArray()));
+        PGPPrivateKey masterPrivateKey;
+        ArrayList<PGPPrivateKey> subPrivateKeys = new ArrayList<PGPPrivateKey>();
+        try {
+            masterPrivateKey = masterKey.extractPrivateKey(keyDecryptor);
+            for (int i = 1; i < keys.size(); ++i) {
+                subPrivateKeys.add(keys.get(i).extractPrivateKey(keyDecryptor));
+            }
+        } finally {
+            keyDecryptor.clear();
+        }
 
         updateProgress(R.string.progress_certifying_master_key, 20, 100);
 
@@ -338,10 +370,7 @@ public class PgpKeyOperation {
             PGPSecretKey subKey = keys.get(i);
             PGPPublicKey subPublicKey = subKey.getPublicKey();
 
-            PBESecretKeyDecryptor keyDecryptor2 = new JcePBESecretKeyDecryptorBuilder()
-                    .setProvider(Constants.BOUNCY_CASTLE_PROVIDER_NAME).build(
-                            oldPassPhrase.toCharArray());
-            PGPPrivateKey subPrivateKey = subKey.extractPrivateKey(keyDecryptor2);
+            PGPPrivateKey subPrivateKey = subPrivateKeys.get(i - 1);
 
             // TODO: now used without algorithm and creation time?! (APG 1)
             PGPKeyPair subKeyPair = new PGPKeyPair(subPublicKey, subPrivateKey);
@@ -400,7 +429,7 @@ public class PgpKeyOperation {
         updateProgress(R.string.progress_saving_key_ring, 90, 100);
 
         ProviderHelper.saveKeyRing(mContext, secretKeyRing);
-        ProviderHelper.saveKeyRing(mContext, publicKeyRing);
+        ProviderHelper.saveKeyRing(mContext, publicKeyRing, mExecutor);
 
         updateProgress(R.string.progress_done, 100, 100);
     }
@@ -18,7 +18,9 @@
 package org.sufficientlysecure.keychain.pgp;
 
 import android.content.Context;
+import android.os.Bundle;
 
+import org.spongycastle.apache.bzip2.CBZip2OutputStream;
 import org.spongycastle.bcpg.ArmoredOutputStream;
 import org.spongycastle.bcpg.BCPGOutputStream;
 import org.spongycastle.openpgp.PGPCompressedDataGenerator;
@@ -48,21 +50,50 @@ import org.sufficientlysecure.keychain.provider.ProviderHelper;
 import org.sufficientlysecure.keychain.util.InputData;
 import org.sufficientlysecure.keychain.util.Log;
 import org.sufficientlysecure.keychain.util.ProgressDialogUpdater;
+import org.sufficientlysecure.keychain.util.ReadAheadInputStream;
+import org.sufficientlysecure.keychain.util.ThreadLocalSecureRandom;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
+import java.security.SecureRandom;
 import java.security.SignatureException;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 
 /**
  * This class uses a Builder pattern!
  */
 public class PgpSignEncrypt {
+    // keys of the compression actually used, in the result of execute()
+    public static final String RESULT_COMPRESSION_ID = "compression_id";
+    public static final String RESULT_COMPRESSION_LEVEL = "compression_level";
+
+    /*
+     * The start of the input is deflated at the fastest level before choosing how to compress.
+     * Above FAST_COMPRESSION_RATIO of its size, ZIP and ZLIB use the fastest level too. Above
+     * NO_COMPRESSION_RATIO the data is most likely already compressed and is stored as is.
+     */
+    private static final int SAMPLE_SIZE = 1 << 18;
+    private static final int MIN_SAMPLE_SIZE = 1 << 12;
+    private static final double FAST_COMPRESSION_RATIO = 0.8;
+    private static final double NO_COMPRESSION_RATIO = 0.95;
+
+    /*
+     * BZIP2 is coded in 900k blocks, each block in progress holding a coder of about 13 MB. The
+     * coders may take up at most 1 / BZIP2_HEAP_SHARE of the heap between them.
+     */
+    private static final int BZIP2_BLOCK_SIZE = 9;
+    private static final int BZIP2_HEAP_SHARE = 4;
+
     private Context context;
     private InputData data;
     private OutputStream outStream;
@@ -78,6 +109,11 @@ public class PgpSignEncrypt {
     private boolean signatureForceV3;
     private String signaturePassphrase;
 
+    // pool the data is compressed on, shut down when execute() returns
+    private ExecutorService compressExecutor;
+    // input file read ahead, closed when execute() or generateSignature() returns
+    private ReadAheadInputStream readAhead;
+
     private PgpSignEncrypt(Builder builder) {
         // private Constructor can only be called from Builder
         this.context = builder.context;
@@ -190,6 +226,8 @@ public class PgpSignEncrypt {
     /**
      * Signs and/or encrypts data based on parameters of class
      *
+     * @return the compression actually used, under RESULT_COMPRESSION_ID and
+     *         RESULT_COMPRESSION_LEVEL, when encrypting
      * @throws IOException
      * @throws PgpGeneralException
      * @throws PGPException
@@ -197,9 +235,48 @@ public class PgpSignEncrypt {
      * @throws NoSuchAlgorithmException
      * @throws SignatureException
      */
-    public void execute()
+    public Bundle execute()
             throws IOException, PgpGeneralException, PGPException, NoSuchProviderException,
             NoSuchAlgorithmException, SignatureException {
+        try {
+            return signAndEncrypt();
+        } finally {
+            if (compressExecutor != null) {
+                compressExecutor.shutdown();
+                compressExecutor = null;
+            }
+            closeReadAhead();
+        }
+    }
+
+    /**
+     * Large files are read ahead on a separate thread, so hashing and encrypting don't stall on
+     * the disk.
+     */
+    private InputStream openInput() {
+        InputStream in = ReadAheadInputStream.wrap(data.getInputStream(), data.getChannel(),
+                data.getSize());
+        if (in instanceof ReadAheadInputStream) {
+            readAhead = (ReadAheadInputStream) in;
+        }
+        return in;
+    }
+
+    private void closeReadAhead() {
+        if (readAhead != null) {
+            try {
+                readAhead.close();
+            } catch (IOException e) {
+                Log.e(Constants.TAG, "closing read-ahead failed", e);
+            }
+            readAhead = null;
+        }
+    }
+
+    private Bundle signAndEncrypt()
+            throws IOException, PgpGeneralException, PGPException, NoSuchProviderException,
+            NoSuchAlgorithmException, SignatureException {
+        Bundle returnData = new Bundle();
 
         boolean enableSignature = signatureKeyId != Id.key.none;
         boolean enableEncryption = (encryptionKeyIds.length != 0 || encryptionPassphrase != null);
@@ -259,11 +336,15 @@ public class PgpSignEncrypt {
         /* Initialize PGPEncryptedDataGenerator for later usage */
         PGPEncryptedDataGenerator cPk = null;
         if (enableEncryption) {
+            // session key, IV and salts come from the DRBG of this thread
+            SecureRandom random = ThreadLocalSecureRandom.current();
+
             // has Integrity packet enabled!
             JcePGPDataEncryptorBuilder encryptorBuilder =
                     new JcePGPDataEncryptorBuilder(symmetricEncryptionAlgorithm)
                             .setProvider(Constants.BOUNCY_CASTLE_PROVIDER_NAME)
-                            .setWithIntegrityPacket(true);
+                            .setWithIntegrityPacket(true)
+                            .setSecureRandom(random);
 
             cPk = new PGPEncryptedDataGenerator(encryptorBuilder);
 
@@ -273,6 +354,7 @@ public class PgpSignEncrypt {
 
                 JcePBEKeyEncryptionMethodGenerator symmetricEncryptionGenerator =
                         new JcePBEKeyEncryptionMethodGenerator(encryptionPassphrase.toCharArray());
+                symmetricEncryptionGenerator.setSecureRandom(random);
                 cPk.addMethod(symmetricEncryptionGenerator);
             } else {
                 // Asymmetric encryption
@@ -280,7 +362,8 @@ public class PgpSignEncrypt {
                     PGPPublicKey key = PgpKeyHelper.getEncryptPublicKey(context, id);
                     if (key != null) {
                         JcePublicKeyKeyEncryptionMethodGenerator pubKeyEncryptionGenerator =
-                                new JcePublicKeyKeyEncryptionMethodGenerator(key);
+                                new JcePublicKeyKeyEncryptionMethodGenerator(key)
+                                        .setSecureRandom(random);
                         cPk.addMethod(pubKeyEncryptionGenerator);
                     }
                 }
@@ -319,10 +402,36 @@ public class PgpSignEncrypt {
         if (enableEncryption) {
             /* actual encryption */
 
-            encryptionOut = cPk.open(out, new byte[1 << 16]);
+            InputStream in = openInput();
 
+            int compressionAlgorithm = Id.choice.compression.none;
+            int compressionLevel = Deflater.DEFAULT_COMPRESSION;
             if (enableCompression) {
-                compressGen = new PGPCompressedDataGenerator(compressionId);
+                byte[] sample = new byte[SAMPLE_SIZE];
+                int sampleLength = readSample(in, sample);
+
+                compressionAlgorithm = compressionId;
+                if (sampleLength >= MIN_SAMPLE_SIZE) {
+                    double ratio = getCompressionRatio(sample, sampleLength);
+
+                    if (ratio > NO_COMPRESSION_RATIO) {
+                        compressionAlgorithm = Id.choice.compression.none;
+                    } else if (ratio > FAST_COMPRESSION_RATIO
+                            && compressionId != Id.choice.compression.bzip2) {
+                        compressionLevel = Deflater.BEST_SPEED;
+                    }
+                }
+
+                // the sampled bytes still have to be encrypted
+                in = new SequenceInputStream(new ByteArrayInputStream(sample, 0, sampleLength), in);
+            }
+            returnData.putInt(RESULT_COMPRESSION_ID, compressionAlgorithm);
+            returnData.putInt(RESULT_COMPRESSION_LEVEL, compressionLevel);
+
+            encryptionOut = cPk.open(out, new byte[1 << 16]);
+
+            if (compressionAlgorithm != Id.choice.compression.none) {
+                compressGen = createCompressedDataGenerator(compressionAlgorithm, compressionLevel);
                 bcpgOut = new BCPGOutputStream(compressGen.open(encryptionOut));
             } else {
                 bcpgOut = new BCPGOutputStream(encryptionOut);
@@ -345,7 +454,6 @@ public class PgpSignEncrypt {
             long progress = 0;
             int n;
             byte[] buffer = new byte[1 << 16];
-            InputStream in = data.getInputStream();
             while ((n = in.read(buffer)) > 0) {
                 pOut.write(buffer, 0, n);
 
@@ -373,7 +481,7 @@ public class PgpSignEncrypt {
             // write directly on armor output stream
             armorOut.beginClearText(signatureHashAlgorithm);
 
-            InputStream in = data.getInputStream();
+            InputStream in = openInput();
             final BufferedReader reader = new BufferedReader(new InputStreamReader(in));
 
             final byte[] newline = "\r\n".getBytes("UTF-8");
@@ -426,7 +534,7 @@ public class PgpSignEncrypt {
         // NOTE: closing needs to be done in the correct order!
         // TODO: closing bcpgOut and pOut???
         if (enableEncryption) {
-            if (enableCompression) {
+            if (compressGen != null) {
                 compressGen.close();
             }
 
@@ -440,6 +548,61 @@ public class PgpSignEncrypt {
         outStream.close();
 
         updateProgress(R.string.progress_done, 100, 100);
+
+        return returnData;
+    }
+
+    /**
+     * Reads up to sample.length bytes, stopping early only at the end of the input.
+     */
+    private static int readSample(InputStream in, byte[] sample) throws IOException {
+        int length = 0;
+        int n;
+        while (length < sample.length
+                && (n = in.read(sample, length, sample.length - length)) > 0) {
+            length += n;
+        }
+        return length;
+    }
+
+    /**
+     * Size of the sample deflated at the fastest level, relative to its original size.
+     */
+    private static double getCompressionRatio(byte[] sample, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(sample, 0, length);
+            deflater.finish();
+
+            byte[] buffer = new byte[1 << 16];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(buffer);
+            }
+            return (double) compressed / length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * With more than one core, BZIP2 blocks and ZIP/ZLIB chunks are compressed in parallel.
+     * BZIP2 uses no more threads than block coders fit in its share of the heap. Where the
+     * platform can't sync flush a Deflater, ZIP and ZLIB stay on one thread.
+     */
+    private PGPCompressedDataGenerator createCompressedDataGenerator(int algorithm, int level) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (algorithm == Id.choice.compression.bzip2) {
+            long coders = Runtime.getRuntime().maxMemory() / BZIP2_HEAP_SHARE
+                    / CBZip2OutputStream.getCoderMemory(BZIP2_BLOCK_SIZE);
+            threads = (int) Math.min(threads, coders);
+        }
+        if (threads < 2) {
+            return new PGPCompressedDataGenerator(algorithm, level);
+        }
+
+        compressExecutor = Executors.newFixedThreadPool(threads);
+        return new PGPCompressedDataGenerator(algorithm, level, compressExecutor, threads);
     }
 
     // TODO: merge this into execute method!
@@ -447,6 +610,16 @@ public class PgpSignEncrypt {
     public void generateSignature()
             throws PgpGeneralException, PGPException, IOException, NoSuchAlgorithmException,
             SignatureException {
+        try {
+            generateDetachedSignature();
+        } finally {
+            closeReadAhead();
+        }
+    }
+
+    private void generateDetachedSignature()
+            throws PgpGeneralException, PGPException, IOException, NoSuchAlgorithmException,
+            SignatureException {
 
         OutputStream out;
         if (enableAsciiArmorOutput) {
@@ -510,7 +683,7 @@ public class PgpSignEncrypt {
 
         updateProgress(R.string.progress_signing, 40, 100);
 
-        InputStream inStream = data.getInputStream();
+        InputStream inStream = openInput();
 //        if (binary) {
 //            byte[] buffer = new byte[1 << 16];
 //            int n = 0;
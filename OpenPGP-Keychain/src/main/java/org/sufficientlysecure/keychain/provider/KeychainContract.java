@@ -54,6 +54,15 @@ public class KeychainContract {
         String RANK = "rank";
     }
 
+    interface CertsColumns {
+        String KEY_RING_ROW_ID = "key_ring_row_id"; // foreign key to key_rings._ID
+        String RANK = "rank"; // rank of the certified user id
+        String KEY_ID_CERTIFIER = "key_id_certifier"; // not a database id
+        String TYPE = "type"; // PGPSignature certification type
+        String CREATION = "creation";
+        String VERIFIED = "verified";
+    }
+
     interface ApiAppsColumns {
         String PACKAGE_NAME = "package_name";
         String PACKAGE_SIGNATURE = "package_signature";
@@ -86,6 +95,7 @@ public class KeychainContract {
 
     public static final String PATH_USER_IDS = "user_ids";
     public static final String PATH_KEYS = "keys";
+    public static final String PATH_CERTS = "certs";
 
     public static final String BASE_API_APPS = "api_apps";
     public static final String PATH_BY_PACKAGE_NAME = "package_name";
@@ -235,6 +245,23 @@ public class KeychainContract {
         }
     }
 
+    public static class Certs implements CertsColumns, BaseColumns {
+        public static final Uri CONTENT_URI = BASE_CONTENT_URI_INTERNAL.buildUpon()
+                .appendPath(BASE_KEY_RINGS).build();
+
+        /** Use if multiple items get returned */
+        public static final String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.thialfihar.apg.cert";
+
+        public static Uri buildPublicCertsUri(String keyRingRowId) {
+            return CONTENT_URI.buildUpon().appendPath(PATH_PUBLIC).appendPath(keyRingRowId)
+                    .appendPath(PATH_CERTS).build();
+        }
+
+        public static Uri buildCertsUri(Uri keyRingUri) {
+            return keyRingUri.buildUpon().appendPath(PATH_CERTS).build();
+        }
+    }
+
     public static class ApiApps implements ApiAppsColumns, BaseColumns {
         public static final Uri CONTENT_URI = BASE_CONTENT_URI_INTERNAL.buildUpon()
                 .appendPath(BASE_API_APPS).build();
@@ -19,6 +19,7 @@ package org.sufficientlysecure.keychain.provider;
 
 import org.sufficientlysecure.keychain.Constants;
 import org.sufficientlysecure.keychain.provider.KeychainContract.ApiAppsColumns;
+import org.sufficientlysecure.keychain.provider.KeychainContract.CertsColumns;
 import org.sufficientlysecure.keychain.provider.KeychainContract.KeyRingsColumns;
 import org.sufficientlysecure.keychain.provider.KeychainContract.KeysColumns;
 import org.sufficientlysecure.keychain.provider.KeychainContract.UserIdsColumns;
@@ -31,12 +32,13 @@ import android.provider.BaseColumns;
 
 public class KeychainDatabase extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "apg.db";
-    private static final int DATABASE_VERSION = 7;
+    private static final int DATABASE_VERSION = 8;
 
     public interface Tables {
         String KEY_RINGS = "key_rings";
         String KEYS = "keys";
         String USER_IDS = "user_ids";
+        String CERTS = "certs";
         String API_APPS = "api_apps";
     }
 
@@ -74,6 +76,22 @@ public class KeychainDatabase extends SQLiteOpenHelper {
             + UserIdsColumns.KEY_RING_ROW_ID + ") REFERENCES " + Tables.KEY_RINGS + "("
             + BaseColumns._ID + ") ON DELETE CASCADE)";
 
+    private static final String CREATE_CERTS = "CREATE TABLE IF NOT EXISTS " + Tables.CERTS
+            + " (" + BaseColumns._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + CertsColumns.RANK + " INTEGER, "
+            + CertsColumns.KEY_ID_CERTIFIER + " INT64, "
+            + CertsColumns.TYPE + " INTEGER, "
+            + CertsColumns.CREATION + " INTEGER, "
+            + CertsColumns.VERIFIED + " INTEGER, "
+            + CertsColumns.KEY_RING_ROW_ID + " INTEGER NOT NULL, FOREIGN KEY("
+            + CertsColumns.KEY_RING_ROW_ID + ") REFERENCES " + Tables.KEY_RINGS + "("
+            + BaseColumns._ID + ") ON DELETE CASCADE)";
+
+    // certifications are always looked up by key ring
+    private static final String CREATE_CERTS_INDEX = "CREATE INDEX IF NOT EXISTS "
+            + Tables.CERTS + "_" + CertsColumns.KEY_RING_ROW_ID + " ON " + Tables.CERTS + "("
+            + CertsColumns.KEY_RING_ROW_ID + ")";
+
     private static final String CREATE_API_APPS = "CREATE TABLE IF NOT EXISTS " + Tables.API_APPS
             + " (" + BaseColumns._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
             + ApiAppsColumns.PACKAGE_NAME + " TEXT UNIQUE, "
@@ -95,6 +113,8 @@ public class KeychainDatabase extends SQLiteOpenHelper {
         db.execSQL(CREATE_KEYS);
         db.execSQL(CREATE_USER_IDS);
         db.execSQL(CREATE_API_APPS);
+        db.execSQL(CREATE_CERTS);
+        db.execSQL(CREATE_CERTS_INDEX);
     }
 
     @Override
@@ -134,6 +154,11 @@ public class KeychainDatabase extends SQLiteOpenHelper {
                     db.execSQL("ALTER TABLE " + Tables.KEYS + " ADD COLUMN " + KeysColumns.FINGERPRINT
                             + " BLOB;");
                     break;
+                case 7:
+                    // new table: certs, filled when key rings are saved again
+                    db.execSQL(CREATE_CERTS);
+                    db.execSQL(CREATE_CERTS_INDEX);
+                    break;
                 default:
                     break;
 
@@ -22,6 +22,8 @@ import java.util.HashMap;
 
 import org.sufficientlysecure.keychain.Constants;
 import org.sufficientlysecure.keychain.provider.KeychainContract.ApiApps;
+import org.sufficientlysecure.keychain.provider.KeychainContract.Certs;
+import org.sufficientlysecure.keychain.provider.KeychainContract.CertsColumns;
 import org.sufficientlysecure.keychain.provider.KeychainContract.KeyRings;
 import org.sufficientlysecure.keychain.provider.KeychainContract.KeyRingsColumns;
 import org.sufficientlysecure.keychain.provider.KeychainContract.KeyTypes;
@@ -64,6 +66,8 @@ public class KeychainProvider extends ContentProvider {
     private static final int PUBLIC_KEY_RING_USER_ID = 121;
     private static final int PUBLIC_KEY_RING_USER_ID_BY_ROW_ID = 122;
 
+    private static final int PUBLIC_KEY_RING_CERTS = 131;
+
     private static final int SECRET_KEY_RING = 201;
     private static final int SECRET_KEY_RING_BY_ROW_ID = 202;
     private static final int SECRET_KEY_RING_BY_MASTER_KEY_ID = 203;
@@ -156,6 +160,17 @@ public class KeychainProvider extends ContentProvider {
                 + KeychainContract.PATH_PUBLIC + "/#/" + KeychainContract.PATH_USER_IDS + "/#",
                 PUBLIC_KEY_RING_USER_ID_BY_ROW_ID);
 
+        /**
+         * public certifications
+         *
+         * <pre>
+         * key_rings/public/#/certs
+         * </pre>
+         */
+        matcher.addURI(authority, KeychainContract.BASE_KEY_RINGS + "/"
+                + KeychainContract.PATH_PUBLIC + "/#/" + KeychainContract.PATH_CERTS,
+                PUBLIC_KEY_RING_CERTS);
+
         /**
          * secret key rings
          *
@@ -289,6 +304,9 @@ public class KeychainProvider extends ContentProvider {
             case SECRET_KEY_RING_USER_ID_BY_ROW_ID:
                 return UserIds.CONTENT_ITEM_TYPE;
 
+            case PUBLIC_KEY_RING_CERTS:
+                return Certs.CONTENT_TYPE;
+
             case API_APPS:
                 return ApiApps.CONTENT_TYPE;
 
@@ -320,6 +338,7 @@ public class KeychainProvider extends ContentProvider {
             case PUBLIC_KEY_RING_KEY_BY_ROW_ID:
             case PUBLIC_KEY_RING_USER_ID:
             case PUBLIC_KEY_RING_USER_ID_BY_ROW_ID:
+            case PUBLIC_KEY_RING_CERTS:
                 type = KeyTypes.PUBLIC;
                 break;
 
@@ -395,6 +414,27 @@ public class KeychainProvider extends ContentProvider {
         return projectionMap;
     }
 
+    /**
+     * Set result of query to specific columns, certs are joined with the user id they certify
+     *
+     * @return
+     */
+    private HashMap<String, String> getProjectionMapForCerts() {
+        HashMap<String, String> projectionMap = new HashMap<String, String>();
+
+        projectionMap.put(BaseColumns._ID, Tables.CERTS + "." + BaseColumns._ID);
+        projectionMap.put(CertsColumns.KEY_RING_ROW_ID, Tables.CERTS + "." + CertsColumns.KEY_RING_ROW_ID);
+        projectionMap.put(CertsColumns.RANK, Tables.CERTS + "." + CertsColumns.RANK);
+        projectionMap.put(CertsColumns.KEY_ID_CERTIFIER, Tables.CERTS + "." + CertsColumns.KEY_ID_CERTIFIER);
+        projectionMap.put(CertsColumns.TYPE, Tables.CERTS + "." + CertsColumns.TYPE);
+        projectionMap.put(CertsColumns.CREATION, Tables.CERTS + "." + CertsColumns.CREATION);
+        projectionMap.put(CertsColumns.VERIFIED, Tables.CERTS + "." + CertsColumns.VERIFIED);
+
+        projectionMap.put(UserIdsColumns.USER_ID, Tables.USER_IDS + "." + UserIdsColumns.USER_ID);
+
+        return projectionMap;
+    }
+
     /**
      * Builds default query for keyRings: KeyRings table is joined with UserIds and Keys
      */
@@ -599,6 +639,30 @@ public class KeychainProvider extends ContentProvider {
 
                 break;
 
+            case PUBLIC_KEY_RING_CERTS:
+                // certs were verified when the key ring was saved, join them with their user id
+                // and with the key ring, to leave out the self certifications of its master key
+                qb.setTables(Tables.CERTS + " INNER JOIN " + Tables.USER_IDS + " ON " + "("
+                        + Tables.CERTS + "." + CertsColumns.KEY_RING_ROW_ID + " = "
+                        + Tables.USER_IDS + "." + UserIdsColumns.KEY_RING_ROW_ID + " AND "
+                        + Tables.CERTS + "." + CertsColumns.RANK + " = " + Tables.USER_IDS + "."
+                        + UserIdsColumns.RANK + ") INNER JOIN " + Tables.KEY_RINGS + " ON " + "("
+                        + Tables.CERTS + "." + CertsColumns.KEY_RING_ROW_ID + " = "
+                        + Tables.KEY_RINGS + "." + BaseColumns._ID + ")");
+                qb.appendWhere(Tables.CERTS + "." + CertsColumns.KEY_RING_ROW_ID + " = ");
+                qb.appendWhereEscapeString(uri.getPathSegments().get(2));
+                qb.appendWhere(" AND " + Tables.CERTS + "." + CertsColumns.KEY_ID_CERTIFIER + " != "
+                        + Tables.KEY_RINGS + "." + KeyRingsColumns.MASTER_KEY_ID);
+
+                qb.setProjectionMap(getProjectionMapForCerts());
+
+                if (TextUtils.isEmpty(sortOrder)) {
+                    sortOrder = Tables.CERTS + "." + CertsColumns.RANK + " ASC, " + Tables.CERTS
+                            + "." + CertsColumns.CREATION + " DESC";
+                }
+
+                break;
+
             case API_APPS:
                 qb.setTables(Tables.API_APPS);
 
@@ -682,6 +746,11 @@ public class KeychainProvider extends ContentProvider {
                     rowUri = UserIds.buildPublicUserIdsUri(Long.toString(rowId));
                     sendBroadcastDatabaseChange(getKeyType(match), getType(uri));
 
+                    break;
+                case PUBLIC_KEY_RING_CERTS:
+                    rowId = db.insertOrThrow(Tables.CERTS, null, values);
+                    rowUri = uri.buildUpon().appendPath(Long.toString(rowId)).build();
+
                     break;
                 case SECRET_KEY_RING:
                     values.put(KeyRings.TYPE, KeyTypes.SECRET);
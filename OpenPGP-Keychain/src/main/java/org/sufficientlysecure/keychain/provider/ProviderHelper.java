@@ -20,7 +20,9 @@ package org.sufficientlysecure.keychain.provider;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
 
 import org.spongycastle.bcpg.ArmoredOutputStream;
 import org.spongycastle.bcpg.UserAttributePacket;
@@ -36,6 +38,7 @@ import org.sufficientlysecure.keychain.pgp.PgpConversionHelper;
 import org.sufficientlysecure.keychain.pgp.PgpHelper;
 import org.sufficientlysecure.keychain.pgp.PgpKeyHelper;
 import org.sufficientlysecure.keychain.provider.KeychainContract.ApiApps;
+import org.sufficientlysecure.keychain.provider.KeychainContract.Certs;
 import org.sufficientlysecure.keychain.provider.KeychainContract.KeyRings;
 import org.sufficientlysecure.keychain.provider.KeychainContract.Keys;
 import org.sufficientlysecure.keychain.provider.KeychainContract.UserIds;
@@ -161,11 +164,41 @@ public class ProviderHelper {
     /**
      * Saves PGPPublicKeyRing with its keys and userIds in DB
      */
-    @SuppressWarnings("unchecked")
     public static void saveKeyRing(Context context, PGPPublicKeyRing keyRing) throws IOException {
+        saveKeyRing(context, keyRing, null);
+    }
+
+    /**
+     * Saves PGPPublicKeyRing with its keys and userIds in DB, verifying its certifications on
+     * the given executor, or on the calling thread only if it is null
+     */
+    @SuppressWarnings("unchecked")
+    public static void saveKeyRing(Context context, PGPPublicKeyRing keyRing,
+                                   ExecutorService executor) throws IOException {
         PGPPublicKey masterKey = keyRing.getPublicKey();
         long masterKeyId = masterKey.getKeyID();
 
+        // verify all user id certifications once, in one parallel batch, and store the results
+        // so displaying them is a plain query. This is done before the old version of the
+        // keyRing is deleted, so a slow verification does not leave it without keys and userIds.
+        ArrayList<String> certifiedUserIds = new ArrayList<String>();
+        ArrayList<Integer> certifiedUserIdRanks = new ArrayList<Integer>();
+        ArrayList<PGPSignature> certifications = new ArrayList<PGPSignature>();
+        int certifiedUserIdRank = 0;
+        for (String userId : new IterableIterator<String>(masterKey.getUserIDs())) {
+            for (PGPSignature certification : new IterableIterator<PGPSignature>(masterKey.getSignaturesForID(userId))) {
+                int type = certification.getSignatureType();
+                if (type >= PGPSignature.DEFAULT_CERTIFICATION && type <= PGPSignature.POSITIVE_CERTIFICATION) {
+                    certifiedUserIds.add(userId);
+                    certifiedUserIdRanks.add(certifiedUserIdRank);
+                    certifications.add(certification);
+                }
+            }
+            ++certifiedUserIdRank;
+        }
+        BitSet verifiedCertifications = PgpKeyHelper.verifyCertifications(context, masterKey,
+                certifiedUserIds, certifications, executor);
+
         Uri deleteUri = KeyRings.buildPublicKeyRingsByMasterKeyIdUri(Long.toString(masterKeyId));
 
         // get current _ID of key
@@ -213,13 +246,11 @@ public class ProviderHelper {
             ++userIdRank;
         }
 
-        for (PGPSignature certification : new IterableIterator<PGPSignature>(masterKey.getSignaturesOfType(PGPSignature.POSITIVE_CERTIFICATION))) {
-            //TODO: how to do this?? we need to verify the signatures again and again when they are displayed...
-//            if (certification.verify
-//            operations.add(buildPublicKeyOperations(context, keyRingRowId, key, rank));
+        for (int i = 0; i < certifications.size(); ++i) {
+            operations.add(buildPublicCertOperations(context, keyRingRowId, certifications.get(i),
+                    certifiedUserIdRanks.get(i), verifiedCertifications.get(i)));
         }
 
-
         try {
             context.getContentResolver().applyBatch(KeychainContract.CONTENT_AUTHORITY, operations);
         } catch (RemoteException e) {
@@ -321,6 +352,26 @@ public class ProviderHelper {
         return ContentProviderOperation.newInsert(uri).withValues(values).build();
     }
 
+    /**
+     * Build ContentProviderOperation to add PGPSignature certification of a user id to database
+     * corresponding to a keyRing
+     */
+    private static ContentProviderOperation buildPublicCertOperations(Context context,
+                                                                      long keyRingRowId, PGPSignature certification,
+                                                                      int rank, boolean verified) {
+        ContentValues values = new ContentValues();
+        values.put(Certs.KEY_RING_ROW_ID, keyRingRowId);
+        values.put(Certs.RANK, rank);
+        values.put(Certs.KEY_ID_CERTIFIER, certification.getKeyID());
+        values.put(Certs.TYPE, certification.getSignatureType());
+        values.put(Certs.CREATION, certification.getCreationTime().getTime() / 1000);
+        values.put(Certs.VERIFIED, verified);
+
+        Uri uri = Certs.buildPublicCertsUri(Long.toString(keyRingRowId));
+
+        return ContentProviderOperation.newInsert(uri).withValues(values).build();
+    }
+
     /**
      * Build ContentProviderOperation to add PublicUserIds to database corresponding to a keyRing
      */
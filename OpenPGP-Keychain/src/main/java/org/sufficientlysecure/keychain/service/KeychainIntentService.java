@@ -30,6 +30,8 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.spongycastle.openpgp.PGPKeyRing;
 import org.spongycastle.openpgp.PGPObjectFactory;
@@ -52,10 +54,12 @@ import org.sufficientlysecure.keychain.pgp.exception.PgpGeneralException;
 import org.sufficientlysecure.keychain.provider.KeychainContract.DataStream;
 import org.sufficientlysecure.keychain.provider.ProviderHelper;
 import org.sufficientlysecure.keychain.ui.adapter.ImportKeysListEntry;
+import org.sufficientlysecure.keychain.util.ChannelOutputStream;
 import org.sufficientlysecure.keychain.util.HkpKeyServer;
 import org.sufficientlysecure.keychain.util.InputData;
 import org.sufficientlysecure.keychain.util.Log;
 import org.sufficientlysecure.keychain.util.ProgressDialogUpdater;
+import org.sufficientlysecure.keychain.util.ReadAheadInputStream;
 
 import android.app.IntentService;
 import android.content.Context;
@@ -177,6 +181,8 @@ public class KeychainIntentService extends IntentService implements ProgressDial
     public static final String RESULT_ENCRYPTED_STRING = "encrypted_message";
     public static final String RESULT_ENCRYPTED_BYTES = "encrypted_data";
     public static final String RESULT_URI = "result_uri";
+    public static final String RESULT_COMPRESSION_ID = PgpSignEncrypt.RESULT_COMPRESSION_ID;
+    public static final String RESULT_COMPRESSION_LEVEL = PgpSignEncrypt.RESULT_COMPRESSION_LEVEL;
 
     // decrypt/verify
     public static final String RESULT_DECRYPTED_STRING = "decrypted_message";
@@ -203,10 +209,25 @@ public class KeychainIntentService extends IntentService implements ProgressDial
 
     Messenger mMessenger;
 
+    // shared by the key operations of all intents handled while the service is running
+    private ExecutorService mExecutor;
+
     public KeychainIntentService() {
         super("ApgService");
     }
 
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        mExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void onDestroy() {
+        mExecutor.shutdown();
+        super.onDestroy();
+    }
+
     /**
      * The IntentService calls this method from the default worker thread with the intent that
      * started the service. When this method returns, IntentService stops the service, as
@@ -278,12 +299,14 @@ public class KeychainIntentService extends IntentService implements ProgressDial
                                     getString(R.string.error_external_storage_not_ready));
                         }
 
+                        // large files are read ahead through the channel by PgpSignEncrypt
                         inStream = new FileInputStream(inputFile);
                         File file = new File(inputFile);
                         inLength = file.length();
                         inputData = new InputData(inStream, inLength);
 
-                        outStream = new FileOutputStream(outputFile);
+                        outStream = new ChannelOutputStream(
+                                new FileOutputStream(outputFile).getChannel());
 
                         break;
 
@@ -317,6 +340,9 @@ public class KeychainIntentService extends IntentService implements ProgressDial
                 }
 
                 /* Operation */
+
+                Bundle resultData = new Bundle();
+
                 PgpSignEncrypt.Builder builder =
                         new PgpSignEncrypt.Builder(this, inputData, outStream);
                 builder.progress(this);
@@ -338,7 +364,7 @@ public class KeychainIntentService extends IntentService implements ProgressDial
                             .signatureHashAlgorithm(Preferences.getPreferences(this).getDefaultHashAlgorithm())
                             .signaturePassphrase(PassphraseCacheService.getCachedPassphrase(this, secretKeyId));
 
-                    builder.build().execute();
+                    resultData.putAll(builder.build().execute());
                 } else {
                     Log.d(Constants.TAG, "encrypt...");
                     builder.enableAsciiArmorOutput(useAsciiArmor)
@@ -351,15 +377,13 @@ public class KeychainIntentService extends IntentService implements ProgressDial
                             .signatureHashAlgorithm(Preferences.getPreferences(this).getDefaultHashAlgorithm())
                             .signaturePassphrase(PassphraseCacheService.getCachedPassphrase(this, secretKeyId));
 
-                    builder.build().execute();
+                    resultData.putAll(builder.build().execute());
                 }
 
                 outStream.close();
 
                 /* Output */
 
-                Bundle resultData = new Bundle();
-
                 switch (target) {
                     case TARGET_BYTES:
                         if (useAsciiArmor) {
@@ -434,14 +458,15 @@ public class KeychainIntentService extends IntentService implements ProgressDial
                         }
 
                         // InputStream
-                        inLength = -1;
-                        inStream = new FileInputStream(inputFile);
-                        File file = new File(inputFile);
-                        inLength = file.length();
+                        FileInputStream fileIn = new FileInputStream(inputFile);
+                        inLength = new File(inputFile).length();
+                        inStream = ReadAheadInputStream.wrap(fileIn, fileIn.getChannel(),
+                                inLength);
                         inputData = new InputData(inStream, inLength);
 
                         // OutputStream
-                        outStream = new FileOutputStream(outputFile);
+                        outStream = new ChannelOutputStream(
+                                new FileOutputStream(outputFile).getChannel());
 
                         break;
 
@@ -486,7 +511,12 @@ public class KeychainIntentService extends IntentService implements ProgressDial
                 builder.assumeSymmetric(assumeSymmetricEncryption)
                         .passphrase(PassphraseCacheService.getCachedPassphrase(this, secretKeyId));
 
-                resultData = builder.build().execute();
+                try {
+                    resultData = builder.build().execute();
+                } finally {
+                    // also stops the read-ahead thread if decryption failed half way
+                    inputData.getInputStream().close();
+                }
 
                 outStream.close();
 
@@ -543,7 +573,7 @@ public class KeychainIntentService extends IntentService implements ProgressDial
 
                 long masterKeyId = data.getLong(SAVE_KEYRING_MASTER_KEY_ID);
 
-                PgpKeyOperation keyOperations = new PgpKeyOperation(this, this);
+                PgpKeyOperation keyOperations = new PgpKeyOperation(this, this, mExecutor);
                 /* Operation */
                 if (!canSign) {
                     keyOperations.changeSecretKeyPassphrase(
@@ -642,7 +672,7 @@ public class KeychainIntentService extends IntentService implements ProgressDial
 
                 Bundle resultData = new Bundle();
 
-                PgpImportExport pgpImportExport = new PgpImportExport(this, this);
+                PgpImportExport pgpImportExport = new PgpImportExport(this, this, mExecutor);
                 resultData = pgpImportExport.importKeyRings(entries);
 
                 sendMessageToHandler(KeychainIntentServiceHandler.MESSAGE_OKAY, resultData);
@@ -801,7 +831,7 @@ public class KeychainIntentService extends IntentService implements ProgressDial
                         signaturePassPhrase);
 
                 // store the signed key in our local cache
-                PgpImportExport pgpImportExport = new PgpImportExport(this, null);
+                PgpImportExport pgpImportExport = new PgpImportExport(this, null, mExecutor);
                 int retval = pgpImportExport.storeKeyRingInCache(signedPubKeyRing);
                 if (retval != Id.return_value.ok && retval != Id.return_value.updated) {
                     throw new PgpGeneralException("Failed to store signed key in local cache");
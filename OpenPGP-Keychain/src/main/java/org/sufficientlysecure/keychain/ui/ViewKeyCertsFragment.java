@@ -18,25 +18,40 @@
 package org.sufficientlysecure.keychain.ui;
 
 import android.content.Intent;
+import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.support.v4.app.Fragment;
+import android.support.v4.app.LoaderManager;
+import android.support.v4.content.CursorLoader;
+import android.support.v4.content.Loader;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ListView;
+import android.widget.TextView;
 
 import com.beardedhen.androidbootstrap.BootstrapButton;
 
 import org.sufficientlysecure.keychain.Constants;
 import org.sufficientlysecure.keychain.R;
+import org.sufficientlysecure.keychain.provider.KeychainContract;
+import org.sufficientlysecure.keychain.ui.adapter.ViewKeyCertsAdapter;
 import org.sufficientlysecure.keychain.util.Log;
 
 
-public class ViewKeyCertsFragment extends Fragment {
+public class ViewKeyCertsFragment extends Fragment implements
+        LoaderManager.LoaderCallbacks<Cursor> {
 
     public static final String ARG_DATA_URI = "uri";
 
     private BootstrapButton mActionCertify;
+    private ListView mCerts;
+    private TextView mCertsEmpty;
+
+    private static final int LOADER_ID_CERTS = 0;
+
+    private ViewKeyCertsAdapter mCertsAdapter;
 
     private Uri mDataUri;
 
@@ -45,6 +60,8 @@ public class ViewKeyCertsFragment extends Fragment {
         View view = inflater.inflate(R.layout.view_key_certs_fragment, container, false);
 
         mActionCertify = (BootstrapButton) view.findViewById(R.id.action_certify);
+        mCerts = (ListView) view.findViewById(R.id.certs);
+        mCertsEmpty = (TextView) view.findViewById(R.id.certs_empty);
 
         return view;
     }
@@ -81,6 +98,61 @@ public class ViewKeyCertsFragment extends Fragment {
             }
         });
 
+        mCertsAdapter = new ViewKeyCertsAdapter(getActivity(), null, 0);
+        mCerts.setAdapter(mCertsAdapter);
+
+        // certifications have been verified when the key was imported, so this is only a query.
+        // Uses the loader manager of this fragment, the ids of the activity's one are taken.
+        getLoaderManager().initLoader(LOADER_ID_CERTS, null, this);
+    }
+
+    static final String[] CERTS_PROJECTION = new String[]{KeychainContract.Certs._ID,
+            KeychainContract.UserIds.USER_ID, KeychainContract.Certs.KEY_ID_CERTIFIER,
+            KeychainContract.Certs.CREATION, KeychainContract.Certs.VERIFIED};
+
+    public Loader<Cursor> onCreateLoader(int id, Bundle args) {
+        switch (id) {
+            case LOADER_ID_CERTS: {
+                // only certifications made by other keys, the provider leaves out self certifications
+                Uri baseUri = KeychainContract.Certs.buildCertsUri(mDataUri);
+
+                // Now create and return a CursorLoader that will take care of
+                // creating a Cursor for the data being displayed.
+                // Default sort order is by user id rank, newest first.
+                return new CursorLoader(getActivity(), baseUri, CERTS_PROJECTION, null, null, null);
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    public void onLoadFinished(Loader<Cursor> loader, Cursor data) {
+        // Swap the new cursor in. (The framework will take care of closing the
+        // old cursor once we return.)
+        switch (loader.getId()) {
+            case LOADER_ID_CERTS:
+                mCertsAdapter.swapCursor(data);
+                mCertsEmpty.setVisibility(data.getCount() == 0 ? View.VISIBLE : View.GONE);
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * This is called when the last Cursor provided to onLoadFinished() above is about to be closed.
+     * We need to make sure we are no longer using it.
+     */
+    public void onLoaderReset(Loader<Cursor> loader) {
+        switch (loader.getId()) {
+            case LOADER_ID_CERTS:
+                mCertsAdapter.swapCursor(null);
+                break;
+            default:
+                break;
+        }
     }
 
     private void certifyKey(Uri dataUri) {
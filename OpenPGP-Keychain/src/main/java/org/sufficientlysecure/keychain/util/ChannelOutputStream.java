@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.sufficientlysecure.keychain.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Collects writes in a large direct buffer and hands it to the channel in one go, instead of
+ * a system call for every small write (armor output is written a byte at a time).
+ */
+public class ChannelOutputStream extends OutputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel mChannel;
+    private final ByteBuffer mBuffer;
+    private boolean mClosed;
+
+    public ChannelOutputStream(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelOutputStream(WritableByteChannel channel, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+
+        mChannel = channel;
+        mBuffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!mBuffer.hasRemaining()) {
+            drain();
+        }
+        mBuffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!mBuffer.hasRemaining()) {
+                drain();
+            }
+
+            int n = Math.min(length, mBuffer.remaining());
+            mBuffer.put(b, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Writes out everything buffered so far.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!mClosed) {
+            drain();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+
+        try {
+            drain();
+        } finally {
+            mClosed = true;
+            mChannel.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (mClosed) {
+            throw new IOException("stream closed");
+        }
+    }
+
+    private void drain() throws IOException {
+        mBuffer.flip();
+        while (mBuffer.hasRemaining()) {
+            mChannel.write(mBuffer);
+        }
+        mBuffer.clear();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.sufficientlysecure.keychain.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.SecureRandom;
+
+/**
+ * Overwrites files in place before deleting them.
+ * <p/>
+ * Every pass writes exactly the length of the file through its FileChannel in large buffers
+ * and is synced to the device once at its end. Random passes come from the wiping thread's
+ * ThreadLocalSecureRandom, which is much faster than the platform SecureRandom.
+ */
+public class FileWiper {
+    private static final int BUFFER_SIZE = 1 << 20;
+    // random data is generated a chunk at a time and copied into the direct buffer
+    private static final int RANDOM_CHUNK_SIZE = 1 << 15;
+
+    /**
+     * Sequences of passes. A null pass is random data, anything else a pattern repeated over
+     * the whole file.
+     */
+    public enum Scheme {
+        /** One pass of random data. */
+        RANDOM(new byte[][]{null}),
+        /** DoD 5220.22-M: zeros, ones, then random data. */
+        DOD_5220_22_M(new byte[][]{{0x00}, {(byte) 0xff}, null}),
+        /** Schneier: zeros, ones, then five passes of random data. */
+        SCHNEIER(new byte[][]{{0x00}, {(byte) 0xff}, null, null, null, null, null});
+
+        private final byte[][] mPasses;
+
+        Scheme(byte[][] passes) {
+            mPasses = passes;
+        }
+
+        public int getPassCount() {
+            return mPasses.length;
+        }
+    }
+
+    private final Scheme mScheme;
+
+    public FileWiper(Scheme scheme) {
+        mScheme = scheme;
+    }
+
+    /**
+     * Overwrites and deletes the file on the calling thread.
+     */
+    public void wipe(File file, ProgressDialogUpdater progress, String message) throws IOException {
+        long length = file.length();
+        long total = length * mScheme.getPassCount();
+        long done = 0;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            SecureRandom random = null;
+            byte[] chunk = null;
+
+            for (byte[] pattern : mScheme.mPasses) {
+                int size = buffer.capacity();
+                if (pattern != null) {
+                    size = fillPattern(buffer, pattern);
+                } else if (random == null) {
+                    random = ThreadLocalSecureRandom.current();
+                    chunk = new byte[RANDOM_CHUNK_SIZE];
+                }
+
+                long pos = 0;
+                while (pos < length) {
+                    // never write past the end of the file
+                    int n = (int) Math.min(size, length - pos);
+                    if (pattern == null) {
+                        fillRandom(buffer, n, random, chunk);
+                    }
+
+                    buffer.limit(n);
+                    buffer.position(0);
+                    while (buffer.hasRemaining()) {
+                        pos += channel.write(buffer, pos);
+                    }
+
+                    done += n;
+                    if (progress != null && total > 0) {
+                        progress.setProgress(message, (int) (100 * done / total), 100);
+                    }
+                }
+
+                channel.force(false);
+            }
+        } finally {
+            raf.close();
+        }
+
+        if (!file.delete()) {
+            throw new IOException("could not delete " + file);
+        }
+    }
+
+    /**
+     * Repeats the pattern over the largest whole number of copies that fits the buffer, so
+     * successive writes of the buffer continue it seamlessly.
+     *
+     * @return the number of bytes filled
+     */
+    private static int fillPattern(ByteBuffer buffer, byte[] pattern) {
+        int size = buffer.capacity() - buffer.capacity() % pattern.length;
+        buffer.clear();
+        while (buffer.position() < size) {
+            buffer.put(pattern);
+        }
+        return size;
+    }
+
+    private static void fillRandom(ByteBuffer buffer, int length, SecureRandom random,
+                                   byte[] chunk) {
+        buffer.clear();
+        while (buffer.position() < length) {
+            random.nextBytes(chunk);
+            buffer.put(chunk, 0, Math.min(chunk.length, length - buffer.position()));
+        }
+    }
+}
@@ -14,15 +14,21 @@
 
 package org.sufficientlysecure.keychain.util;
 
+import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 public class InputData {
     private PositionAwareInputStream mInputStream;
     private long mSize;
+    private FileChannel mChannel;
 
     public InputData(InputStream inputStream, long size) {
         mInputStream = new PositionAwareInputStream(inputStream);
         mSize = size;
+        if (inputStream instanceof FileInputStream) {
+            mChannel = ((FileInputStream) inputStream).getChannel();
+        }
     }
 
     public InputStream getInputStream() {
@@ -33,6 +39,13 @@ public class InputData {
         return mSize;
     }
 
+    /**
+     * @return the channel of the input file, or null if the input is not read from a file
+     */
+    public FileChannel getChannel() {
+        return mChannel;
+    }
+
     public long getStreamPosition() {
         return mInputStream.position();
     }
@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.sufficientlysecure.keychain.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a channel on its own thread into a small pool of direct buffers, so the reader of
+ * this stream (hashing, encrypting) doesn't have to wait for the disk after every buffer.
+ * <p/>
+ * Closing the stream stops the read-ahead thread and closes the channel.
+ */
+public class ReadAheadInputStream extends InputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+    // smaller inputs aren't worth a thread and the buffers
+    public static final long MIN_SIZE = 1 << 20;
+
+    // queued after the last filled buffer, at the end of the channel or on a read error
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final ReadableByteChannel mChannel;
+    private final BlockingQueue<ByteBuffer> mFree;
+    private final BlockingQueue<ByteBuffer> mFilled;
+    private final Thread mThread;
+
+    private volatile IOException mError;
+    private ByteBuffer mCurrent;
+    private boolean mEnd;
+    private boolean mClosed;
+
+    /**
+     * Picks the stream to read an input through: a read-ahead stream over the channel if the
+     * input is a file of at least MIN_SIZE bytes, otherwise the input stream itself. Either
+     * way, closing the returned stream closes the file.
+     *
+     * @param stream  the input
+     * @param channel the channel of the input file, or null if the input is not a file
+     * @param size    the size of the input
+     */
+    public static InputStream wrap(InputStream stream, FileChannel channel, long size) {
+        if (channel != null && size >= MIN_SIZE) {
+            return new ReadAheadInputStream(channel);
+        }
+        return stream;
+    }
+
+    public ReadAheadInputStream(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+    }
+
+    public ReadAheadInputStream(ReadableByteChannel channel, int bufferSize, int bufferCount) {
+        if (bufferSize < 1 || bufferCount < 1) {
+            throw new IllegalArgumentException("bufferSize and bufferCount must be positive");
+        }
+
+        mChannel = channel;
+        mFree = new ArrayBlockingQueue<ByteBuffer>(bufferCount);
+        // one more slot for END
+        mFilled = new ArrayBlockingQueue<ByteBuffer>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            mFree.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                readAhead();
+            }
+        }, "ReadAheadInputStream");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    private void readAhead() {
+        try {
+            while (true) {
+                ByteBuffer buffer = mFree.take();
+                buffer.clear();
+
+                // fill the whole buffer unless the channel ends
+                int n;
+                do {
+                    n = mChannel.read(buffer);
+                } while (n >= 0 && buffer.hasRemaining());
+
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    mFilled.put(buffer);
+                }
+                if (n < 0) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed, nobody is waiting for more
+            return;
+        } catch (IOException e) {
+            mError = e;
+        }
+
+        try {
+            mFilled.put(END);
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    /**
+     * @return the current buffer with something left in it, or null at the end of the channel
+     */
+    private ByteBuffer current() throws IOException {
+        if (mClosed) {
+            throw new IOException("stream closed");
+        }
+        if (mCurrent != null && mCurrent.hasRemaining()) {
+            return mCurrent;
+        }
+        if (mEnd) {
+            return null;
+        }
+
+        if (mCurrent != null) {
+            mFree.add(mCurrent);
+            mCurrent = null;
+        }
+
+        ByteBuffer next;
+        try {
+            next = mFilled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for read-ahead");
+        }
+
+        if (next == END) {
+            mEnd = true;
+            if (mError != null) {
+                throw mError;
+            }
+            return null;
+        }
+
+        mCurrent = next;
+        return mCurrent;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ByteBuffer buffer = current();
+        if (buffer == null) {
+            return -1;
+        }
+        return buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        ByteBuffer buffer = current();
+        if (buffer == null) {
+            return -1;
+        }
+
+        int n = Math.min(length, buffer.remaining());
+        buffer.get(b, offset, n);
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (mClosed || mCurrent == null) {
+            return 0;
+        }
+        return mCurrent.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+
+        mThread.interrupt();
+        mCurrent = null;
+        mChannel.close();
+    }
+}
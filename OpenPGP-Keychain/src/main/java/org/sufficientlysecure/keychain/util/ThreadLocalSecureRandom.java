@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.sufficientlysecure.keychain.util;
+
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.prng.SP800SecureRandom;
+import org.spongycastle.crypto.prng.SP800SecureRandomBuilder;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * A SecureRandom backed by an AES-256 CTR DRBG (SP 800-90A), one per thread.
+ * <p/>
+ * Seeded from the platform SecureRandom (with PRNGFixes applied) and reseeded from it after
+ * RESEED_BYTES of output or RESEED_INTERVAL_NANOS, whichever comes first. Between reseeds it
+ * only runs AES and doesn't contend on a lock shared by all threads. Generating output costs
+ * two AES key schedules per request, so small requests (IVs, salts, session keys) are served
+ * from a block of DRBG output that is zeroed as it is handed out.
+ */
+public class ThreadLocalSecureRandom extends SecureRandom {
+    private static final long RESEED_BYTES = 1L << 24;
+    private static final long RESEED_INTERVAL_NANOS = 10L * 60 * 1000 * 1000 * 1000;
+    // the most an AES CTR DRBG hands out per request, 2^18 bits
+    private static final int MAX_REQUEST_SIZE = 1 << 15;
+    // requests up to this size are served from mBlock
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    private static final ThreadLocal<ThreadLocalSecureRandom> RANDOM =
+            new ThreadLocal<ThreadLocalSecureRandom>() {
+                @Override
+                protected ThreadLocalSecureRandom initialValue() {
+                    return new ThreadLocalSecureRandom();
+                }
+            };
+
+    private final SecureRandom mPlatform;
+    private final SP800SecureRandom mDrbg;
+    private final byte[] mBlock = new byte[BLOCK_SIZE];
+    private int mBlockOffset = BLOCK_SIZE;
+    private long mBytesSinceReseed;
+    private long mLastReseed;
+
+    /**
+     * @return the generator of the calling thread, created on first use
+     */
+    public static SecureRandom current() {
+        return RANDOM.get();
+    }
+
+    private ThreadLocalSecureRandom() {
+        mPlatform = new SecureRandom();
+
+        byte[] nonce = new byte[16];
+        mPlatform.nextBytes(nonce);
+
+        mDrbg = new SP800SecureRandomBuilder(mPlatform, false)
+                .setSecurityStrength(256)
+                .setEntropyBitsRequired(256)
+                .buildCTR(new AESFastEngine(), 256, nonce, false);
+        mLastReseed = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void nextBytes(byte[] bytes) {
+        long now = System.nanoTime();
+        if (mBytesSinceReseed >= RESEED_BYTES || now - mLastReseed >= RESEED_INTERVAL_NANOS) {
+            reseed(null, now);
+        }
+
+        if (bytes.length <= BLOCK_SIZE) {
+            nextBytesFromBlock(bytes);
+        } else if (bytes.length <= MAX_REQUEST_SIZE) {
+            mDrbg.nextBytes(bytes);
+            mBytesSinceReseed += bytes.length;
+        } else {
+            byte[] chunk = new byte[MAX_REQUEST_SIZE];
+            for (int off = 0; off < bytes.length; off += chunk.length) {
+                mDrbg.nextBytes(chunk);
+                System.arraycopy(chunk, 0, bytes, off, Math.min(chunk.length, bytes.length - off));
+            }
+            Arrays.fill(chunk, (byte) 0);
+            mBytesSinceReseed += bytes.length;
+        }
+    }
+
+    private void nextBytesFromBlock(byte[] bytes) {
+        int off = 0;
+        while (off < bytes.length) {
+            if (mBlockOffset == BLOCK_SIZE) {
+                mDrbg.nextBytes(mBlock);
+                mBytesSinceReseed += BLOCK_SIZE;
+                mBlockOffset = 0;
+            }
+
+            int n = Math.min(bytes.length - off, BLOCK_SIZE - mBlockOffset);
+            System.arraycopy(mBlock, mBlockOffset, bytes, off, n);
+            // handed out bytes must not stay around
+            Arrays.fill(mBlock, mBlockOffset, mBlockOffset + n, (byte) 0);
+            mBlockOffset += n;
+            off += n;
+        }
+    }
+
+    private void reseed(byte[] additionalInput, long now) {
+        mDrbg.reseed(additionalInput);
+        // output generated before the reseed is not used after it
+        Arrays.fill(mBlock, (byte) 0);
+        mBlockOffset = BLOCK_SIZE;
+        mBytesSinceReseed = 0;
+        mLastReseed = now;
+    }
+
+    /**
+     * Mixes the seed into the DRBG along with fresh entropy from the platform.
+     */
+    @Override
+    public synchronized void setSeed(byte[] seed) {
+        // also called by the SecureRandom constructor, before there is a DRBG
+        if (mDrbg != null) {
+            reseed(seed, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (seed >>> (56 - 8 * i));
+        }
+        setSeed(bytes);
+    }
+
+    /**
+     * Seeds come straight from the platform generator, not from the DRBG.
+     */
+    @Override
+    public byte[] generateSeed(int numBytes) {
+        return mPlatform.generateSeed(numBytes);
+    }
+}
@@ -218,6 +218,17 @@ public int processBytes(
             len -= gapLen;
             inOff += gapLen;
 
+            if (cipher instanceof MultiBlockCipher && len > buf.length)
+            {
+                // leave at least one byte behind for the buffer, as the loop below does.
+                int blockCount = (len - 1) / blockSize;
+
+                resultLen += ((MultiBlockCipher)cipher).processBlocks(in, inOff, blockCount, out, outOff + resultLen);
+
+                len -= blockCount * blockSize;
+                inOff += blockCount * blockSize;
+            }
+
             while (len > buf.length)
             {
                 resultLen += cipher.processBlock(in, inOff, out, outOff + resultLen);
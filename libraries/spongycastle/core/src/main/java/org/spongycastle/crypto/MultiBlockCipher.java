@@ -0,0 +1,28 @@
+package org.spongycastle.crypto;
+
+/**
+ * Block cipher modes which can process a run of consecutive blocks in one call are expected
+ * to conform to this interface.
+ */
+public interface MultiBlockCipher
+    extends BlockCipher
+{
+    /**
+     * Process blockCount blocks of input from the array in and write them to the out array.
+     * The result is the same as blockCount successive calls to processBlock().
+     * <p>
+     * The in and out arrays may be the same array, provided inOff and outOff are the same.
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param blockCount the number of blocks to process.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes processed and produced.
+     */
+    public int processBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException;
+}
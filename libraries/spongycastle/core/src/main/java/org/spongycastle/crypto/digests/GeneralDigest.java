@@ -75,6 +75,32 @@ public void update(
             len--;
         }
 
+        //
+        // process whole words up to the next block boundary.
+        //
+        while ((len > xBuf.length) && ((byteCount & (BYTE_LENGTH - 1)) != 0))
+        {
+            processWord(in, inOff);
+
+            inOff += xBuf.length;
+            len -= xBuf.length;
+            byteCount += xBuf.length;
+        }
+
+        //
+        // process whole blocks straight from the input.
+        //
+        if (len >= BYTE_LENGTH)
+        {
+            int blocks = len / BYTE_LENGTH;
+
+            processBlocks(in, inOff, blocks);
+
+            inOff += blocks * BYTE_LENGTH;
+            len -= blocks * BYTE_LENGTH;
+            byteCount += blocks * BYTE_LENGTH;
+        }
+
         //
         // process whole words.
         //
@@ -136,6 +162,23 @@ public int getByteLength()
     
     protected abstract void processWord(byte[] in, int inOff);
 
+    /**
+     * Process a run of whole blocks taken directly from the input. This is only called
+     * on a block boundary, so digests can override it to skip the word at a time path.
+     *
+     * @param in the input array.
+     * @param inOff the offset of the first block.
+     * @param blocks the number of 64 byte blocks to process.
+     */
+    protected void processBlocks(byte[] in, int inOff, int blocks)
+    {
+        for (int words = blocks * (BYTE_LENGTH / 4); words > 0; words--)
+        {
+            processWord(in, inOff);
+            inOff += 4;
+        }
+    }
+
     protected abstract void processLength(long bitLength);
 
     protected abstract void processBlock();
@@ -97,6 +97,35 @@ public void update(
             len--;
         }
 
+        //
+        // process whole words up to the next block boundary.
+        //
+        while ((len > xBuf.length) && (wOff != 0))
+        {
+            processWord(in, inOff);
+
+            inOff += xBuf.length;
+            len -= xBuf.length;
+            byteCount1 += xBuf.length;
+        }
+
+        //
+        // process whole blocks straight from the input.
+        //
+        while (len >= BYTE_LENGTH)
+        {
+            for (int i = 0; i < 16; i++)
+            {
+                W[i] = Pack.bigEndianToLong(in, inOff);
+                inOff += 8;
+            }
+
+            processBlock();
+
+            len -= BYTE_LENGTH;
+            byteCount1 += BYTE_LENGTH;
+        }
+
         //
         // process whole words.
         //
@@ -78,6 +78,27 @@ protected void processWord(
         }        
     }
 
+    protected void processBlocks(
+        byte[]  in,
+        int     inOff,
+        int     blocks)
+    {
+        while (blocks-- > 0)
+        {
+            for (int i = 0; i < 16; i++)
+            {
+                int n = in[inOff] << 24;
+                n |= (in[inOff + 1] & 0xff) << 16;
+                n |= (in[inOff + 2] & 0xff) << 8;
+                n |= (in[inOff + 3] & 0xff);
+                X[i] = n;
+                inOff += 4;
+            }
+
+            processBlock();
+        }
+    }
+
     protected void processLength(
         long    bitLength)
     {
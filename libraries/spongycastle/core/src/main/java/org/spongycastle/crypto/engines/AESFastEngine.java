@@ -743,6 +743,35 @@ public int processBlock(
         return BLOCK_SIZE;
     }
 
+    /**
+     * Encrypt a block held as four words, in place. The words are in the little endian order
+     * used internally, so a caller working a word at a time (such as a CFB mode) does not need
+     * to convert the block to and from bytes around every call.
+     *
+     * @param block the four words making up the block.
+     * @exception IllegalStateException if the cipher isn't initialised for encryption.
+     */
+    public void encryptWords(
+        int[] block)
+    {
+        if (WorkingKey == null || !forEncryption)
+        {
+            throw new IllegalStateException("AES engine not initialised for encryption");
+        }
+
+        C0 = block[0];
+        C1 = block[1];
+        C2 = block[2];
+        C3 = block[3];
+
+        encryptBlock(WorkingKey);
+
+        block[0] = C0;
+        block[1] = C1;
+        block[2] = C2;
+        block[3] = C3;
+    }
+
     public void reset()
     {
     }
@@ -2,6 +2,7 @@
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
 
 import org.spongycastle.crypto.AsymmetricBlockCipher;
 import org.spongycastle.crypto.CipherParameters;
@@ -19,10 +20,30 @@
 {
     private static final BigInteger ONE = BigInteger.valueOf(1);
 
-    private RSACoreEngine    core = new RSACoreEngine();
+    private RSACoreEngine    core;
     private RSAKeyParameters key;
     private SecureRandom     random;
 
+    /**
+     * Base constructor.
+     */
+    public RSABlindedEngine()
+    {
+        this(null);
+    }
+
+    /**
+     * Create an engine which performs the two CRT exponentiations for a private key
+     * at the same time, one of them on the passed in executor. Blinding is applied
+     * as usual around the whole operation.
+     *
+     * @param executor the executor to use, null for no concurrency.
+     */
+    public RSABlindedEngine(ExecutorService executor)
+    {
+        this.core = new RSACoreEngine(executor);
+    }
+
     /**
      * initialise the RSA engine.
      *
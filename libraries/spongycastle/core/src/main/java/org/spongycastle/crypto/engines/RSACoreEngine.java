@@ -7,6 +7,13 @@
 import org.spongycastle.crypto.params.RSAPrivateCrtKeyParameters;
 
 import java.math.BigInteger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.spongycastle.util.Parallel;
 
 /**
  * this does your basic RSA algorithm.
@@ -15,6 +22,23 @@
 {
     private RSAKeyParameters key;
     private boolean          forEncryption;
+    private ExecutorService  executor;
+
+    RSACoreEngine()
+    {
+    }
+
+    /**
+     * Create an engine which, for private keys with CRT factors, works out the
+     * exponentiation mod q on the passed in executor while the one mod p runs on
+     * the calling thread.
+     *
+     * @param executor the executor to use, null for no concurrency.
+     */
+    RSACoreEngine(ExecutorService executor)
+    {
+        this.executor = executor;
+    }
 
     /**
      * initialise the RSA engine.
@@ -170,18 +194,58 @@ public BigInteger processBlock(BigInteger input)
             RSAPrivateCrtKeyParameters crtKey = (RSAPrivateCrtKeyParameters)key;
 
             BigInteger p = crtKey.getP();
-            BigInteger q = crtKey.getQ();
+            final BigInteger q = crtKey.getQ();
             BigInteger dP = crtKey.getDP();
-            BigInteger dQ = crtKey.getDQ();
+            final BigInteger dQ = crtKey.getDQ();
             BigInteger qInv = crtKey.getQInv();
 
             BigInteger mP, mQ, h, m;
 
+            Future mQResult = null;
+            final AtomicBoolean mQClaimed = new AtomicBoolean();
+            if (executor != null)
+            {
+                final BigInteger inputQ = input.remainder(q);
+
+                try
+                {
+                    mQResult = executor.submit(new Callable()
+                    {
+                        public Object call()
+                        {
+                            if (!mQClaimed.compareAndSet(false, true))
+                            {
+                                return null;    // the caller has done it already
+                            }
+                            return inputQ.modPow(dQ, q);
+                        }
+                    });
+                }
+                catch (RejectedExecutionException e)
+                {
+                    // executor shut down or saturated - fall back to doing it here.
+                }
+            }
+
             // mP = ((input mod p) ^ dP)) mod p
             mP = (input.remainder(p)).modPow(dP, p);
 
-            // mQ = ((input mod q) ^ dQ)) mod q
-            mQ = (input.remainder(q)).modPow(dQ, q);
+            if (mQResult != null && !mQClaimed.compareAndSet(false, true))
+            {
+                // already started, so it will finish without needing this thread.
+                mQ = (BigInteger)Parallel.waitFor(mQResult);
+            }
+            else
+            {
+                // not started yet - don't wait on a possibly saturated executor, do it here.
+                if (mQResult != null)
+                {
+                    mQResult.cancel(false);
+                }
+
+                // mQ = ((input mod q) ^ dQ)) mod q
+                mQ = (input.remainder(q)).modPow(dQ, q);
+            }
 
             // h = qInv * (mP - mQ) mod p
             h = mP.subtract(mQ);
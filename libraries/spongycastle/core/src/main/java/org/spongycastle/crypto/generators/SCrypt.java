@@ -1,21 +1,51 @@
 package org.spongycastle.crypto.generators;
 
+import java.util.concurrent.ExecutorService;
+
 import org.spongycastle.crypto.PBEParametersGenerator;
 import org.spongycastle.crypto.digests.SHA256Digest;
 import org.spongycastle.crypto.engines.Salsa20Engine;
 import org.spongycastle.crypto.params.KeyParameter;
 import org.spongycastle.crypto.util.Pack;
 import org.spongycastle.util.Arrays;
+import org.spongycastle.util.Parallel;
 
 public class SCrypt
 {
     // TODO Validate arguments
     public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen)
     {
-        return MFcrypt(P, S, N, r, p, dkLen);
+        return MFcrypt(P, S, N, r, p, dkLen, null, 1);
+    }
+
+    /**
+     * Generate a key as generate(P, S, N, r, p, dkLen) does, running the p independent SMix
+     * lanes at the same time where the memory limit allows it.
+     * <p>
+     * Each lane running needs getLaneMemory(N, r) bytes, so at most maxMemory / getLaneMemory(N, r)
+     * lanes, but always at least one, are run at once - one on the calling thread and the rest as
+     * tasks on the passed in executor. The result is the same as for the sequential version.
+     * </p>
+     *
+     * @param executor the executor to run the extra lanes on, null to run them all on the calling thread.
+     * @param maxMemory the most memory, in bytes, the lanes running at the same time should use between them.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen, ExecutorService executor, long maxMemory)
+    {
+        long lanes = Math.min(p, maxMemory / getLaneMemory(N, r));
+
+        return MFcrypt(P, S, N, r, p, dkLen, executor, (executor == null) ? 1 : (int)Math.max(1, lanes));
     }
 
-    private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen)
+    /**
+     * Return the number of bytes an SMix lane needs for its table of N blocks of 128 * r bytes.
+     */
+    public static long getLaneMemory(int N, int r)
+    {
+        return 128L * r * N;
+    }
+
+    private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen, ExecutorService executor, int lanes)
     {
         int MFLenBytes = r * 128;
         byte[] bytes = SingleIterationPBKDF2(P, S, p * MFLenBytes);
@@ -30,10 +60,16 @@ private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen
             Pack.littleEndianToInt(bytes, 0, B);
 
             int MFLenWords = MFLenBytes >>> 2;
-            for (int BOff = 0; BOff < BLen; BOff += MFLenWords)
+            if (lanes <= 1)
             {
-                // TODO These can be done in parallel threads
-                SMix(B, BOff, N, r);
+                for (int BOff = 0; BOff < BLen; BOff += MFLenWords)
+                {
+                    SMix(B, BOff, N, r);
+                }
+            }
+            else
+            {
+                parallelSMix(B, N, r, p, executor, lanes);
             }
 
             Pack.intToLittleEndian(B, bytes, 0);
@@ -55,6 +91,23 @@ private static byte[] SingleIterationPBKDF2(byte[] P, byte[] S, int dkLen)
         return key.getKey();
     }
 
+    /**
+     * Run the p lanes of B on the calling thread and up to lanes - 1 tasks on the executor.
+     * The lanes write to separate parts of B.
+     */
+    private static void parallelSMix(final int[] B, final int N, final int r, int p, ExecutorService executor, int lanes)
+    {
+        final int MFLenWords = r * 32;
+
+        Parallel.forEach(p, executor, lanes, new Parallel.Body()
+        {
+            public void run(int lane)
+            {
+                SMix(B, lane * MFLenWords, N, r);
+            }
+        });
+    }
+
     private static void SMix(int[] B, int BOff, int N, int r)
     {
         int BCount = r * 32;
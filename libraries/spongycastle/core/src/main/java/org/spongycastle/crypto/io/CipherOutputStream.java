@@ -25,6 +25,8 @@
     private StreamCipher streamCipher;
     private AEADBlockCipher aeadBlockCipher;
 
+    private static final int MAX_CHUNK_SIZE = 4096;
+
     private final byte[] oneByte = new byte[1];
     private byte[] buf;
 
@@ -106,6 +108,9 @@ public void write(
     /**
      * Writes <code>len</code> bytes from the specified byte array
      * starting at offset <code>off</code> to this output stream.
+     * <p/>
+     * Large writes are passed through the cipher in chunks so the
+     * ciphertext buffer stays at a fixed size whatever the size of the write.
      *
      * @param b   the data.
      * @param off the start offset in the data.
@@ -117,6 +122,23 @@ public void write(
         int off,
         int len)
         throws IOException
+    {
+        while (len > MAX_CHUNK_SIZE)
+        {
+            writeChunk(b, off, MAX_CHUNK_SIZE);
+
+            off += MAX_CHUNK_SIZE;
+            len -= MAX_CHUNK_SIZE;
+        }
+
+        writeChunk(b, off, len);
+    }
+
+    private void writeChunk(
+        byte[] b,
+        int off,
+        int len)
+        throws IOException
     {
         ensureCapacity(len);
 
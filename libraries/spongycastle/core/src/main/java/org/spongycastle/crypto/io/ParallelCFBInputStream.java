@@ -0,0 +1,265 @@
+package org.spongycastle.crypto.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.util.Parallel;
+
+/**
+ * An input stream which decrypts full block CFB mode cipher text using several copies of a
+ * block cipher at once.
+ * <p>
+ * Unlike encryption, CFB decryption of a block only depends on the cipher text block before
+ * it, so once a chunk of cipher text has been read it can be cut into slices which are decrypted
+ * independently. The slices of each chunk are shared between the calling thread and tasks on the
+ * passed in executor. Small chunks are decrypted on the calling thread alone.
+ * </p>
+ * <p>
+ * The engines passed in must be distinct instances of the same algorithm, one for each slice
+ * that may run at the same time - they are initialised for encryption by this class.
+ * </p>
+ */
+public class ParallelCFBInputStream
+    extends FilterInputStream
+{
+    private static final int SLICE_SIZE = 16 * 1024;
+    private static final int MIN_SLICE_SIZE = 2048;
+
+    private final BlockCipher[] engines;
+    private final ExecutorService executor;
+    private final int blockSize;
+
+    private final byte[] feedback;
+    private final byte[] keyStream;
+    private final byte[] inBuf;
+    private final byte[] buf;
+
+    private int bufOff;
+    private int maxBuf;
+    private boolean finished;
+
+    /**
+     * Base constructor.
+     *
+     * @param is the stream of cipher text.
+     * @param engines one uninitialised block cipher per slice to decrypt at the same time.
+     * @param params the key, optionally with an IV - if no IV is given a zero IV is used.
+     * @param executor the executor to run the extra slice tasks on.
+     */
+    public ParallelCFBInputStream(
+        InputStream      is,
+        BlockCipher[]    engines,
+        CipherParameters params,
+        ExecutorService  executor)
+    {
+        super(is);
+
+        this.engines = engines;
+        this.executor = executor;
+        this.blockSize = engines[0].getBlockSize();
+        this.feedback = new byte[blockSize];
+        this.keyStream = new byte[blockSize];
+
+        if (params instanceof ParametersWithIV)
+        {
+            ParametersWithIV ivParam = (ParametersWithIV)params;
+            byte[]           iv = ivParam.getIV();
+
+            // prepend the supplied IV with zeros (per FIPS PUB 81), as CFBBlockCipher does
+            System.arraycopy(iv, 0, feedback, Math.max(0, blockSize - iv.length), Math.min(iv.length, blockSize));
+
+            params = ivParam.getParameters();
+        }
+
+        for (int i = 0; i != engines.length; i++)
+        {
+            engines[i].init(true, params);
+        }
+
+        int sliceSize = SLICE_SIZE - (SLICE_SIZE % blockSize);
+
+        this.inBuf = new byte[sliceSize * engines.length];
+        this.buf = new byte[inBuf.length];
+    }
+
+    private int nextChunk()
+        throws IOException
+    {
+        if (finished)
+        {
+            return -1;
+        }
+
+        // partial blocks are only allowed at the end of the stream, so fill the buffer completely.
+        int len = 0;
+        while (len < inBuf.length)
+        {
+            int read = in.read(inBuf, len, inBuf.length - len);
+            if (read < 0)
+            {
+                finished = true;
+                break;
+            }
+            len += read;
+        }
+
+        if (len == 0)
+        {
+            return -1;
+        }
+
+        int blockCount = len / blockSize;
+
+        if (blockCount != 0)
+        {
+            decryptBlocks(blockCount);
+
+            System.arraycopy(inBuf, (blockCount - 1) * blockSize, feedback, 0, blockSize);
+        }
+
+        int tail = len - blockCount * blockSize;
+        if (tail != 0)
+        {
+            engines[0].processBlock(feedback, 0, keyStream, 0);
+
+            for (int i = 0, off = blockCount * blockSize; i != tail; i++, off++)
+            {
+                buf[off] = (byte)(keyStream[i] ^ inBuf[off]);
+            }
+        }
+
+        bufOff = 0;
+        maxBuf = len;
+
+        return maxBuf;
+    }
+
+    private void decryptBlocks(final int blockCount)
+    {
+        int sliceCount = Math.min(engines.length, Math.max(1, blockCount * blockSize / MIN_SLICE_SIZE));
+        final int sliceBlocks = (blockCount + sliceCount - 1) / sliceCount;
+
+        sliceCount = (blockCount + sliceBlocks - 1) / sliceBlocks;
+
+        // each slice has its own engine, so no engine is used by two threads at once
+        Parallel.forEach(sliceCount, executor, sliceCount, new Parallel.Body()
+        {
+            public void run(int slice)
+            {
+                int start = slice * sliceBlocks;
+
+                decryptSlice(engines[slice], start, Math.min(sliceBlocks, blockCount - start));
+            }
+        });
+    }
+
+    private void decryptSlice(BlockCipher engine, int startBlock, int blockCount)
+    {
+        int off = startBlock * blockSize;
+        int end = off + blockCount * blockSize;
+
+        byte[] prev = (off == 0) ? feedback : inBuf;
+        int prevOff = off - blockSize;
+
+        engine.processBlock(prev, (off == 0) ? 0 : prevOff, buf, off);
+
+        for (;;)
+        {
+            for (int i = 0; i < blockSize; i++)
+            {
+                buf[off + i] ^= inBuf[off + i];
+            }
+
+            prevOff = off;
+            off += blockSize;
+
+            if (off == end)
+            {
+                break;
+            }
+
+            engine.processBlock(inBuf, prevOff, buf, off);
+        }
+    }
+
+    public int read()
+        throws IOException
+    {
+        if (bufOff >= maxBuf)
+        {
+            if (nextChunk() < 0)
+            {
+                return -1;
+            }
+        }
+
+        return buf[bufOff++] & 0xff;
+    }
+
+    public int read(
+        byte[] b)
+        throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    public int read(
+        byte[] b,
+        int off,
+        int len)
+        throws IOException
+    {
+        if (bufOff >= maxBuf)
+        {
+            if (nextChunk() < 0)
+            {
+                return -1;
+            }
+        }
+
+        int toSupply = Math.min(len, available());
+        System.arraycopy(buf, bufOff, b, off, toSupply);
+        bufOff += toSupply;
+        return toSupply;
+    }
+
+    public long skip(
+        long n)
+        throws IOException
+    {
+        if (n <= 0)
+        {
+            return 0;
+        }
+
+        int skip = (int)Math.min(n, available());
+        bufOff += skip;
+        return skip;
+    }
+
+    public int available()
+        throws IOException
+    {
+        return maxBuf - bufOff;
+    }
+
+    public void mark(int readlimit)
+    {
+    }
+
+    public void reset()
+        throws IOException
+    {
+        throw new IOException("mark/reset not supported");
+    }
+
+    public boolean markSupported()
+    {
+        return false;
+    }
+}
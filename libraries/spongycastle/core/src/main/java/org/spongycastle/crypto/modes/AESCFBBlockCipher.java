@@ -0,0 +1,237 @@
+package org.spongycastle.crypto.modes;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.crypto.util.Pack;
+
+/**
+ * implements a full block (128 bit) Cipher-FeedBack (CFB) mode on top of AES.
+ * <p>
+ * The output is the same as a CFBBlockCipher wrapping an AESFastEngine with a 128 bit
+ * feedback size, but the feedback register is kept as words from one block to the next, so
+ * the bytes are only packed and unpacked once on their way through.
+ */
+public class AESCFBBlockCipher
+    implements MultiBlockCipher
+{
+    private static final int BLOCK_SIZE = 16;
+
+    private byte[]          IV = new byte[BLOCK_SIZE];
+    private int[]           cfbV = new int[BLOCK_SIZE / 4];
+
+    private AESFastEngine   cipher;
+    private boolean         encrypting;
+
+    /**
+     * Basic constructor.
+     */
+    public AESCFBBlockCipher()
+    {
+        this(new AESFastEngine());
+    }
+
+    /**
+     * Constructor for a mode on top of a particular engine instance.
+     *
+     * @param cipher the AES engine to be used as the basis of the feedback mode.
+     */
+    public AESCFBBlockCipher(
+        AESFastEngine cipher)
+    {
+        this.cipher = cipher;
+    }
+
+    /**
+     * return the underlying block cipher that we are wrapping.
+     *
+     * @return the underlying block cipher that we are wrapping.
+     */
+    public BlockCipher getUnderlyingCipher()
+    {
+        return cipher;
+    }
+
+    /**
+     * Initialise the cipher and, possibly, the initialisation vector (IV).
+     * If an IV isn't passed as part of the parameter, the IV will be all zeros.
+     * An IV which is too short is handled in FIPS compliant fashion.
+     *
+     * @param encrypting if true the cipher is initialised for
+     *  encryption, if false for decryption.
+     * @param params the key and other data required by the cipher.
+     * @exception IllegalArgumentException if the params argument is
+     * inappropriate.
+     */
+    public void init(
+        boolean             encrypting,
+        CipherParameters    params)
+        throws IllegalArgumentException
+    {
+        this.encrypting = encrypting;
+
+        if (params instanceof ParametersWithIV)
+        {
+            ParametersWithIV ivParam = (ParametersWithIV)params;
+            byte[]      iv = ivParam.getIV();
+
+            if (iv.length < IV.length)
+            {
+                // prepend the supplied IV with zeros (per FIPS PUB 81)
+                System.arraycopy(iv, 0, IV, IV.length - iv.length, iv.length);
+                for (int i = 0; i < IV.length - iv.length; i++)
+                {
+                    IV[i] = 0;
+                }
+            }
+            else
+            {
+                System.arraycopy(iv, 0, IV, 0, IV.length);
+            }
+
+            reset();
+
+            // if null it's an IV changed only.
+            if (ivParam.getParameters() != null)
+            {
+                cipher.init(true, ivParam.getParameters());
+            }
+        }
+        else
+        {
+            reset();
+
+            // if it's null, key is to be reused.
+            if (params != null)
+            {
+                cipher.init(true, params);
+            }
+        }
+    }
+
+    /**
+     * return the algorithm name and mode.
+     *
+     * @return the name of the underlying algorithm followed by "/CFB"
+     * and the block size in bits.
+     */
+    public String getAlgorithmName()
+    {
+        return cipher.getAlgorithmName() + "/CFB" + (BLOCK_SIZE * 8);
+    }
+
+    /**
+     * return the block size we are operating at.
+     *
+     * @return the block size we are operating at (in bytes).
+     */
+    public int getBlockSize()
+    {
+        return BLOCK_SIZE;
+    }
+
+    /**
+     * Process one block of input from the array in and write it to
+     * the out array.
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes processed and produced.
+     */
+    public int processBlock(
+        byte[]      in,
+        int         inOff,
+        byte[]      out,
+        int         outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        return processBlocks(in, inOff, 1, out, outOff);
+    }
+
+    /**
+     * Process blockCount blocks of input from the array in and write them to
+     * the out array.
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param blockCount the number of blocks to process.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes processed and produced.
+     */
+    public int processBlocks(
+        byte[]      in,
+        int         inOff,
+        int         blockCount,
+        byte[]      out,
+        int         outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int length = blockCount * BLOCK_SIZE;
+
+        if ((inOff + length) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if ((outOff + length) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        int[] v = cfbV;
+
+        for (int end = inOff + length; inOff != end; inOff += BLOCK_SIZE, outOff += BLOCK_SIZE)
+        {
+            cipher.encryptWords(v);
+
+            //
+            // v now holds the key stream, replace it with the cipher text as we go -
+            // the input is read before the output is written so in and out can overlap.
+            //
+            for (int i = 0; i < 4; i++)
+            {
+                int inWord = Pack.littleEndianToInt(in, inOff + 4 * i);
+                int outWord = v[i] ^ inWord;
+
+                Pack.intToLittleEndian(outWord, out, outOff + 4 * i);
+
+                v[i] = encrypting ? outWord : inWord;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Return the current state of the initialisation vector.
+     *
+     * @return current IV
+     */
+    public byte[] getCurrentIV()
+    {
+        return Pack.intToLittleEndian(cfbV);
+    }
+
+    /**
+     * reset the chaining vector back to the IV and reset the underlying
+     * cipher.
+     */
+    public void reset()
+    {
+        Pack.littleEndianToInt(IV, 0, cfbV);
+
+        cipher.reset();
+    }
+}
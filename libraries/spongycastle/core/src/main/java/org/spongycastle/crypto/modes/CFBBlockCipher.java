@@ -3,6 +3,7 @@
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
 import org.spongycastle.crypto.params.ParametersWithIV;
 import org.spongycastle.util.Arrays;
 
@@ -10,7 +11,7 @@
  * implements a Cipher-FeedBack (CFB) mode on top of a simple cipher.
  */
 public class CFBBlockCipher
-    implements BlockCipher
+    implements MultiBlockCipher
 {
     private byte[]          IV;
     private byte[]          cfbV;
@@ -150,6 +151,79 @@ public int processBlock(
         return (encrypting) ? encryptBlock(in, inOff, out, outOff) : decryptBlock(in, inOff, out, outOff);
     }
 
+    /**
+     * Process blockCount blocks of input from the array in and write them to
+     * the out array.
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param blockCount the number of blocks to process.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes processed and produced.
+     */
+    public int processBlocks(
+        byte[]      in,
+        int         inOff,
+        int         blockCount,
+        byte[]      out,
+        int         outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int length = blockCount * blockSize;
+
+        if ((inOff + length) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if ((outOff + length) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        if (blockSize != cfbV.length)
+        {
+            for (int i = 0; i != length; i += blockSize)
+            {
+                processBlock(in, inOff + i, out, outOff + i);
+            }
+
+            return length;
+        }
+
+        //
+        // full block feedback - the cipher text block becomes the next cfbV as it is produced.
+        //
+        for (int end = inOff + length; inOff != end; inOff += blockSize, outOff += blockSize)
+        {
+            cipher.processBlock(cfbV, 0, cfbOutV, 0);
+
+            if (encrypting)
+            {
+                for (int i = 0; i < blockSize; i++)
+                {
+                    cfbV[i] = out[outOff + i] = (byte)(cfbOutV[i] ^ in[inOff + i]);
+                }
+            }
+            else
+            {
+                for (int i = 0; i < blockSize; i++)
+                {
+                    byte inVal = in[inOff + i];
+
+                    cfbV[i] = inVal;
+                    out[outOff + i] = (byte)(cfbOutV[i] ^ inVal);
+                }
+            }
+        }
+
+        return length;
+    }
+
     /**
      * Do the appropriate processing for CFB mode encryption.
      *
@@ -3,6 +3,7 @@
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
 
 /**
  * Implements OpenPGP's rather strange version of Cipher-FeedBack (CFB) mode
@@ -13,7 +14,7 @@
  * For further info see <a href="http://www.ietf.org/rfc/rfc2440.html">RFC 2440</a>.
  */
 public class OpenPGPCFBBlockCipher
-    implements BlockCipher
+    implements MultiBlockCipher
 {
     private byte[] IV;
     private byte[] FR;
@@ -96,6 +97,66 @@ public int processBlock(
         return (forEncryption) ? encryptBlock(in, inOff, out, outOff) : decryptBlock(in, inOff, out, outOff);
     }
     
+    /**
+     * Process blockCount blocks of input from the array in and write them to
+     * the out array. The first two blocks after a reset go through processBlock()
+     * to take care of the resync, the remaining ones are done in a single loop.
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param blockCount the number of blocks to process.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes processed and produced.
+     */
+    public int processBlocks(
+        byte[] in,
+        int inOff,
+        int blockCount,
+        byte[] out,
+        int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int length = blockCount * blockSize;
+
+        if ((inOff + length) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if ((outOff + length) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        int end = inOff + length;
+
+        while (count <= blockSize && inOff != end)
+        {
+            processBlock(in, inOff, out, outOff);
+
+            inOff += blockSize;
+            outOff += blockSize;
+        }
+
+        for (; inOff != end; inOff += blockSize, outOff += blockSize)
+        {
+            if (forEncryption)
+            {
+                encryptSteadyBlock(in, inOff, out, outOff);
+            }
+            else
+            {
+                decryptSteadyBlock(in, inOff, out, outOff);
+            }
+        }
+
+        return length;
+    }
+
     /**
      * reset the chaining vector back to the IV and reset the underlying
      * cipher.
@@ -143,6 +204,54 @@ private byte encryptByte(byte data, int blockOff)
         return (byte)(FRE[blockOff] ^ data);
     }
     
+    /**
+     * Encrypt one block once the resync is done - the two bytes left over from the
+     * previous block are encrypted first, then the feedback register moves on.
+     */
+    private void encryptSteadyBlock(
+        byte[] in,
+        int inOff,
+        byte[] out,
+        int outOff)
+    {
+        FR[blockSize - 2] = out[outOff] = encryptByte(in[inOff], blockSize - 2);
+        FR[blockSize - 1] = out[outOff + 1] = encryptByte(in[inOff + 1], blockSize - 1);
+
+        cipher.processBlock(FR, 0, FRE, 0);
+
+        for (int n = 2; n < blockSize; n++) 
+        {
+            FR[n - 2] = out[outOff + n] = encryptByte(in[inOff + n], n - 2);
+        }
+    }
+
+    /**
+     * Decrypt one block once the resync is done, the counterpart of encryptSteadyBlock().
+     */
+    private void decryptSteadyBlock(
+        byte[] in,
+        int inOff,
+        byte[] out,
+        int outOff)
+    {
+        byte inVal = in[inOff];
+        FR[blockSize - 2] = inVal;
+        out[outOff] = encryptByte(inVal, blockSize - 2);
+
+        inVal = in[inOff + 1];
+        FR[blockSize - 1] = inVal;
+        out[outOff + 1] = encryptByte(inVal, blockSize - 1);
+
+        cipher.processBlock(FR, 0, FRE, 0);
+        
+        for (int n = 2; n < blockSize; n++) 
+        {
+            inVal = in[inOff + n];
+            FR[n - 2] = inVal;
+            out[outOff + n] = encryptByte(inVal, n - 2);
+        }
+    }
+
     /**
      * Do the appropriate processing for CFB IV mode encryption.
      *
@@ -174,15 +283,7 @@ private int encryptBlock(
         
         if (count > blockSize)
         {
-            FR[blockSize - 2] = out[outOff] = encryptByte(in[inOff], blockSize - 2);
-            FR[blockSize - 1] = out[outOff + 1] = encryptByte(in[inOff + 1], blockSize - 1);
-
-            cipher.processBlock(FR, 0, FRE, 0);
-
-            for (int n = 2; n < blockSize; n++) 
-            {
-                FR[n - 2] = out[outOff + n] = encryptByte(in[inOff + n], n - 2);
-            }
+            encryptSteadyBlock(in, inOff, out, outOff);
         }
         else if (count == 0)
         {
@@ -252,22 +353,7 @@ private int decryptBlock(
         
         if (count > blockSize)
         {
-            byte inVal = in[inOff];
-            FR[blockSize - 2] = inVal;
-            out[outOff] = encryptByte(inVal, blockSize - 2);
-
-            inVal = in[inOff + 1];
-            FR[blockSize - 1] = inVal;
-            out[outOff + 1] = encryptByte(inVal, blockSize - 1);
-
-            cipher.processBlock(FR, 0, FRE, 0);
-            
-            for (int n = 2; n < blockSize; n++) 
-            {
-                inVal = in[inOff + n];
-                FR[n - 2] = inVal;
-                out[outOff + n] = encryptByte(inVal, n - 2);
-            }
+            decryptSteadyBlock(in, inOff, out, outOff);
         } 
         else if (count == 0)
         {
@@ -276,7 +362,7 @@ else if (count == 0)
             for (int n = 0; n < blockSize; n++) 
             {
                 FR[n] = in[inOff + n];
-                out[n] = encryptByte(in[inOff + n], n);
+                out[outOff + n] = encryptByte(in[inOff + n], n);
             }
             
             count += blockSize;
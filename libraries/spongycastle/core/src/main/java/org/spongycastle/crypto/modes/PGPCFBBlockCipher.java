@@ -3,13 +3,14 @@
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
 import org.spongycastle.crypto.params.ParametersWithIV;
 
 /**
  * Implements OpenPGP's rather strange version of Cipher-FeedBack (CFB) mode on top of a simple cipher. For further info see <a href="http://www.ietf.org/rfc/rfc2440.html">RFC 2440</a>.
  */
 public class PGPCFBBlockCipher
-    implements BlockCipher
+    implements MultiBlockCipher
 {
     private byte[] IV;
     private byte[] FR;
@@ -113,6 +114,39 @@ public int processBlock(
         }
     }
     
+    /**
+     * Process blockCount blocks of input from the array in and write them to
+     * the out array. In inline IV mode the amount of output produced can differ
+     * from the amount of input consumed, as it does for processBlock().
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param blockCount the number of blocks to process.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes produced.
+     */
+    public int processBlocks(
+        byte[] in,
+        int inOff,
+        int blockCount,
+        byte[] out,
+        int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int length = 0;
+
+        for (int i = 0; i != blockCount; i++)
+        {
+            length += processBlock(in, inOff + i * blockSize, out, outOff + length);
+        }
+
+        return length;
+    }
+
     /**
      * reset the chaining vector back to the IV and reset the underlying
      * cipher.
@@ -441,12 +475,11 @@ private int decryptBlock(
         cipher.processBlock(FR, 0, FRE, 0);
         for (int n = 0; n < blockSize; n++) 
         {
-            out[outOff + n] = encryptByte(in[inOff + n], n);
-        }
-        
-        for (int n = 0; n < blockSize; n++) 
-        {
-            FR[n] = in[inOff + n];
+            // read the input first so this mode works if in and out are the same
+            byte inVal = in[inOff + n];
+
+            FR[n] = inVal;
+            out[outOff + n] = encryptByte(inVal, n);
         }
         
         return blockSize;
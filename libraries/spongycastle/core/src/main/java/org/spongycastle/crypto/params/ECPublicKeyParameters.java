@@ -2,6 +2,11 @@
 
 import org.spongycastle.math.ec.ECPoint;
 
+/**
+ * EC public key parameters. Q is normalized once here and kept, so the odd-multiple table
+ * built for it on the first signature verification stays with these parameters and is
+ * reused by later verifications with the same key.
+ */
 public class ECPublicKeyParameters
     extends ECKeyParameters
 {
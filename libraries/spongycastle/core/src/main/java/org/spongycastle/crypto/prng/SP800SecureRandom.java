@@ -63,6 +63,24 @@ public void nextBytes(byte[] bytes)
         }
     }
 
+    /**
+     * Force a reseed of the DRBG from the entropy source.
+     *
+     * @param additionalInput optional additional input to mix in with the new entropy, may be null.
+     */
+    public void reseed(byte[] additionalInput)
+    {
+        synchronized (this)
+        {
+            if (drbg == null)
+            {
+                drbg = drbgProvider.get(entropySource);
+            }
+
+            drbg.reseed(additionalInput);
+        }
+    }
+
     public byte[] generateSeed(int numBytes)
     {
         byte[] bytes = new byte[numBytes];
@@ -11,7 +11,9 @@
 import org.spongycastle.crypto.params.ParametersWithRandom;
 import org.spongycastle.math.ec.ECAlgorithms;
 import org.spongycastle.math.ec.ECConstants;
+import org.spongycastle.math.ec.ECMultiplier;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
 
 /**
  * EC-DSA as described in X9.62
@@ -92,6 +94,8 @@ public BigInteger[] generateSignature(
             kCalculator.init(n, random);
         }
 
+        ECMultiplier basePointMultiplier = createBasePointMultiplier();
+
         // 5.3.2
         do // generate s
         {
@@ -101,7 +105,7 @@ public BigInteger[] generateSignature(
             {
                 k = kCalculator.nextK();
 
-                ECPoint p = key.getParameters().getG().multiply(k).normalize();
+                ECPoint p = basePointMultiplier.multiply(key.getParameters().getG(), k).normalize();
 
                 // 5.3.3
                 BigInteger x = p.getAffineXCoord().toBigInteger();
@@ -171,6 +175,15 @@ public boolean verifySignature(
         return v.equals(r);
     }
 
+    /**
+     * Return the multiplier used for multiples of the base point G - by default a
+     * fixed-point comb, whose table for G is built once and then reused.
+     */
+    protected ECMultiplier createBasePointMultiplier()
+    {
+        return new FixedPointCombMultiplier();
+    }
+
     private BigInteger calculateE(BigInteger n, byte[] message)
     {
         int log2n = n.bitLength();
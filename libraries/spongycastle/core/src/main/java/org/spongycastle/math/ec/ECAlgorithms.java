@@ -20,7 +20,7 @@ public static ECPoint sumOfTwoMultiplies(ECPoint P, BigInteger a,
             }
         }
 
-        return implShamirsTrick(P, a, Q, b);
+        return implShamirsTrickWNaf(P, a, Q, b);
     }
 
     /*
@@ -92,6 +92,98 @@ static void implMontgomeryTrick(ECFieldElement[] zs, int off, int len)
         zs[off] = u;
     }
 
+    /*
+     * Straus' method with a window NAF of each scalar: the two expansions are walked
+     * together so the doublings are shared, and each non-zero digit adds an odd multiple
+     * of its point from a table.
+     *
+     * The tables come from WNafUtil.precomputeShared(), so they stay on P and Q - the
+     * generator in the domain parameters and the point in the public key parameters for
+     * signature verification - and repeated calls with the same points skip building them.
+     * Since they are reused, the window is one wider than a single multiplication would use.
+     */
+    static ECPoint implShamirsTrickWNaf(ECPoint P, BigInteger k,
+        ECPoint Q, BigInteger l)
+    {
+        boolean negK = k.signum() < 0, negL = l.signum() < 0;
+
+        k = k.abs();
+        l = l.abs();
+
+        int widthP = getSharedWindowSize(k.bitLength());
+        int widthQ = getSharedWindowSize(l.bitLength());
+
+        WNafPreCompInfo infoP = WNafUtil.precomputeShared(P, widthP);
+        WNafPreCompInfo infoQ = WNafUtil.precomputeShared(Q, widthQ);
+
+        // a negative scalar just swaps the roles of the two tables.
+        ECPoint[] preCompP = negK ? infoP.getPreCompNeg() : infoP.getPreComp();
+        ECPoint[] preCompNegP = negK ? infoP.getPreComp() : infoP.getPreCompNeg();
+        ECPoint[] preCompQ = negL ? infoQ.getPreCompNeg() : infoQ.getPreComp();
+        ECPoint[] preCompNegQ = negL ? infoQ.getPreComp() : infoQ.getPreCompNeg();
+
+        byte[] wnafP = WNafUtil.generateWindowNaf(widthP, k);
+        byte[] wnafQ = WNafUtil.generateWindowNaf(widthQ, l);
+
+        ECPoint R = P.getCurve().getInfinity();
+
+        int zeroes = 0;
+        int i = Math.max(wnafP.length, wnafQ.length);
+        while (--i >= 0)
+        {
+            int wiP = i < wnafP.length ? wnafP[i] : 0;
+            int wiQ = i < wnafQ.length ? wnafQ[i] : 0;
+
+            if ((wiP | wiQ) == 0)
+            {
+                ++zeroes;
+                continue;
+            }
+
+            if (zeroes > 0)
+            {
+                R = R.timesPow2(zeroes);
+                zeroes = 0;
+            }
+
+            ECPoint tP = null, tQ = null;
+            if (wiP != 0)
+            {
+                tP = (wiP < 0 ? preCompNegP : preCompP)[Math.abs(wiP) >>> 1];
+            }
+            if (wiQ != 0)
+            {
+                tQ = (wiQ < 0 ? preCompNegQ : preCompQ)[Math.abs(wiQ) >>> 1];
+            }
+
+            // keep the table points, which are in affine form, as the second operand.
+            if (tP != null)
+            {
+                R = R.twicePlus(tP);
+                if (tQ != null)
+                {
+                    R = R.add(tQ);
+                }
+            }
+            else
+            {
+                R = R.twicePlus(tQ);
+            }
+        }
+
+        if (zeroes > 0)
+        {
+            R = R.timesPow2(zeroes);
+        }
+
+        return R;
+    }
+
+    private static int getSharedWindowSize(int bits)
+    {
+        return Math.min(8, WNafUtil.getWindowSize(bits) + 1);
+    }
+
     static ECPoint implShamirsTrick(ECPoint P, BigInteger k,
         ECPoint Q, BigInteger l)
     {
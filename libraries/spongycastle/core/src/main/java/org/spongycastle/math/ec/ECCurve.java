@@ -1,6 +1,7 @@
 package org.spongycastle.math.ec;
 
 import java.math.BigInteger;
+import java.util.Hashtable;
 import java.util.Random;
 
 import org.spongycastle.util.BigIntegers;
@@ -131,6 +132,50 @@ public void setPreCompInfo(ECPoint point, PreCompInfo preCompInfo)
         point.preCompInfo = preCompInfo;
     }
 
+    /**
+     * Return the <code>PreCompInfo</code> stored for a point under the given name, or null if
+     * there is none. Unlike the unnamed slot, different kinds of precomputation can be kept
+     * for the same point side by side, and access is synchronized on the point.
+     *
+     * @param p
+     *            The <code>ECPoint</code> to look up precomputations for.
+     * @param name
+     *            The name the precomputation was stored under.
+     */
+    public PreCompInfo getPreCompInfo(ECPoint p, String name)
+    {
+        checkPoint(p);
+        synchronized (p)
+        {
+            Hashtable table = p.preCompTable;
+            return null == table ? null : (PreCompInfo)table.get(name);
+        }
+    }
+
+    /**
+     * Sets the <code>PreCompInfo</code> for a point on this curve under the given name.
+     *
+     * @param point
+     *            The <code>ECPoint</code> to store precomputations for.
+     * @param name
+     *            The name to store the precomputation under.
+     * @param preCompInfo
+     *            The values precomputed by the <code>ECMultiplier</code>.
+     */
+    public void setPreCompInfo(ECPoint point, String name, PreCompInfo preCompInfo)
+    {
+        checkPoint(point);
+        synchronized (point)
+        {
+            Hashtable table = point.preCompTable;
+            if (null == table)
+            {
+                point.preCompTable = table = new Hashtable(4);
+            }
+            table.put(name, preCompInfo);
+        }
+    }
+
     public ECPoint importPoint(ECPoint p)
     {
         if (this == p.getCurve())
@@ -450,13 +495,15 @@ public boolean equals(
 
             ECCurve.Fp other = (ECCurve.Fp) anObject;
 
+            // compared by value, as subclasses may represent field elements differently.
             return this.q.equals(other.q) 
-                    && a.equals(other.a) && b.equals(other.b);
+                    && a.toBigInteger().equals(other.a.toBigInteger())
+                    && b.toBigInteger().equals(other.b.toBigInteger());
         }
 
         public int hashCode() 
         {
-            return a.hashCode() ^ b.hashCode() ^ q.hashCode();
+            return a.toBigInteger().hashCode() ^ b.toBigInteger().hashCode() ^ q.hashCode();
         }
     }
 
@@ -1,6 +1,7 @@
 package org.spongycastle.math.ec;
 
 import java.math.BigInteger;
+import java.util.Hashtable;
 
 /**
  * base class for points on elliptic curves.
@@ -49,6 +50,9 @@ protected static ECFieldElement[] getInitialZCoords(ECCurve curve)
 
     protected PreCompInfo preCompInfo = null;
 
+    // named precomputations, see ECCurve.getPreCompInfo(ECPoint, String)
+    protected Hashtable preCompTable = null;
+
     protected ECPoint(ECCurve curve, ECFieldElement x, ECFieldElement y)
     {
         this(curve, x, y, getInitialZCoords(curve));
@@ -817,7 +821,8 @@ public ECPoint twice()
                 ECFieldElement a4Neg = a4.negate();
 
                 ECFieldElement M, S;
-                if (a4Neg.toBigInteger().equals(BigInteger.valueOf(3)))
+                // a4 == -3 test, without converting to a BigInteger on every doubling.
+                if (a4Neg.bitLength() == 2 && a4Neg.testBitZero())
                 {
                     M = three(X1.add(Z1Squared).multiply(X1.subtract(Z1Squared)));
                     S = four(Y1Squared.multiply(X1));
@@ -0,0 +1,64 @@
+package org.spongycastle.math.ec;
+
+import java.math.BigInteger;
+
+/**
+ * Class implementing the fixed-point comb multiplication algorithm - suited
+ * to points, such as the generator of a curve, which get multiplied over and over.
+ * <p>
+ * The table is built on the first multiplication of a point and kept, see
+ * <code>FixedPointUtil</code>, after which a multiplication takes one doubling
+ * and one addition for each column of the comb. On Koblitz curves the work is
+ * handed to <code>WTauNafMultiplier</code> instead.
+ */
+public class FixedPointCombMultiplier extends AbstractECMultiplier
+{
+    protected ECPoint multiplyPositive(ECPoint p, BigInteger k)
+    {
+        ECCurve c = p.getCurve();
+
+        if (c instanceof ECCurve.F2m && ((ECCurve.F2m)c).isKoblitz())
+        {
+            // the tau-adic NAF multiplier is faster than a comb on Koblitz curves.
+            return new WTauNafMultiplier().multiply(p, k);
+        }
+
+        int size = FixedPointUtil.getCombSize(c);
+
+        if (k.bitLength() > size)
+        {
+            // the comb only covers scalars up to the order of the curve.
+            return new WNafL2RMultiplier().multiply(p, k);
+        }
+
+        FixedPointPreCompInfo info = FixedPointUtil.precompute(p, getWidthForCombSize(size));
+        ECPoint[] lookupTable = info.getPreComp();
+        int width = info.getWidth();
+
+        int d = (size + width - 1) / width;
+
+        ECPoint R = c.getInfinity();
+
+        for (int i = d - 1; i >= 0; --i)
+        {
+            int index = 0;
+            for (int j = width - 1; j >= 0; --j)
+            {
+                index <<= 1;
+                if (k.testBit(j * d + i))
+                {
+                    index |= 1;
+                }
+            }
+
+            R = R.twicePlus(lookupTable[index]);
+        }
+
+        return R;
+    }
+
+    protected int getWidthForCombSize(int combSize)
+    {
+        return combSize > 257 ? 6 : 5;
+    }
+}
@@ -0,0 +1,52 @@
+package org.spongycastle.math.ec;
+
+/**
+ * Class holding precomputation data for fixed-point multiplications.
+ * <p>
+ * Instances are immutable, so a single one can be shared by every thread
+ * multiplying the same point.
+ */
+public class FixedPointPreCompInfo implements PreCompInfo
+{
+    /**
+     * The name fixed-point precomputations are stored under on a point.
+     */
+    public static final String PRECOMP_NAME = "bc_fixed_point";
+
+    /**
+     * Array holding the precomputed <code>ECPoint</code>s used for the fixed-point
+     * comb multiplication, all in normal form.
+     */
+    private final ECPoint[] preComp;
+
+    /**
+     * The width used for the precomputation. If a larger width precomputation
+     * is already available this may be larger than was requested, so calling
+     * code should refer to the actual width.
+     */
+    private final int width;
+
+    FixedPointPreCompInfo(ECPoint[] preComp, int width)
+    {
+        this.preComp = preComp;
+        this.width = width;
+    }
+
+    public ECPoint[] getPreComp()
+    {
+        return preComp;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Return the curve the precomputed points belong to.
+     */
+    ECCurve getCurve()
+    {
+        return preComp[preComp.length - 1].getCurve();
+    }
+}
@@ -0,0 +1,142 @@
+package org.spongycastle.math.ec;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Precomputation and caching for fixed-point (comb) multiplication.
+ * <p>
+ * Tables are kept on the point itself, under their own name so they do not displace
+ * any other precomputation for it, and also in a small process wide cache keyed
+ * by point value, so a base point which is recreated for every new set of domain
+ * parameters (as happens when keys are decoded) only has its table built once.
+ */
+public class FixedPointUtil
+{
+    private static final int MAX_CACHED_POINTS = 16;
+
+    private static final Map cache = new LinkedHashMap(MAX_CACHED_POINTS, 0.75f, true)
+    {
+        protected boolean removeEldestEntry(Map.Entry eldest)
+        {
+            return size() > MAX_CACHED_POINTS;
+        }
+    };
+
+    /**
+     * Return the number of scalar bits the comb for points on c covers - enough
+     * for any multiple of a point up to the order of the curve.
+     */
+    public static int getCombSize(ECCurve c)
+    {
+        return c.getFieldSize() + 1;
+    }
+
+    public static FixedPointPreCompInfo getFixedPointPreCompInfo(PreCompInfo preCompInfo)
+    {
+        if ((preCompInfo != null) && (preCompInfo instanceof FixedPointPreCompInfo))
+        {
+            return (FixedPointPreCompInfo)preCompInfo;
+        }
+
+        return null;
+    }
+
+    /**
+     * Return a comb table of at least minWidth for p, built if it is not
+     * already held on p or in the cache.
+     *
+     * @param p the point the table is for.
+     * @param minWidth the minimum comb width.
+     * @return the table, with points on the same curve instance as p.
+     */
+    public static FixedPointPreCompInfo precompute(ECPoint p, int minWidth)
+    {
+        ECCurve c = p.getCurve();
+
+        FixedPointPreCompInfo info = getFixedPointPreCompInfo(c.getPreCompInfo(p, FixedPointPreCompInfo.PRECOMP_NAME));
+        if (info != null && info.getWidth() >= minWidth)
+        {
+            return info;
+        }
+
+        ECPoint key = p.normalize();
+
+        synchronized (cache)
+        {
+            info = (FixedPointPreCompInfo)cache.get(key);
+        }
+
+        if (info == null || info.getWidth() < minWidth)
+        {
+            // built outside the lock - two threads may both build a table, which is harmless.
+            info = new FixedPointPreCompInfo(buildTable(p, minWidth), minWidth);
+
+            synchronized (cache)
+            {
+                cache.put(key, info);
+            }
+        }
+        else if (info.getCurve() != c)
+        {
+            info = importTable(c, info);
+        }
+
+        c.setPreCompInfo(p, FixedPointPreCompInfo.PRECOMP_NAME, info);
+
+        return info;
+    }
+
+    private static ECPoint[] buildTable(ECPoint p, int width)
+    {
+        ECCurve c = p.getCurve();
+
+        int n = 1 << width;
+        int d = (getCombSize(c) + width - 1) / width;
+
+        ECPoint[] pow2Table = new ECPoint[width];
+        pow2Table[0] = p;
+        for (int i = 1; i < width; ++i)
+        {
+            pow2Table[i] = pow2Table[i - 1].timesPow2(d);
+        }
+
+        c.normalizeAll(pow2Table);
+
+        //
+        // lookupTable[j] is the sum of the pow2Table entries selected by the bits of j.
+        //
+        ECPoint[] lookupTable = new ECPoint[n];
+        lookupTable[0] = c.getInfinity();
+
+        for (int bit = width - 1; bit >= 0; --bit)
+        {
+            ECPoint pow2 = pow2Table[bit];
+
+            int step = 1 << bit;
+            for (int i = step; i < n; i += (step << 1))
+            {
+                lookupTable[i] = lookupTable[i - step].add(pow2);
+            }
+        }
+
+        c.normalizeAll(lookupTable);
+
+        return lookupTable;
+    }
+
+    private static FixedPointPreCompInfo importTable(ECCurve c, FixedPointPreCompInfo info)
+    {
+        ECPoint[] preComp = info.getPreComp();
+        ECPoint[] imported = new ECPoint[preComp.length];
+
+        for (int i = 0; i != preComp.length; i++)
+        {
+            imported[i] = c.importPoint(preComp[i]);
+        }
+
+        c.normalizeAll(imported);
+
+        return new FixedPointPreCompInfo(imported, info.getWidth());
+    }
+}
@@ -6,6 +6,11 @@
  */
 public class WNafPreCompInfo implements PreCompInfo
 {
+    /**
+     * The name tables from <code>WNafUtil.precomputeShared()</code> are stored under on a point.
+     */
+    public static final String SHARED_PRECOMP_NAME = "bc_wnaf_shared";
+
     /**
      * Array holding the precomputed <code>ECPoint</code>s used for a Window
      * NAF multiplication.
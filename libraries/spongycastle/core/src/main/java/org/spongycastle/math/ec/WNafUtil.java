@@ -370,6 +370,62 @@ public static WNafPreCompInfo precompute(ECPoint p, int width, boolean includeNe
         return wnafPreCompInfo;
     }
 
+    /**
+     * Return the odd multiples p, 3p, ..., (2^(width-1) - 1)p and their negations, reusing
+     * the table kept on p if it is at least as wide.
+     * <p>
+     * Unlike precompute(), a table is never changed once it has been stored on the point - a
+     * wider one replaces it - so the result can be used by several threads at once. This is
+     * what lets long lived points, such as a public key, keep their table between operations.
+     *
+     * @param p the point to get multiples of.
+     * @param width the window width the table is for.
+     * @return a table with preComp and preCompNeg of at least 2^(width-2) normalized points each.
+     */
+    public static WNafPreCompInfo precomputeShared(ECPoint p, int width)
+    {
+        ECCurve c = p.getCurve();
+        int reqPreCompLen = 1 << Math.max(0, width - 2);
+
+        PreCompInfo existing = c.getPreCompInfo(p, WNafPreCompInfo.SHARED_PRECOMP_NAME);
+        if (existing instanceof WNafPreCompInfo)
+        {
+            WNafPreCompInfo info = (WNafPreCompInfo)existing;
+            if (info.getPreComp().length >= reqPreCompLen)
+            {
+                return info;
+            }
+        }
+
+        ECPoint[] preComp = new ECPoint[reqPreCompLen];
+        preComp[0] = p.normalize();
+
+        if (reqPreCompLen > 1)
+        {
+            ECPoint twiceP = preComp[0].twice().normalize();
+            for (int i = 1; i < reqPreCompLen; i++)
+            {
+                preComp[i] = twiceP.add(preComp[i - 1]);
+            }
+
+            c.normalizeAll(preComp);
+        }
+
+        ECPoint[] preCompNeg = new ECPoint[reqPreCompLen];
+        for (int i = 0; i < reqPreCompLen; i++)
+        {
+            preCompNeg[i] = preComp[i].negate();
+        }
+
+        WNafPreCompInfo info = new WNafPreCompInfo();
+        info.setPreComp(preComp);
+        info.setPreCompNeg(preCompNeg);
+
+        c.setPreCompInfo(p, WNafPreCompInfo.SHARED_PRECOMP_NAME, info);
+
+        return info;
+    }
+
     private static byte[] trim(byte[] a, int length)
     {
         byte[] result = new byte[length];
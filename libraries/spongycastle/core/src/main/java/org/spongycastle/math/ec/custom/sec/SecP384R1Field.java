@@ -0,0 +1,234 @@
+package org.spongycastle.math.ec.custom.sec;
+
+import java.math.BigInteger;
+
+import org.spongycastle.math.raw.Mod;
+import org.spongycastle.math.raw.Nat;
+
+/**
+ * Arithmetic modulo the P-384 prime on 12 word arrays, with the reduction done
+ * using the special form of the prime rather than by division.
+ */
+public class SecP384R1Field
+{
+    private static final long M = 0xFFFFFFFFL;
+
+    private static final int LEN = 12;
+
+    // 2^384 - 2^128 - 2^96 + 2^32 - 1
+    static final int[] P = new int[]{ 0xFFFFFFFF, 0x00000000, 0x00000000, 0xFFFFFFFF, 0xFFFFFFFE, 0xFFFFFFFF,
+        0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF };
+
+    private static final int[] P_PLUS_1_DIV_4 = Nat.fromBigInteger(384, SecP384R1Curve.q.add(BigInteger.valueOf(1)).shiftRight(2));
+
+    public static void add(int[] x, int[] y, int[] z)
+    {
+        int c = Nat.add(LEN, x, y, z);
+        if (c != 0 || Nat.gte(LEN, z, P))
+        {
+            Nat.sub(LEN, z, P, z);
+        }
+    }
+
+    public static void addOne(int[] x, int[] z)
+    {
+        int c = Nat.inc(LEN, x, z);
+        if (c != 0 || Nat.gte(LEN, z, P))
+        {
+            Nat.sub(LEN, z, P, z);
+        }
+    }
+
+    public static int[] fromBigInteger(BigInteger x)
+    {
+        int[] z = Nat.fromBigInteger(384, x);
+        if (Nat.gte(LEN, z, P))
+        {
+            Nat.sub(LEN, z, P, z);
+        }
+        return z;
+    }
+
+    public static void invert(int[] x, int[] z)
+    {
+        Mod.invert(LEN, P, x, z);
+    }
+
+    public static void multiply(int[] x, int[] y, int[] z)
+    {
+        int[] tt = new int[2 * LEN];
+        Nat.mul(LEN, x, y, tt);
+        reduce(tt, z);
+    }
+
+    public static void negate(int[] x, int[] z)
+    {
+        if (Nat.isZero(LEN, x))
+        {
+            Nat.sub(LEN, x, x, z);
+        }
+        else
+        {
+            Nat.sub(LEN, P, x, z);
+        }
+    }
+
+    /**
+     * z = a square root of x if there is one - the caller has to check by squaring.
+     */
+    public static void sqrtCandidate(int[] x, int[] z)
+    {
+        // P = 3 mod 4, so x^((P + 1) / 4) is a root when x is a quadratic residue.
+        pow(x, P_PLUS_1_DIV_4, z);
+    }
+
+    public static void square(int[] x, int[] z)
+    {
+        int[] tt = new int[2 * LEN];
+        Nat.square(LEN, x, tt);
+        reduce(tt, z);
+    }
+
+    public static void subtract(int[] x, int[] y, int[] z)
+    {
+        int c = Nat.sub(LEN, x, y, z);
+        if (c != 0)
+        {
+            Nat.add(LEN, z, P, z);
+        }
+    }
+
+    /**
+     * Reduce the 24 word product xx into z using the NIST fast reduction for P-384
+     * (FIPS 186-3, D.2.4) - all the shuffled words are summed in one pass with the
+     * carries held in a signed accumulator.
+     */
+    public static void reduce(int[] xx, int[] z)
+    {
+        long c12 = xx[12] & M, c13 = xx[13] & M, c14 = xx[14] & M, c15 = xx[15] & M;
+        long c16 = xx[16] & M, c17 = xx[17] & M, c18 = xx[18] & M, c19 = xx[19] & M;
+        long c20 = xx[20] & M, c21 = xx[21] & M, c22 = xx[22] & M, c23 = xx[23] & M;
+
+        long cc = 0;
+        cc += (xx[0] & M) + c12 + c20 + c21 - c23;
+        z[0] = (int)cc;
+        cc >>= 32;
+        cc += (xx[1] & M) + c13 + c22 + c23 - c12 - c20;
+        z[1] = (int)cc;
+        cc >>= 32;
+        cc += (xx[2] & M) + c14 + c23 - c13 - c21;
+        z[2] = (int)cc;
+        cc >>= 32;
+        cc += (xx[3] & M) + c12 + c15 + c20 + c21 - c14 - c22 - c23;
+        z[3] = (int)cc;
+        cc >>= 32;
+        cc += (xx[4] & M) + c12 + c13 + c16 + c20 + 2 * c21 + c22 - c15 - 2 * c23;
+        z[4] = (int)cc;
+        cc >>= 32;
+        cc += (xx[5] & M) + c13 + c14 + c17 + c21 + 2 * c22 + c23 - c16;
+        z[5] = (int)cc;
+        cc >>= 32;
+        cc += (xx[6] & M) + c14 + c15 + c18 + c22 + 2 * c23 - c17;
+        z[6] = (int)cc;
+        cc >>= 32;
+        cc += (xx[7] & M) + c15 + c16 + c19 + c23 - c18;
+        z[7] = (int)cc;
+        cc >>= 32;
+        cc += (xx[8] & M) + c16 + c17 + c20 - c19;
+        z[8] = (int)cc;
+        cc >>= 32;
+        cc += (xx[9] & M) + c17 + c18 + c21 - c20;
+        z[9] = (int)cc;
+        cc >>= 32;
+        cc += (xx[10] & M) + c18 + c19 + c22 - c21;
+        z[10] = (int)cc;
+        cc >>= 32;
+        cc += (xx[11] & M) + c19 + c20 + c23 - c22;
+        z[11] = (int)cc;
+        cc >>= 32;
+
+        reduceInt((int)cc, z);
+    }
+
+    /**
+     * Reduce z + cc * 2^384, for a small signed cc, into z.
+     */
+    private static void reduceInt(int cc, int[] z)
+    {
+        while (cc != 0)
+        {
+            // 2^384 = 2^128 + 2^96 - 2^32 + 1 (mod P)
+            long x = cc, c = 0;
+            c += (z[0] & M) + x;
+            z[0] = (int)c;
+            c >>= 32;
+            c += (z[1] & M) - x;
+            z[1] = (int)c;
+            c >>= 32;
+            c += (z[2] & M);
+            z[2] = (int)c;
+            c >>= 32;
+            c += (z[3] & M) + x;
+            z[3] = (int)c;
+            c >>= 32;
+            c += (z[4] & M) + x;
+            z[4] = (int)c;
+            c >>= 32;
+            for (int i = 5; i < LEN; ++i)
+            {
+                if (c == 0)
+                {
+                    break;
+                }
+                c += (z[i] & M);
+                z[i] = (int)c;
+                c >>= 32;
+            }
+            cc = (int)c;
+        }
+
+        if (Nat.gte(LEN, z, P))
+        {
+            Nat.sub(LEN, z, P, z);
+        }
+    }
+
+    /**
+     * z = x^e using a fixed 4 bit window.
+     */
+    private static void pow(int[] x, int[] e, int[] z)
+    {
+        int[][] table = new int[16][];
+        table[1] = Nat.copy(LEN, x);
+        for (int i = 2; i < 16; ++i)
+        {
+            table[i] = new int[LEN];
+            multiply(table[i - 1], x, table[i]);
+        }
+
+        int[] r = null;
+        for (int w = (LEN << 3) - 1; w >= 0; --w)
+        {
+            int digit = (e[w >>> 3] >>> ((w & 7) << 2)) & 0xF;
+            if (r == null)
+            {
+                if (digit != 0)
+                {
+                    r = Nat.copy(LEN, table[digit]);
+                }
+                continue;
+            }
+
+            square(r, r);
+            square(r, r);
+            square(r, r);
+            square(r, r);
+            if (digit != 0)
+            {
+                multiply(r, table[digit], r);
+            }
+        }
+
+        System.arraycopy(r, 0, z, 0, LEN);
+    }
+}
@@ -0,0 +1,183 @@
+package org.spongycastle.math.ec.custom.sec;
+
+import java.math.BigInteger;
+
+import org.spongycastle.math.raw.Mod;
+import org.spongycastle.math.raw.Nat;
+
+/**
+ * Arithmetic modulo the P-521 prime on 17 word arrays. P is a Mersenne prime, so
+ * reduction is just adding the bits above 521 back in at the bottom.
+ */
+public class SecP521R1Field
+{
+    private static final long M = 0xFFFFFFFFL;
+
+    private static final int LEN = 17;
+
+    // 2^521 - 1
+    static final int[] P = new int[]{ 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF,
+        0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF, 0xFFFFFFFF,
+        0xFFFFFFFF, 0x1FF };
+
+    private static final int[] P_PLUS_1_DIV_4 = Nat.fromBigInteger(521, SecP521R1Curve.q.add(BigInteger.valueOf(1)).shiftRight(2));
+
+    public static void add(int[] x, int[] y, int[] z)
+    {
+        int c = Nat.add(LEN, x, y, z);
+        if (c != 0 || Nat.gte(LEN, z, P))
+        {
+            Nat.sub(LEN, z, P, z);
+        }
+    }
+
+    public static void addOne(int[] x, int[] z)
+    {
+        int c = Nat.inc(LEN, x, z);
+        if (c != 0 || Nat.gte(LEN, z, P))
+        {
+            Nat.sub(LEN, z, P, z);
+        }
+    }
+
+    public static int[] fromBigInteger(BigInteger x)
+    {
+        int[] z = Nat.fromBigInteger(521, x);
+        if (Nat.gte(LEN, z, P))
+        {
+            Nat.sub(LEN, z, P, z);
+        }
+        return z;
+    }
+
+    public static void invert(int[] x, int[] z)
+    {
+        Mod.invert(LEN, P, x, z);
+    }
+
+    public static void multiply(int[] x, int[] y, int[] z)
+    {
+        int[] tt = new int[2 * LEN];
+        Nat.mul(LEN, x, y, tt);
+        reduce(tt, z);
+    }
+
+    public static void negate(int[] x, int[] z)
+    {
+        if (Nat.isZero(LEN, x))
+        {
+            Nat.sub(LEN, x, x, z);
+        }
+        else
+        {
+            Nat.sub(LEN, P, x, z);
+        }
+    }
+
+    /**
+     * z = a square root of x if there is one - the caller has to check by squaring.
+     */
+    public static void sqrtCandidate(int[] x, int[] z)
+    {
+        // P = 3 mod 4, so x^((P + 1) / 4) is a root when x is a quadratic residue.
+        pow(x, P_PLUS_1_DIV_4, z);
+    }
+
+    public static void square(int[] x, int[] z)
+    {
+        int[] tt = new int[2 * LEN];
+        Nat.square(LEN, x, tt);
+        reduce(tt, z);
+    }
+
+    public static void subtract(int[] x, int[] y, int[] z)
+    {
+        int c = Nat.sub(LEN, x, y, z);
+        if (c != 0)
+        {
+            Nat.add(LEN, z, P, z);
+        }
+    }
+
+    /**
+     * Reduce the 34 word product xx into z, using 2^521 = 1 (mod P).
+     */
+    public static void reduce(int[] xx, int[] z)
+    {
+        long c = 0;
+        for (int i = 0; i < LEN; ++i)
+        {
+            long lo = (i < LEN - 1) ? (xx[i] & M) : (xx[i] & 0x1FF);
+            long hi = ((xx[LEN - 1 + i] >>> 9) | (xx[LEN + i] << 23)) & M;
+            c += lo + hi;
+            z[i] = (int)c;
+            c >>>= 32;
+        }
+
+        reduceInt(z);
+    }
+
+    /**
+     * Fold any bits of z above 521 back in, leaving z fully reduced.
+     */
+    private static void reduceInt(int[] z)
+    {
+        int top;
+        while ((top = z[LEN - 1] >>> 9) != 0)
+        {
+            z[LEN - 1] &= 0x1FF;
+
+            long c = top & M;
+            for (int i = 0; c != 0 && i < LEN; ++i)
+            {
+                c += (z[i] & M);
+                z[i] = (int)c;
+                c >>>= 32;
+            }
+        }
+
+        if (Nat.eq(LEN, z, P))
+        {
+            Nat.sub(LEN, z, z, z);
+        }
+    }
+
+    /**
+     * z = x^e using a fixed 4 bit window.
+     */
+    private static void pow(int[] x, int[] e, int[] z)
+    {
+        int[][] table = new int[16][];
+        table[1] = Nat.copy(LEN, x);
+        for (int i = 2; i < 16; ++i)
+        {
+            table[i] = new int[LEN];
+            multiply(table[i - 1], x, table[i]);
+        }
+
+        int[] r = null;
+        for (int w = (LEN << 3) - 1; w >= 0; --w)
+        {
+            int digit = (e[w >>> 3] >>> ((w & 7) << 2)) & 0xF;
+            if (r == null)
+            {
+                if (digit != 0)
+                {
+                    r = Nat.copy(LEN, table[digit]);
+                }
+                continue;
+            }
+
+            square(r, r);
+            square(r, r);
+            square(r, r);
+            square(r, r);
+            if (digit != 0)
+            {
+                multiply(r, table[digit], r);
+            }
+        }
+
+        System.arraycopy(r, 0, z, 0, LEN);
+    }
+}
@@ -0,0 +1,85 @@
+package org.spongycastle.math.raw;
+
+/**
+ * Modular arithmetic on fixed length word arrays for an odd modulus.
+ */
+public abstract class Mod
+{
+    /**
+     * z = x^-1 mod p by the binary extended Euclidean algorithm, which only needs
+     * shifts, additions and subtractions of the working values.
+     *
+     * @param len the number of words in p, x and z.
+     * @param p an odd modulus.
+     * @param x a value in [1, p) which is prime to p.
+     * @param z the array to put the result in.
+     * @exception ArithmeticException if x is zero.
+     */
+    public static void invert(int len, int[] p, int[] x, int[] z)
+    {
+        if (Nat.isZero(len, x))
+        {
+            throw new ArithmeticException("zero has no inverse");
+        }
+
+        // invariants: a * x = u and b * x = v (mod p).
+        int[] u = Nat.copy(len, x);
+        int[] v = Nat.copy(len, p);
+        int[] a = Nat.create(len);
+        int[] b = Nat.create(len);
+
+        a[0] = 1;
+
+        while (!Nat.isOne(len, u) && !Nat.isOne(len, v))
+        {
+            while ((u[0] & 1) == 0)
+            {
+                Nat.shiftDownBit(len, u, 0);
+                halve(len, p, a);
+            }
+
+            while ((v[0] & 1) == 0)
+            {
+                Nat.shiftDownBit(len, v, 0);
+                halve(len, p, b);
+            }
+
+            if (Nat.gte(len, u, v))
+            {
+                Nat.sub(len, u, v, u);
+                subtract(len, p, a, b);
+            }
+            else
+            {
+                Nat.sub(len, v, u, v);
+                subtract(len, p, b, a);
+            }
+        }
+
+        System.arraycopy(Nat.isOne(len, u) ? a : b, 0, z, 0, len);
+    }
+
+    /**
+     * x = x / 2 mod p.
+     */
+    private static void halve(int len, int[] p, int[] x)
+    {
+        int c = 0;
+        if ((x[0] & 1) != 0)
+        {
+            c = Nat.add(len, x, p, x);
+        }
+        Nat.shiftDownBit(len, x, c);
+    }
+
+    /**
+     * x = x - y mod p.
+     */
+    private static void subtract(int len, int[] p, int[] x, int[] y)
+    {
+        if (Nat.sub(len, x, y, x) != 0)
+        {
+            Nat.add(len, x, p, x);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package org.spongycastle.math.raw;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic on fixed length natural numbers held as little-endian arrays of
+ * 32 bit words - the building blocks for the fixed width field implementations.
+ * <p>
+ * Unless stated otherwise the result array may be one of the inputs.
+ */
+public abstract class Nat
+{
+    private static final long M = 0xFFFFFFFFL;
+
+    public static int[] create(int len)
+    {
+        return new int[len];
+    }
+
+    public static int[] copy(int len, int[] x)
+    {
+        int[] z = new int[len];
+        System.arraycopy(x, 0, z, 0, len);
+        return z;
+    }
+
+    /**
+     * z = x + y, returning the carry out of the top word (0 or 1).
+     */
+    public static int add(int len, int[] x, int[] y, int[] z)
+    {
+        long c = 0;
+        for (int i = 0; i < len; ++i)
+        {
+            c += (x[i] & M) + (y[i] & M);
+            z[i] = (int)c;
+            c >>>= 32;
+        }
+        return (int)c;
+    }
+
+    /**
+     * z = x + 1, returning the carry out of the top word (0 or 1).
+     */
+    public static int inc(int len, int[] x, int[] z)
+    {
+        long c = 1;
+        for (int i = 0; i < len; ++i)
+        {
+            c += (x[i] & M);
+            z[i] = (int)c;
+            c >>>= 32;
+        }
+        return (int)c;
+    }
+
+    /**
+     * z = x - y, returning the borrow out of the top word (0 or -1).
+     */
+    public static int sub(int len, int[] x, int[] y, int[] z)
+    {
+        long c = 0;
+        for (int i = 0; i < len; ++i)
+        {
+            c += (x[i] & M) - (y[i] & M);
+            z[i] = (int)c;
+            c >>= 32;
+        }
+        return (int)c;
+    }
+
+    public static boolean eq(int len, int[] x, int[] y)
+    {
+        for (int i = len - 1; i >= 0; --i)
+        {
+            if (x[i] != y[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean gte(int len, int[] x, int[] y)
+    {
+        for (int i = len - 1; i >= 0; --i)
+        {
+            int xi = x[i] ^ Integer.MIN_VALUE;
+            int yi = y[i] ^ Integer.MIN_VALUE;
+            if (xi < yi)
+            {
+                return false;
+            }
+            if (xi > yi)
+            {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isOne(int len, int[] x)
+    {
+        if (x[0] != 1)
+        {
+            return false;
+        }
+        for (int i = 1; i < len; ++i)
+        {
+            if (x[i] != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isZero(int len, int[] x)
+    {
+        for (int i = 0; i < len; ++i)
+        {
+            if (x[i] != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int bitLength(int len, int[] x)
+    {
+        for (int i = len - 1; i >= 0; --i)
+        {
+            if (x[i] != 0)
+            {
+                return (i << 5) + 32 - Integer.numberOfLeadingZeros(x[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Shift z right one bit, shifting c into the top, returning the bit shifted out
+     * (in the top bit of the result).
+     */
+    public static int shiftDownBit(int len, int[] z, int c)
+    {
+        int i = len;
+        while (--i >= 0)
+        {
+            int next = z[i];
+            z[i] = (next >>> 1) | (c << 31);
+            c = next;
+        }
+        return c << 31;
+    }
+
+    /**
+     * zz = x * y, zz being 2 * len words long. zz must not be x or y.
+     */
+    public static void mul(int len, int[] x, int[] y, int[] zz)
+    {
+        long x0 = x[0] & M, c = 0;
+        for (int j = 0; j < len; ++j)
+        {
+            c += x0 * (y[j] & M);
+            zz[j] = (int)c;
+            c >>>= 32;
+        }
+        zz[len] = (int)c;
+
+        for (int i = 1; i < len; ++i)
+        {
+            long xi = x[i] & M;
+            c = 0;
+            for (int j = 0; j < len; ++j)
+            {
+                c += xi * (y[j] & M) + (zz[i + j] & M);
+                zz[i + j] = (int)c;
+                c >>>= 32;
+            }
+            zz[i + len] = (int)c;
+        }
+    }
+
+    /**
+     * zz = x * x, zz being 2 * len words long. zz must not be x.
+     * <p>
+     * Each cross product is only worked out once and then doubled.
+     */
+    public static void square(int len, int[] x, int[] zz)
+    {
+        zz[0] = 0;
+        for (int i = 0; i < len; ++i)
+        {
+            long xi = x[i] & M, c = 0;
+            for (int j = i + 1; j < len; ++j)
+            {
+                c += xi * (x[j] & M) + (zz[i + j] & M);
+                zz[i + j] = (int)c;
+                c >>>= 32;
+            }
+            zz[i + len] = (int)c;
+        }
+
+        int prev = 0;
+        for (int k = 0; k < 2 * len; ++k)
+        {
+            int w = zz[k];
+            zz[k] = (w << 1) | (prev >>> 31);
+            prev = w;
+        }
+
+        long c = 0;
+        for (int i = 0; i < len; ++i)
+        {
+            long xi = x[i] & M;
+            long p = xi * xi;
+            c += (p & M) + (zz[2 * i] & M);
+            zz[2 * i] = (int)c;
+            c >>>= 32;
+            c += (p >>> 32) + (zz[2 * i + 1] & M);
+            zz[2 * i + 1] = (int)c;
+            c >>>= 32;
+        }
+    }
+
+    public static int[] fromBigInteger(int bits, BigInteger x)
+    {
+        if (x.signum() < 0 || x.bitLength() > bits)
+        {
+            throw new IllegalArgumentException("value out of range");
+        }
+
+        int len = (bits + 31) >> 5;
+        int[] z = new int[len];
+        for (int i = 0; i < len && x.signum() != 0; ++i)
+        {
+            z[i] = x.intValue();
+            x = x.shiftRight(32);
+        }
+        return z;
+    }
+
+    public static BigInteger toBigInteger(int len, int[] x)
+    {
+        byte[] bs = new byte[len << 2];
+        for (int i = 0; i < len; ++i)
+        {
+            int xi = x[i];
+            int off = (len - 1 - i) << 2;
+            bs[off]     = (byte)(xi >>> 24);
+            bs[off + 1] = (byte)(xi >>> 16);
+            bs[off + 2] = (byte)(xi >>> 8);
+            bs[off + 3] = (byte)xi;
+        }
+        return new BigInteger(1, bs);
+    }
+}
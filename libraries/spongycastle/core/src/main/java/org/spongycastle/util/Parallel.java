@@ -0,0 +1,290 @@
+package org.spongycastle.util;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Utility methods for spreading independent pieces of work over the calling thread and
+ * an ExecutorService.
+ */
+public final class Parallel
+{
+    private Parallel()
+    {
+    }
+
+    /**
+     * A piece of work identified by its index.
+     */
+    public interface Body
+    {
+        void run(int index);
+    }
+
+    /**
+     * Run body.run(i) for every i from 0 to count - 1, on the calling thread and on up to
+     * threads - 1 tasks submitted to the executor, each taking the next index from a shared
+     * counter. Every index is run exactly once, and no two indexes run on the same thread at the
+     * same time, so per-index state needs no locking.
+     * <p>
+     * The method returns once all the tasks are finished, even if one of them failed. The first
+     * RuntimeException or Error thrown by a task is then rethrown.
+     * </p>
+     *
+     * @param count the number of indexes to run.
+     * @param executor the executor to run the extra tasks on, null to use the calling thread only.
+     * @param threads the most threads, including the calling one, to run indexes on at once.
+     * @param body the work to run for each index.
+     */
+    public static void forEach(int count, ExecutorService executor, int threads, Body body)
+    {
+        final Tasks tasks = new Tasks(count, body);
+
+        int extra = (executor == null) ? 0 : Math.min(threads, count) - 1;
+        Future[] futures = new Future[Math.max(extra, 0)];
+
+        for (int i = 0; i < extra; i++)
+        {
+            futures[i] = executor.submit(new Runnable()
+            {
+                public void run()
+                {
+                    if (tasks.start())
+                    {
+                        try
+                        {
+                            tasks.work();
+                        }
+                        catch (RuntimeException e)
+                        {
+                            tasks.fail(e);
+                        }
+                        catch (Error e)
+                        {
+                            tasks.fail(e);
+                        }
+                        finally
+                        {
+                            tasks.finish();
+                        }
+                    }
+                }
+            });
+        }
+
+        try
+        {
+            tasks.work();
+        }
+        finally
+        {
+            // a task still queued has no index left to run, so drop it rather than wait for it
+            for (int i = 0; i < extra; i++)
+            {
+                futures[i].cancel(false);
+            }
+
+            tasks.close();
+        }
+
+        tasks.rethrow();
+    }
+
+    /**
+     * Wait for a future to complete, carrying on through interrupts - which are passed on by
+     * setting the thread's interrupt status again before returning.
+     * <p>
+     * A RuntimeException or Error thrown by the task is rethrown as is, anything else is wrapped
+     * in an IllegalStateException.
+     * </p>
+     *
+     * @param future the future to wait for.
+     * @return the result of the task.
+     */
+    public static Object waitFor(Future future)
+    {
+        try
+        {
+            return get(future);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+
+            rethrowUnchecked(cause);
+            throw new IllegalStateException("parallel task failed: " + cause);
+        }
+    }
+
+    /**
+     * Wait for a future to complete like waitFor(), for tasks doing I/O: an IOException thrown
+     * by the task is rethrown as is, and any other checked exception is wrapped in an IOException.
+     *
+     * @param future the future to wait for.
+     * @return the result of the task.
+     * @throws IOException if the task failed with one.
+     */
+    public static Object waitForIO(Future future)
+        throws IOException
+    {
+        try
+        {
+            return get(future);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+            rethrowUnchecked(cause);
+            throw new IOException("parallel task failed: " + cause);
+        }
+    }
+
+    private static Object get(Future future)
+        throws ExecutionException
+    {
+        boolean interrupted = false;
+
+        try
+        {
+            for (;;)
+            {
+                try
+                {
+                    return future.get();
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void rethrowUnchecked(Throwable cause)
+    {
+        if (cause instanceof RuntimeException)
+        {
+            throw (RuntimeException)cause;
+        }
+        if (cause instanceof Error)
+        {
+            throw (Error)cause;
+        }
+    }
+
+    /**
+     * The shared state of a forEach() call: the next index to hand out, and the tasks that
+     * started before the calling thread ran out of indexes.
+     */
+    private static class Tasks
+    {
+        private final int count;
+        private final Body body;
+
+        private int next;
+        private int running;
+        private boolean closed;
+        private Throwable failure;
+
+        Tasks(int count, Body body)
+        {
+            this.count = count;
+            this.body = body;
+        }
+
+        synchronized boolean start()
+        {
+            if (closed)
+            {
+                return false;
+            }
+            running++;
+            return true;
+        }
+
+        synchronized void finish()
+        {
+            running--;
+            notifyAll();
+        }
+
+        synchronized void fail(Throwable e)
+        {
+            if (failure == null)
+            {
+                failure = e;
+            }
+        }
+
+        void work()
+        {
+            for (;;)
+            {
+                int index;
+
+                synchronized (this)
+                {
+                    if (next >= count)
+                    {
+                        return;
+                    }
+                    index = next++;
+                }
+
+                body.run(index);
+            }
+        }
+
+        /**
+         * Stop further tasks from starting and wait for the ones that did.
+         */
+        synchronized void close()
+        {
+            boolean interrupted = false;
+
+            closed = true;
+            while (running > 0)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized void rethrow()
+        {
+            if (failure instanceof RuntimeException)
+            {
+                throw (RuntimeException)failure;
+            }
+            if (failure instanceof Error)
+            {
+                throw (Error)failure;
+            }
+        }
+    }
+}
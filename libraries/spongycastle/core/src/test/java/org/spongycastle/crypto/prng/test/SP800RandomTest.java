@@ -6,7 +6,9 @@
 import org.spongycastle.crypto.digests.SHA256Digest;
 import org.spongycastle.crypto.engines.DESedeEngine;
 import org.spongycastle.crypto.macs.HMac;
+import org.spongycastle.crypto.prng.SP800SecureRandom;
 import org.spongycastle.crypto.prng.SP800SecureRandomBuilder;
+import org.spongycastle.crypto.prng.drbg.CTRSP800DRBG;
 import org.spongycastle.util.Arrays;
 import org.spongycastle.util.encoders.Hex;
 import org.spongycastle.util.test.SimpleTest;
@@ -264,6 +266,41 @@ private void doCTRTest(DRBGTestVector tv)
         }
     }
 
+    private void testReseed()
+    {
+        byte[] nonce = Hex.decode("20212223242526");
+        byte[] additionalInput = Hex.decode("606162636465666768696A6B6C6D6E6F707172737475767778797A7B7C");
+
+        SP800SecureRandomBuilder rBuild = new SP800SecureRandomBuilder(new Bit232EntropyProvider());
+
+        rBuild.setSecurityStrength(112);
+        rBuild.setEntropyBitsRequired(232);
+
+        SP800SecureRandom random = rBuild.buildCTR(new DESedeEngine(), 168, nonce, false);
+
+        CTRSP800DRBG drbg = new CTRSP800DRBG(new DESedeEngine(), 168, 112, new Bit232EntropyProvider().get(232), null, nonce);
+
+        byte[] expected = new byte[16];
+        byte[] produced = new byte[16];
+
+        drbg.generate(expected, null, false);
+        random.nextBytes(produced);
+        if (!Arrays.areEqual(expected, produced))
+        {
+            fail("SP800 CTR SecureRandom produced incorrect result before reseed");
+        }
+
+        drbg.reseed(additionalInput);
+        random.reseed(additionalInput);
+
+        drbg.generate(expected, null, false);
+        random.nextBytes(produced);
+        if (!Arrays.areEqual(expected, produced))
+        {
+            fail("SP800 CTR SecureRandom produced incorrect result after reseed");
+        }
+    }
+
     public void performTest()
         throws Exception
     {
@@ -271,6 +308,7 @@ public void performTest()
         testHMACRandom();
         testCTRRandom();
         testDualECRandom();
+        testReseed();
     }
 
     public static void main(String[] args)
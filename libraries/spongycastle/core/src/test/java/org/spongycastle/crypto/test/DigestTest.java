@@ -105,6 +105,53 @@ public void performTest()
         {
             fail("failing memo copy vector test", results[results.length - 1], new String(Hex.encode(resBuf)));
         }
+
+        splitUpdateTest();
+    }
+
+    /**
+     * check array updates split at and around word and block boundaries against
+     * the same data fed in a byte at a time.
+     */
+    private void splitUpdateTest()
+    {
+        byte[] data = new byte[1031];
+
+        for (int i = 0; i != data.length; i++)
+        {
+            data[i] = (byte)(i * 31 + (i >> 8));
+        }
+
+        byte[] expected = new byte[digest.getDigestSize()];
+
+        for (int i = 0; i != data.length; i++)
+        {
+            digest.update(data[i]);
+        }
+        digest.doFinal(expected, 0);
+
+        int[] splits = { 0, 1, 3, 4, 5, 8, 9, 63, 64, 65, 127, 128, 129, 200, 513 };
+        byte[] resBuf = new byte[digest.getDigestSize()];
+
+        for (int i = 0; i != splits.length; i++)
+        {
+            for (int j = i; j != splits.length; j++)
+            {
+                int first = splits[i];
+                int second = splits[i] + splits[j];
+
+                digest.update(data, 0, first);
+                digest.update(data, first, second - first);
+                digest.update(data, second, data.length - second);
+                digest.doFinal(resBuf, 0);
+
+                if (!areEqual(expected, resBuf))
+                {
+                    fail("failing split update test at " + first + ", " + second,
+                        new String(Hex.encode(expected)), new String(Hex.encode(resBuf)));
+                }
+            }
+        }
     }
 
     private byte[] toByteArray(String input)
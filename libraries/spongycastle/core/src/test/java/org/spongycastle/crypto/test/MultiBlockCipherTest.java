@@ -0,0 +1,295 @@
+package org.spongycastle.crypto.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.engines.BlowfishEngine;
+import org.spongycastle.crypto.io.ParallelCFBInputStream;
+import org.spongycastle.crypto.modes.AESCFBBlockCipher;
+import org.spongycastle.crypto.modes.CFBBlockCipher;
+import org.spongycastle.crypto.modes.OpenPGPCFBBlockCipher;
+import org.spongycastle.crypto.modes.PGPCFBBlockCipher;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * check processBlocks() on the CFB modes, the word oriented AES CFB mode and the parallel CFB
+ * input stream give the same results as one block at a time processing.
+ */
+public class MultiBlockCipherTest
+    extends SimpleTest
+{
+    private SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "MultiBlockCipher";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        byte[] key = new byte[16];
+        byte[] iv = new byte[16];
+
+        random.nextBytes(key);
+        random.nextBytes(iv);
+
+        KeyParameter keyParam = new KeyParameter(key);
+
+        multiBlockTest(new CFBBlockCipher(new AESFastEngine(), 128), new CFBBlockCipher(new AESFastEngine(), 128), new ParametersWithIV(keyParam, iv));
+        multiBlockTest(new CFBBlockCipher(new AESFastEngine(), 64), new CFBBlockCipher(new AESFastEngine(), 64), new ParametersWithIV(keyParam, iv));
+        multiBlockTest(new OpenPGPCFBBlockCipher(new AESFastEngine()), new OpenPGPCFBBlockCipher(new AESFastEngine()), keyParam);
+        multiBlockTest(new OpenPGPCFBBlockCipher(new BlowfishEngine()), new OpenPGPCFBBlockCipher(new BlowfishEngine()), keyParam);
+        multiBlockTest(new PGPCFBBlockCipher(new AESFastEngine(), false), new PGPCFBBlockCipher(new AESFastEngine(), false), keyParam);
+        multiBlockTest(new PGPCFBBlockCipher(new AESFastEngine(), true), new PGPCFBBlockCipher(new AESFastEngine(), true), new ParametersWithIV(keyParam, iv));
+
+        multiBlockTest(new CFBBlockCipher(new AESFastEngine(), 128), new AESCFBBlockCipher(), new ParametersWithIV(keyParam, iv));
+        multiBlockTest(new CFBBlockCipher(new AESFastEngine(), 128), new AESCFBBlockCipher(), new ParametersWithIV(keyParam, Hex.decode("0102030405")));
+        aesCFBVectorTest();
+
+        bufferedTest(new OpenPGPCFBBlockCipher(new AESFastEngine()), new OpenPGPCFBBlockCipher(new AESFastEngine()), keyParam);
+        bufferedTest(new CFBBlockCipher(new AESFastEngine(), 128), new AESCFBBlockCipher(), new ParametersWithIV(keyParam, iv));
+        bufferedTest(new CFBBlockCipher(new AESFastEngine(), 128), new CFBBlockCipher(new AESFastEngine(), 128), new ParametersWithIV(keyParam, iv));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            int[] lengths = { 0, 1, 15, 16, 17, 2047, 4096, 64 * 1024 - 3, 64 * 1024, 64 * 1024 + 5, 200000 };
+
+            for (int i = 0; i != lengths.length; i++)
+            {
+                parallelTest(keyParam, iv, lengths[i], 4, executor);
+                parallelTest(keyParam, iv, lengths[i], 1, executor);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void multiBlockTest(BlockCipher single, MultiBlockCipher multi, CipherParameters params)
+    {
+        int blockSize = single.getBlockSize();
+        int blockCount = 300;
+        byte[] input = new byte[blockCount * blockSize];
+
+        random.nextBytes(input);
+
+        for (int pass = 0; pass != 2; pass++)
+        {
+            boolean forEncryption = (pass == 0);
+
+            single.init(forEncryption, params);
+            multi.init(forEncryption, params);
+
+            // inline IV mode can produce more output than input.
+            byte[] expected = new byte[input.length + 2 * blockSize + 2];
+            int expectedLen = 0;
+
+            for (int i = 0; i != blockCount; i++)
+            {
+                expectedLen += single.processBlock(input, i * blockSize, expected, expectedLen);
+            }
+
+            byte[] out = new byte[expected.length + 3];
+            int outLen = 0;
+            int block = 0;
+
+            // uneven batches, starting at an odd output offset.
+            for (int batch = 1; block != blockCount; batch = batch * 2 + 1)
+            {
+                int count = Math.min(batch, blockCount - block);
+
+                outLen += multi.processBlocks(input, block * blockSize, count, out, 3 + outLen);
+                block += count;
+            }
+
+            if (outLen != expectedLen || !areEqual(Arrays.copyOfRange(out, 3, 3 + outLen), Arrays.copyOfRange(expected, 0, expectedLen)))
+            {
+                fail(multi.getAlgorithmName() + " processBlocks() mismatch, encryption " + forEncryption);
+            }
+
+            if (outLen == input.length)
+            {
+                // in place processing
+                byte[] inPlace = Arrays.clone(input);
+
+                multi.init(forEncryption, params);
+                multi.processBlocks(inPlace, 0, blockCount, inPlace, 0);
+
+                if (!areEqual(inPlace, Arrays.copyOfRange(expected, 0, expectedLen)))
+                {
+                    fail(multi.getAlgorithmName() + " in place processBlocks() mismatch, encryption " + forEncryption);
+                }
+            }
+        }
+    }
+
+    /**
+     * CFB128-AES128 vector from NIST SP 800-38A, F.3.13 and F.3.14.
+     */
+    private void aesCFBVectorTest()
+    {
+        KeyParameter key = new KeyParameter(Hex.decode("2b7e151628aed2a6abf7158809cf4f3c"));
+        byte[] iv = Hex.decode("000102030405060708090a0b0c0d0e0f");
+        byte[] plainText = Hex.decode(
+            "6bc1bee22e409f96e93d7e117393172a"
+          + "ae2d8a571e03ac9c9eb76fac45af8e51"
+          + "30c81c46a35ce411e5fbc1191a0a52ef"
+          + "f69f2445df4f9b17ad2b417be66c3710");
+        byte[] cipherText = Hex.decode(
+            "3b3fd92eb72dad20333449f8e83cfb4a"
+          + "c8a64537a0b3a93fcde3cdad9f1ce58b"
+          + "26751f67a3cbb140b1808cf187a4f4df"
+          + "c04b05357c5d1c0eeac4c66f9ff7f2e6");
+
+        AESCFBBlockCipher cfb = new AESCFBBlockCipher();
+        byte[] out = new byte[plainText.length];
+
+        cfb.init(true, new ParametersWithIV(key, iv));
+        cfb.processBlocks(plainText, 0, 4, out, 0);
+
+        if (!areEqual(cipherText, out))
+        {
+            fail("AES CFB128 encryption failed", new String(Hex.encode(cipherText)), new String(Hex.encode(out)));
+        }
+
+        cfb.init(false, new ParametersWithIV(key, iv));
+        cfb.processBlocks(cipherText, 0, 4, out, 0);
+
+        if (!areEqual(plainText, out))
+        {
+            fail("AES CFB128 decryption failed", new String(Hex.encode(plainText)), new String(Hex.encode(out)));
+        }
+
+        if (!areEqual(cfb.getCurrentIV(), Arrays.copyOfRange(cipherText, 48, 64)))
+        {
+            fail("AES CFB128 wrong IV after decryption");
+        }
+    }
+
+    private void bufferedTest(BlockCipher single, MultiBlockCipher multi, CipherParameters params)
+        throws Exception
+    {
+        byte[] input = new byte[10000];
+
+        random.nextBytes(input);
+
+        byte[] expected = new byte[input.length];
+
+        single.init(true, params);
+
+        int off = 0;
+        for (; off + single.getBlockSize() <= input.length; off += single.getBlockSize())
+        {
+            single.processBlock(input, off, expected, off);
+        }
+
+        BufferedBlockCipher buffered = new BufferedBlockCipher(multi);
+
+        buffered.init(true, params);
+
+        byte[] out = new byte[input.length];
+        int outLen = 0;
+        int inOff = 0;
+
+        for (int chunk = 1; inOff != input.length; chunk += 37)
+        {
+            int len = Math.min(chunk, input.length - inOff);
+
+            outLen += buffered.processBytes(input, inOff, len, out, outLen);
+            inOff += len;
+        }
+
+        outLen += buffered.doFinal(out, outLen);
+
+        if (outLen != input.length || !areEqual(Arrays.copyOfRange(out, 0, off), Arrays.copyOfRange(expected, 0, off)))
+        {
+            fail(multi.getAlgorithmName() + " buffered processBytes() mismatch");
+        }
+    }
+
+    private void parallelTest(KeyParameter key, byte[] iv, int length, int parallelism, ExecutorService executor)
+        throws IOException
+    {
+        byte[] plainText = new byte[length];
+
+        random.nextBytes(plainText);
+
+        BufferedBlockCipher cipher = new BufferedBlockCipher(new CFBBlockCipher(new AESFastEngine(), 128));
+
+        cipher.init(true, new ParametersWithIV(key, iv));
+
+        byte[] cipherText = new byte[length];
+        int len = cipher.processBytes(plainText, 0, length, cipherText, 0);
+
+        try
+        {
+            cipher.doFinal(cipherText, len);
+        }
+        catch (Exception e)
+        {
+            fail("doFinal failed: " + e);
+        }
+
+        BlockCipher[] engines = new BlockCipher[parallelism];
+
+        for (int i = 0; i != engines.length; i++)
+        {
+            engines[i] = new AESFastEngine();
+        }
+
+        InputStream in = new ParallelCFBInputStream(new ByteArrayInputStream(cipherText), engines, new ParametersWithIV(key, iv), executor);
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        byte[] buf = new byte[777];
+
+        int ch = in.read();
+        if (ch >= 0)
+        {
+            bOut.write(ch);
+
+            while ((len = in.read(buf)) >= 0)
+            {
+                bOut.write(buf, 0, len);
+            }
+        }
+
+        if (!areEqual(plainText, bOut.toByteArray()))
+        {
+            fail("parallel CFB decryption mismatch, length " + length + ", parallelism " + parallelism);
+        }
+
+        try
+        {
+            in.reset();
+
+            fail("parallel CFB reset() did not throw");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new MultiBlockCipherTest());
+    }
+}
@@ -15,6 +15,12 @@
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class RSABlindedTest
     extends SimpleTest
@@ -192,6 +198,77 @@ private void testOAEP(RSAKeyParameters pubParameters, RSAKeyParameters privParam
         }
     }
 
+    private void testParallelCRT(RSAKeyParameters pubParameters, RSAKeyParameters privParameters)
+    {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            AsymmetricBlockCipher eng = new RSABlindedEngine();
+            final AsymmetricBlockCipher parallelEng = new RSABlindedEngine(executor);
+            SecureRandom rand = new SecureRandom();
+
+            eng.init(false, privParameters);
+            parallelEng.init(false, privParameters);
+
+            for (int i = 0; i != 10; i++)
+            {
+                byte[] data = new byte[eng.getInputBlockSize() - 1];
+
+                rand.nextBytes(data);
+
+                byte[] expected = eng.processBlock(data, 0, data.length);
+                byte[] result = parallelEng.processBlock(data, 0, data.length);
+
+                if (!areEqual(expected, result))
+                {
+                    fail("parallel CRT result mismatch");
+                }
+            }
+
+            // called from the executor's only thread the engine must not wait on itself.
+            final byte[] data = Hex.decode(input);
+            byte[] expected = eng.processBlock(data, 0, data.length);
+
+            Future result = executor.submit(new Callable()
+            {
+                public Object call()
+                    throws Exception
+                {
+                    return parallelEng.processBlock(data, 0, data.length);
+                }
+            });
+
+            try
+            {
+                if (!areEqual(expected, (byte[])result.get(60, TimeUnit.SECONDS)))
+                {
+                    fail("parallel CRT result mismatch on a saturated executor");
+                }
+            }
+            catch (TimeoutException e)
+            {
+                fail("parallel CRT deadlocked on a saturated executor");
+            }
+
+            // once the executor has gone the engine carries on by itself.
+            executor.shutdown();
+
+            if (!areEqual(expected, parallelEng.processBlock(data, 0, data.length)))
+            {
+                fail("parallel CRT result mismatch after shutdown");
+            }
+        }
+        catch (Exception e)
+        {
+            fail("parallel CRT failed - exception " + e.toString(), e);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     public void performTest()
     {
         RSAKeyParameters    pubParameters = new RSAKeyParameters(false, mod, pubExp);
@@ -416,6 +493,7 @@ public void performTest()
         testMissingDataPKCS1Block(pubParameters, privParameters);
         testTruncatedPKCS1Block(pubParameters, privParameters);
         testWrongPaddingPKCS1Block(pubParameters, privParameters);
+        testParallelCRT(pubParameters, privParameters);
 
         try
         {
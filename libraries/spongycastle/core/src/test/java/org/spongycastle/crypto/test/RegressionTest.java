@@ -14,6 +14,7 @@
         new DESTest(),
         new DESedeTest(),
         new ModeTest(),
+        new MultiBlockCipherTest(),
         new PaddingTest(),
         new DHTest(),
         new ElGamalTest(),
@@ -2,6 +2,12 @@
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.spongycastle.crypto.generators.SCrypt;
 import org.spongycastle.util.Strings;
@@ -20,6 +26,61 @@ public String getName()
     }
 
     public void performTest() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            testVectors(executor);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        saturatedExecutorTest();
+    }
+
+    /*
+     * lanes handed to an executor whose only thread is the caller must still all run.
+     */
+    private void saturatedExecutorTest() throws Exception
+    {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            final byte[] P = Strings.toByteArray("password");
+            final byte[] S = Strings.toByteArray("NaCl");
+            byte[] expected = SCrypt.generate(P, S, 16, 1, 4, 64);
+
+            Future result = executor.submit(new Callable()
+            {
+                public Object call()
+                {
+                    return SCrypt.generate(P, S, 16, 1, 4, 64, executor, Long.MAX_VALUE);
+                }
+            });
+
+            try
+            {
+                if (!areEqual(expected, (byte[])result.get(60, TimeUnit.SECONDS)))
+                {
+                    fail("Result does not match expected value on a saturated executor");
+                }
+            }
+            catch (TimeoutException e)
+            {
+                fail("parallel SCrypt deadlocked on a saturated executor");
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void testVectors(ExecutorService executor) throws Exception
     {
         BufferedReader br = new BufferedReader(new InputStreamReader(
             getClass().getResourceAsStream("SCryptTestVectors.txt")));
@@ -66,6 +127,21 @@ public void performTest() throws Exception
                 {
                     fail("Result does not match expected value in test case " + count);
                 }
+
+                // all lanes at once, and two at a time
+                result = SCrypt.generate(P, S, N, r, p, dkLen, executor, Long.MAX_VALUE);
+
+                if (!areEqual(expected, result))
+                {
+                    fail("Parallel result does not match expected value in test case " + count);
+                }
+
+                result = SCrypt.generate(P, S, N, r, p, dkLen, executor, 2 * SCrypt.getLaneMemory(N, r));
+
+                if (!areEqual(expected, result))
+                {
+                    fail("Memory limited parallel result does not match expected value in test case " + count);
+                }
             }
         }
 
@@ -0,0 +1,132 @@
+package org.spongycastle.crypto.test.speedy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.io.ParallelCFBInputStream;
+import org.spongycastle.crypto.modes.AESCFBBlockCipher;
+import org.spongycastle.crypto.modes.CFBBlockCipher;
+import org.spongycastle.crypto.modes.OpenPGPCFBBlockCipher;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+
+/**
+ * Compares one block at a time CFB decryption against processBlocks(), the word
+ * oriented AES CFB mode and the parallel CFB input stream.
+ */
+public class CFBThroughputTest
+{
+    private static final int DATA_SIZE = 100 * 1024 * 1024;
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int RUNS = 3;
+
+    private static SecureRandom rand = new SecureRandom();
+
+    public static void main(String[] args)
+        throws IOException
+    {
+        System.out.println("Initialising test data.");
+        byte[] input = new byte[DATA_SIZE];
+        rand.nextBytes(input);
+
+        byte[] key = new byte[32];
+        rand.nextBytes(key);
+
+        KeyParameter keyParam = new KeyParameter(key);
+        ParametersWithIV ivParam = new ParametersWithIV(keyParam, new byte[16]);
+
+        System.out.println("Init complete.");
+
+        speedTestMode(new CFBBlockCipher(new AESFastEngine(), 128), ivParam, input);
+        speedTestMode(new AESCFBBlockCipher(), ivParam, input);
+        speedTestMode(new OpenPGPCFBBlockCipher(new AESFastEngine()), keyParam, input);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(processors);
+
+        try
+        {
+            for (int threads = 1; threads <= processors; threads *= 2)
+            {
+                speedTestParallel(threads, ivParam, input, executor);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void speedTestMode(MultiBlockCipher cipher, CipherParameters params, byte[] input)
+    {
+        byte[] out = new byte[CHUNK_SIZE];
+        int blockSize = cipher.getBlockSize();
+
+        for (int run = 0; run < RUNS + 1; run++)
+        {
+            cipher.init(false, params);
+
+            long start = System.nanoTime();
+            for (int off = 0; off < input.length; off += CHUNK_SIZE)
+            {
+                for (int i = 0; i < CHUNK_SIZE; i += blockSize)
+                {
+                    cipher.processBlock(input, off + i, out, i);
+                }
+            }
+            long single = System.nanoTime() - start;
+
+            cipher.init(false, params);
+
+            start = System.nanoTime();
+            for (int off = 0; off < input.length; off += CHUNK_SIZE)
+            {
+                cipher.processBlocks(input, off, CHUNK_SIZE / blockSize, out, 0);
+            }
+            long multi = System.nanoTime() - start;
+
+            System.out.println((run == 0 ? "Warmup: " : "Run " + run + ": ") + cipher.getAlgorithmName()
+                + " processBlock " + mbPerSecond(single) + " MB/s, processBlocks " + mbPerSecond(multi) + " MB/s");
+        }
+    }
+
+    private static void speedTestParallel(int threads, ParametersWithIV params, byte[] input, ExecutorService executor)
+        throws IOException
+    {
+        byte[] buf = new byte[CHUNK_SIZE];
+
+        for (int run = 0; run < RUNS + 1; run++)
+        {
+            BlockCipher[] engines = new BlockCipher[threads];
+            for (int i = 0; i != engines.length; i++)
+            {
+                engines[i] = new AESFastEngine();
+            }
+
+            InputStream in = new ParallelCFBInputStream(new ByteArrayInputStream(input), engines, params, executor);
+
+            long start = System.nanoTime();
+            while (in.read(buf) >= 0)
+            {
+                // discard
+            }
+            long time = System.nanoTime() - start;
+
+            System.out.println((run == 0 ? "Warmup: " : "Run " + run + ": ") + "ParallelCFBInputStream, "
+                + threads + " thread(s) " + mbPerSecond(time) + " MB/s");
+        }
+    }
+
+    private static long mbPerSecond(long nanos)
+    {
+        return (long)((double)DATA_SIZE / nanos * 1000000000 / (1024 * 1024));
+    }
+}
@@ -0,0 +1,83 @@
+package org.spongycastle.crypto.test.speedy;
+
+import java.security.SecureRandom;
+
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.digests.SHA1Digest;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.digests.SHA512Digest;
+
+/**
+ * Throughput of SHA-1, SHA-256 and SHA-512 hashing 64 MB in 8k updates, as when a file is
+ * signed, and in single byte updates.
+ */
+public class DigestThroughputTest
+{
+    private static final int DATA_SIZE = 64 * 1024 * 1024;
+    private static final int UPDATE_SIZE = 8192;
+    private static final int SINGLE_BYTE_SIZE = 8 * 1024 * 1024;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args)
+    {
+        byte[] data = new byte[UPDATE_SIZE];
+
+        new SecureRandom().nextBytes(data);
+
+        testDigest(new SHA1Digest(), data);
+        testDigest(new SHA256Digest(), data);
+        testDigest(new SHA512Digest(), data);
+    }
+
+    private static void testDigest(Digest digest, byte[] data)
+    {
+        System.out.println("=========================");
+
+        update(digest, data, DATA_SIZE / 8);
+        updateSingle(digest, data, SINGLE_BYTE_SIZE / 8);
+        System.out.println(digest.getAlgorithmName() + " warmed up");
+
+        for (int i = 0; i < RUNS; i++)
+        {
+            report(digest.getAlgorithmName() + " " + UPDATE_SIZE + " byte updates", DATA_SIZE,
+                update(digest, data, DATA_SIZE));
+            report(digest.getAlgorithmName() + " single byte updates", SINGLE_BYTE_SIZE,
+                updateSingle(digest, data, SINGLE_BYTE_SIZE));
+        }
+    }
+
+    private static void report(String name, int size, long time)
+    {
+        long mbPerSecond = (long)((double)size / time * 1000000000 / (1024 * 1024));
+
+        System.out.println(name + ": " + (time / 1000000) + "ms, " + mbPerSecond + " MB/s");
+    }
+
+    private static long update(Digest digest, byte[] data, int size)
+    {
+        byte[] out = new byte[digest.getDigestSize()];
+        long start = System.nanoTime();
+
+        for (int off = 0; off < size; off += data.length)
+        {
+            digest.update(data, 0, data.length);
+        }
+        digest.doFinal(out, 0);
+
+        return System.nanoTime() - start;
+    }
+
+    private static long updateSingle(Digest digest, byte[] data, int size)
+    {
+        byte[] out = new byte[digest.getDigestSize()];
+        long start = System.nanoTime();
+
+        for (int off = 0; off < size; off++)
+        {
+            digest.update(data[off & (data.length - 1)]);
+        }
+        digest.doFinal(out, 0);
+
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,97 @@
+package org.spongycastle.crypto.test.speedy;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import org.spongycastle.asn1.sec.SECNamedCurves;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.params.ECDomainParameters;
+import org.spongycastle.crypto.params.ECPrivateKeyParameters;
+import org.spongycastle.crypto.params.ECPublicKeyParameters;
+import org.spongycastle.crypto.params.ParametersWithRandom;
+import org.spongycastle.crypto.signers.ECDSASigner;
+import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECPoint;
+
+/**
+ * ECDSA signatures and verifications per second on P-256, P-384 and P-521 using the
+ * fixed width curve implementations the named curve tables return, and the same
+ * curves built as a general <code>ECCurve.Fp</code>.
+ */
+public class ECPrimeCurveThroughputTest
+{
+    private static final int RUNS = 3;
+
+    private static SecureRandom rand = new SecureRandom();
+
+    public static void main(String[] args)
+    {
+        String[] names = { "secp256r1", "secp384r1", "secp521r1" };
+
+        for (int i = 0; i != names.length; i++)
+        {
+            X9ECParameters x9 = SECNamedCurves.getByName(names[i]);
+            ECCurve custom = x9.getCurve();
+            ECCurve generic = new ECCurve.Fp(((ECCurve.Fp)custom).getQ(),
+                custom.getA().toBigInteger(), custom.getB().toBigInteger());
+
+            ECDomainParameters customParams = new ECDomainParameters(custom, x9.getG(), x9.getN());
+            ECDomainParameters genericParams = new ECDomainParameters(generic, generic.importPoint(x9.getG()), x9.getN());
+
+            BigInteger d = new BigInteger(x9.getN().bitLength() - 1, rand);
+            byte[] message = new byte[32];
+            rand.nextBytes(message);
+
+            int ops = 150;
+
+            for (int run = 0; run < RUNS + 1; run++)
+            {
+                String prefix = (run == 0) ? "Warmup: " : "Run " + run + ": ";
+
+                long[] genericTimes = time(genericParams, d, message, ops);
+                long[] customTimes = time(customParams, d, message, ops);
+
+                System.out.println(prefix + names[i] + " ECFieldElement.Fp sign " + opsPerSecond(ops, genericTimes[0])
+                    + " ops/s, verify " + opsPerSecond(ops, genericTimes[1])
+                    + " ops/s, fixed width sign " + opsPerSecond(ops, customTimes[0])
+                    + " ops/s, verify " + opsPerSecond(ops, customTimes[1]) + " ops/s");
+            }
+        }
+    }
+
+    private static long[] time(ECDomainParameters params, BigInteger d, byte[] message, int ops)
+    {
+        ECPoint q = params.getG().multiply(d);
+        ECDSASigner signer = new ECDSASigner();
+        ECDSASigner verifier = new ECDSASigner();
+
+        signer.init(true, new ParametersWithRandom(new ECPrivateKeyParameters(d, params), rand));
+        verifier.init(false, new ECPublicKeyParameters(q, params));
+
+        BigInteger[] sig = null;
+
+        long start = System.nanoTime();
+        for (int j = 0; j < ops; j++)
+        {
+            sig = signer.generateSignature(message);
+        }
+        long sign = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int j = 0; j < ops; j++)
+        {
+            if (!verifier.verifySignature(message, sig[0], sig[1]))
+            {
+                throw new IllegalStateException("signature failed to verify");
+            }
+        }
+        long verify = System.nanoTime() - start;
+
+        return new long[]{ sign, verify };
+    }
+
+    private static long opsPerSecond(int ops, long nanos)
+    {
+        return (long)(ops * 1000000000.0 / nanos);
+    }
+}
@@ -0,0 +1,78 @@
+package org.spongycastle.crypto.test.speedy;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.spongycastle.crypto.AsymmetricBlockCipher;
+import org.spongycastle.crypto.AsymmetricCipherKeyPair;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.engines.RSABlindedEngine;
+import org.spongycastle.crypto.generators.RSAKeyPairGenerator;
+import org.spongycastle.crypto.params.RSAKeyGenerationParameters;
+
+/**
+ * Private key (sign/decrypt) operations per second for RSABlindedEngine, with the
+ * CRT exponentiations done one after the other and at the same time.
+ */
+public class RSAThroughputTest
+{
+    private static final int OPS = 200;
+    private static final int RUNS = 3;
+
+    private static SecureRandom rand = new SecureRandom();
+
+    public static void main(String[] args)
+        throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            int[] sizes = { 2048, 4096 };
+
+            for (int i = 0; i != sizes.length; i++)
+            {
+                System.out.println("Generating " + sizes[i] + " bit key.");
+
+                RSAKeyPairGenerator kpGen = new RSAKeyPairGenerator();
+
+                kpGen.init(new RSAKeyGenerationParameters(BigInteger.valueOf(0x10001), rand, sizes[i], 25));
+
+                AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+                for (int run = 0; run < RUNS + 1; run++)
+                {
+                    String prefix = (run == 0) ? "Warmup: " : "Run " + run + ": ";
+                    int ops = (sizes[i] > 2048) ? OPS / 4 : OPS;
+
+                    System.out.println(prefix + sizes[i] + " bit sequential CRT " + opsPerSecond(new RSABlindedEngine(), kp.getPrivate(), ops) + " ops/s");
+                    System.out.println(prefix + sizes[i] + " bit parallel CRT   " + opsPerSecond(new RSABlindedEngine(executor), kp.getPrivate(), ops) + " ops/s");
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static long opsPerSecond(AsymmetricBlockCipher engine, CipherParameters key, int ops)
+        throws Exception
+    {
+        engine.init(false, key);
+
+        byte[] data = new byte[engine.getInputBlockSize() - 1];
+        rand.nextBytes(data);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++)
+        {
+            engine.processBlock(data, 0, data.length);
+        }
+        long time = System.nanoTime() - start;
+
+        return (long)(ops * 1000000000.0 / time);
+    }
+}
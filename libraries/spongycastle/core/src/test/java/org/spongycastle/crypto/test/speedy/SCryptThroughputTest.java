@@ -0,0 +1,64 @@
+package org.spongycastle.crypto.test.speedy;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.spongycastle.crypto.generators.SCrypt;
+import org.spongycastle.util.Arrays;
+
+/**
+ * Time taken by SCrypt with N = 16384 and r = 8 as the parallelism parameter p grows, running
+ * the lanes one after the other and at the same time on one thread per processor.
+ */
+public class SCryptThroughputTest
+{
+    private static final int RUNS = 3;
+
+    private static final int N = 16384;
+    private static final int R = 8;
+
+    public static void main(String[] args)
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int[] ps = { 1, 2, 4, 8 };
+
+        byte[] password = "password".getBytes();
+        byte[] salt = "NaCl".getBytes();
+
+        System.out.println(threads + " processors, " + (SCrypt.getLaneMemory(N, R) >> 20) + "MB per lane");
+
+        try
+        {
+            for (int i = 0; i != ps.length; i++)
+            {
+                int p = ps[i];
+
+                for (int run = 0; run < RUNS + 1; run++)
+                {
+                    String prefix = (run == 0) ? "Warmup: " : "Run " + run + ": ";
+
+                    long start = System.nanoTime();
+                    byte[] sequential = SCrypt.generate(password, salt, N, R, p, 64);
+                    long seqTime = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    byte[] parallel = SCrypt.generate(password, salt, N, R, p, 64, executor, threads * SCrypt.getLaneMemory(N, R));
+                    long parTime = System.nanoTime() - start;
+
+                    if (!Arrays.areEqual(sequential, parallel))
+                    {
+                        throw new IllegalStateException("parallel result differs");
+                    }
+
+                    System.out.println(prefix + "p = " + p + " sequential " + (seqTime / 1000000)
+                        + "ms, parallel " + (parTime / 1000000) + "ms");
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.spongycastle.crypto.test.speedy;
+
+import java.security.SecureRandom;
+
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.macs.HMac;
+import org.spongycastle.crypto.prng.SP800SecureRandomBuilder;
+
+/**
+ * Throughput of the platform SecureRandom against SP 800-90A DRBG based SecureRandoms, for
+ * 16 byte requests (IVs, session keys) and 32k requests (bulk data).
+ */
+public class SecureRandomThroughputTest
+{
+    private static final int SMALL_REQUEST = 16;
+    private static final int LARGE_REQUEST = 32 * 1024;
+    private static final int DATA_SIZE = 16 * 1024 * 1024;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args)
+    {
+        SecureRandom platform = new SecureRandom();
+        byte[] nonce = new byte[16];
+
+        platform.nextBytes(nonce);
+
+        SP800SecureRandomBuilder builder = new SP800SecureRandomBuilder(platform, false)
+            .setSecurityStrength(256)
+            .setEntropyBitsRequired(256);
+
+        testRandom("platform " + platform.getAlgorithm(), platform);
+        testRandom("CTR DRBG AES-256", builder.buildCTR(new AESFastEngine(), 256, nonce, false));
+        testRandom("Hash DRBG SHA-256", builder.buildHash(new SHA256Digest(), nonce, false));
+        testRandom("HMAC DRBG SHA-256", builder.buildHMAC(new HMac(new SHA256Digest()), nonce, false));
+    }
+
+    private static void testRandom(String name, SecureRandom random)
+    {
+        System.out.println("=========================");
+
+        generate(random, SMALL_REQUEST, DATA_SIZE / 16);
+        generate(random, LARGE_REQUEST, DATA_SIZE / 4);
+        System.out.println(name + " warmed up");
+
+        for (int i = 0; i < RUNS; i++)
+        {
+            report(name + " " + SMALL_REQUEST + " byte requests", DATA_SIZE / 4,
+                generate(random, SMALL_REQUEST, DATA_SIZE / 4));
+            report(name + " " + LARGE_REQUEST + " byte requests", DATA_SIZE,
+                generate(random, LARGE_REQUEST, DATA_SIZE));
+        }
+    }
+
+    private static void report(String name, int size, long time)
+    {
+        long mbPerSecond = (long)((double)size / time * 1000000000 / (1024 * 1024));
+
+        System.out.println(name + ": " + (time / 1000000) + "ms, " + mbPerSecond + " MB/s");
+    }
+
+    private static long generate(SecureRandom random, int requestSize, int size)
+    {
+        byte[] bytes = new byte[requestSize];
+        long start = System.nanoTime();
+
+        for (int off = 0; off < size; off += requestSize)
+        {
+            random.nextBytes(bytes);
+        }
+
+        return System.nanoTime() - start;
+    }
+}
@@ -8,11 +8,14 @@
 import org.spongycastle.asn1.x9.ECNamedCurveTable;
 import org.spongycastle.asn1.x9.X9ECParameters;
 import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECMultiplier;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
 
 /**
  * Compares the performance of the the window NAF point multiplication against
- * conventional point multiplication.
+ * conventional point multiplication, and of fixed-point comb multiplication of the
+ * generator against the curve's default multiplier.
  */
 public class ECPointPerformanceTest extends TestCase
 {
@@ -49,24 +52,54 @@ private void randMult(final String curveName) throws Exception
                 }
 
                 double avgDuration = randMult(random, c, g, n);
-                String coordName = COORD_NAMES[coord];
-                StringBuffer sb = new StringBuffer();
-                sb.append("  ");
-                sb.append(coordName);
-                for (int j = coordName.length(); j < 30; ++j)
-                {
-                    sb.append(' ');
-                }
-                sb.append(": ");
-                sb.append(avgDuration);
-                sb.append("ms");
-                System.out.println(sb.toString());
+                printDuration(COORD_NAMES[coord], avgDuration);
             }
         }
 
+        printDuration("G, DEFAULT MULTIPLIER", fixedMult(random, C.getMultiplier(), G, n));
+        printDuration("G, FIXED-POINT COMB", fixedMult(random, new FixedPointCombMultiplier(), G, n));
+
         System.out.println();
     }
 
+    private void printDuration(String label, double avgDuration)
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("  ");
+        sb.append(label);
+        for (int j = label.length(); j < 30; ++j)
+        {
+            sb.append(' ');
+        }
+        sb.append(": ");
+        sb.append(avgDuration);
+        sb.append("ms");
+        System.out.println(sb.toString());
+    }
+
+    private double fixedMult(SecureRandom random, ECMultiplier multiplier, ECPoint g, BigInteger n) throws Exception
+    {
+        BigInteger[] ks = new BigInteger[16];
+        for (int i = 0; i < ks.length; ++i)
+        {
+            ks[i] = new BigInteger(n.bitLength() - 1, random);
+        }
+
+        for (int i = 0; i < PRE_ROUNDS; i++)
+        {
+            multiplier.multiply(g, ks[i % ks.length]);
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < NUM_ROUNDS; i++)
+        {
+            multiplier.multiply(g, ks[i % ks.length]);
+        }
+        long endTime = System.currentTimeMillis();
+
+        return (double) (endTime - startTime) / NUM_ROUNDS;
+    }
+
     private double randMult(SecureRandom random, ECCurve c, ECPoint g, BigInteger n) throws Exception
     {
         BigInteger[] ks = new BigInteger[16];
@@ -10,8 +10,13 @@
 
 import org.spongycastle.asn1.sec.SECNamedCurves;
 import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.math.ec.ECAlgorithms;
 import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECMultiplier;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
+import org.spongycastle.math.ec.FixedPointPreCompInfo;
+import org.spongycastle.math.ec.WNafPreCompInfo;
 
 /**
  * Test class for {@link org.spongycastle.math.ec.ECPoint ECPoint}. All
@@ -443,6 +448,102 @@ public void testAddSubtractMultiplyTwiceEncoding()
         }
     }
 
+    /**
+     * Checks the fixed-point comb multiplier against <code>ECPoint.multiply()</code>
+     * for the generators of the standard elliptic curves, including a copy of each
+     * curve using another coordinate system (so the cached table has to be imported)
+     * and scalars too long for the comb.
+     */
+    public void testFixedPointComb()
+    {
+        ECMultiplier comb = new FixedPointCombMultiplier();
+
+        Enumeration curveEnum = SECNamedCurves.getNames();
+        while (curveEnum.hasMoreElements())
+        {
+            String name = (String) curveEnum.nextElement();
+            X9ECParameters x9ECParameters = SECNamedCurves.getByName(name);
+
+            BigInteger n = x9ECParameters.getN();
+            ECPoint g = x9ECParameters.getG();
+
+            for (int i = 0; i < 4; ++i)
+            {
+                BigInteger k = new BigInteger(n.bitLength(), secRand);
+
+                assertPointsEqual("FixedPointCombMultiplier is incorrect", g.multiply(k), comb.multiply(g, k));
+                assertPointsEqual("FixedPointCombMultiplier is incorrect", g.multiply(k.negate()), comb.multiply(g, k.negate()));
+            }
+
+            assertPointsEqual("FixedPointCombMultiplier is incorrect", g, comb.multiply(g, BigInteger.ONE));
+            assertPointsEqual("FixedPointCombMultiplier is incorrect", g.getCurve().getInfinity(), comb.multiply(g, BigInteger.ZERO));
+            assertPointsEqual("FixedPointCombMultiplier is incorrect", g.getCurve().getInfinity(), comb.multiply(g, n));
+
+            BigInteger big = new BigInteger(n.bitLength() + 64, secRand);
+            assertPointsEqual("FixedPointCombMultiplier is incorrect", g.multiply(big), comb.multiply(g, big));
+
+            ECCurve c = g.getCurve();
+            int[] coords = ECCurve.getAllCoordinateSystems();
+            for (int i = 0; i < coords.length; ++i)
+            {
+                if (coords[i] != c.getCoordinateSystem() && c.supportsCoordinateSystem(coords[i]))
+                {
+                    ECPoint other = c.configure().setCoordinateSystem(coords[i]).create().importPoint(g);
+                    BigInteger k = new BigInteger(n.bitLength(), secRand);
+
+                    assertPointsEqual("FixedPointCombMultiplier is incorrect", g.multiply(k), c.importPoint(comb.multiply(other, k)));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks <code>ECAlgorithms.sumOfTwoMultiplies()</code> against separate multiplications
+     * for the standard elliptic curves, calling it repeatedly with the same points so the
+     * tables kept on them are reused, and that those tables leave any comb table alone.
+     */
+    public void testSumOfTwoMultiplies()
+    {
+        Enumeration curveEnum = SECNamedCurves.getNames();
+        while (curveEnum.hasMoreElements())
+        {
+            String name = (String) curveEnum.nextElement();
+            X9ECParameters x9ECParameters = SECNamedCurves.getByName(name);
+
+            BigInteger n = x9ECParameters.getN();
+            ECPoint g = x9ECParameters.getG();
+            ECPoint q = g.multiply(new BigInteger(n.bitLength(), secRand)).normalize();
+
+            for (int i = 0; i < 4; ++i)
+            {
+                BigInteger a = new BigInteger(n.bitLength(), secRand);
+                BigInteger b = new BigInteger(n.bitLength(), secRand);
+
+                assertPointsEqual("sumOfTwoMultiplies is incorrect", g.multiply(a).add(q.multiply(b)),
+                    ECAlgorithms.sumOfTwoMultiplies(g, a, q, b));
+            }
+
+            BigInteger a = new BigInteger(n.bitLength(), secRand);
+            ECCurve c = g.getCurve();
+
+            assertPointsEqual("sumOfTwoMultiplies is incorrect", g.multiply(a),
+                ECAlgorithms.sumOfTwoMultiplies(g, a, q, BigInteger.ZERO));
+            assertPointsEqual("sumOfTwoMultiplies is incorrect", c.getInfinity(),
+                ECAlgorithms.sumOfTwoMultiplies(g, a, g, n.subtract(a)));
+            assertPointsEqual("sumOfTwoMultiplies is incorrect", g.multiply(a).add(q.multiply(a.negate())),
+                ECAlgorithms.sumOfTwoMultiplies(g, a, q, a.negate()));
+
+            if (c instanceof ECCurve.Fp)
+            {
+                new FixedPointCombMultiplier().multiply(g, a);
+                ECAlgorithms.sumOfTwoMultiplies(g, a, q, a);
+                assertNotNull(c.getPreCompInfo(g, FixedPointPreCompInfo.PRECOMP_NAME));
+                assertNotNull(c.getPreCompInfo(g, WNafPreCompInfo.SHARED_PRECOMP_NAME));
+            }
+        }
+    }
+
     private void assertPointsEqual(String message, ECPoint a, ECPoint b)
     {
         assertEquals(message, a, b);
@@ -0,0 +1,186 @@
+package org.spongycastle.math.ec.test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.spongycastle.asn1.sec.SECNamedCurves;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECFieldElement;
+import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.custom.sec.SecP256R1Curve;
+import org.spongycastle.math.ec.custom.sec.SecP384R1Curve;
+import org.spongycastle.math.ec.custom.sec.SecP521R1Curve;
+import org.spongycastle.util.Arrays;
+
+/**
+ * Check the fixed width P-256, P-384 and P-521 implementations against the
+ * general <code>ECCurve.Fp</code> ones.
+ */
+public class SecPCurveTest extends TestCase
+{
+    private static final BigInteger ONE = BigInteger.valueOf(1);
+
+    private SecureRandom secRand = new SecureRandom();
+
+    public void testFieldArithmetic()
+    {
+        implTestFieldArithmetic(new SecP256R1Curve());
+        implTestFieldArithmetic(new SecP384R1Curve());
+        implTestFieldArithmetic(new SecP521R1Curve());
+    }
+
+    public void testCurveEquality()
+    {
+        ECCurve[] customCurves = { new SecP256R1Curve(), new SecP384R1Curve(), new SecP521R1Curve() };
+
+        for (int i = 0; i < customCurves.length; i++)
+        {
+            ECCurve custom = customCurves[i];
+            ECCurve generic = createGenericCurve(custom);
+
+            assertEquals(custom, generic);
+            assertEquals(generic, custom);
+            assertEquals(generic.hashCode(), custom.hashCode());
+        }
+    }
+
+    public void testPointMultiplication()
+    {
+        implTestPointMultiplication("secp256r1");
+        implTestPointMultiplication("secp384r1");
+        implTestPointMultiplication("secp521r1");
+    }
+
+    private void implTestFieldArithmetic(ECCurve custom)
+    {
+        ECCurve generic = createGenericCurve(custom);
+        BigInteger q = ((ECCurve.Fp)custom).getQ();
+
+        BigInteger[] values = createTestValues(q);
+
+        for (int i = 0; i < values.length; i++)
+        {
+            for (int j = 0; j < values.length; j++)
+            {
+                implTestFieldPair(custom, generic, values[i], values[j]);
+            }
+        }
+    }
+
+    private BigInteger[] createTestValues(BigInteger q)
+    {
+        int bits = q.bitLength();
+        BigInteger[] values = new BigInteger[24];
+        int count = 0;
+
+        values[count++] = BigInteger.valueOf(0);
+        values[count++] = ONE;
+        values[count++] = BigInteger.valueOf(2);
+        values[count++] = q.subtract(ONE);
+        values[count++] = q.subtract(BigInteger.valueOf(2));
+        values[count++] = q.shiftRight(1);
+        values[count++] = ONE.shiftLeft(bits - 1);
+        values[count++] = ONE.shiftLeft(bits - 1).subtract(ONE);
+        values[count++] = ONE.shiftLeft(32).subtract(ONE);
+        values[count++] = ONE.shiftLeft(bits - 32);
+
+        while (count < values.length)
+        {
+            BigInteger x = new BigInteger(bits, secRand);
+            if (x.compareTo(q) < 0)
+            {
+                values[count++] = x;
+            }
+        }
+
+        return values;
+    }
+
+    private void implTestFieldPair(ECCurve custom, ECCurve generic, BigInteger x, BigInteger y)
+    {
+        ECFieldElement cx = custom.fromBigInteger(x), cy = custom.fromBigInteger(y);
+        ECFieldElement gx = generic.fromBigInteger(x), gy = generic.fromBigInteger(y);
+
+        assertEquals(x, cx.toBigInteger());
+        assertEquals(gx.bitLength(), cx.bitLength());
+        assertEquals(gx.isZero(), cx.isZero());
+        assertEquals(gx.testBitZero(), cx.testBitZero());
+        assertEquals(gx.hashCode(), cx.hashCode());
+        assertEquals(cx, custom.fromBigInteger(x));
+
+        assertFieldEquals(gx.add(gy), cx.add(cy));
+        assertFieldEquals(gx.subtract(gy), cx.subtract(cy));
+        assertFieldEquals(gx.multiply(gy), cx.multiply(cy));
+        assertFieldEquals(gx.square(), cx.square());
+        assertFieldEquals(gx.negate(), cx.negate());
+        assertFieldEquals(gx.addOne(), cx.addOne());
+
+        if (!gy.isZero())
+        {
+            assertFieldEquals(gy.invert(), cy.invert());
+            assertFieldEquals(gx.divide(gy), cx.divide(cy));
+        }
+
+        ECFieldElement gRoot = gx.sqrt(), cRoot = cx.sqrt();
+        if (gRoot == null)
+        {
+            assertNull(cRoot);
+        }
+        else
+        {
+            assertNotNull(cRoot);
+            assertFieldEquals(gx, cRoot.square());
+        }
+    }
+
+    private void implTestPointMultiplication(String curveName)
+    {
+        X9ECParameters x9 = SECNamedCurves.getByName(curveName);
+        ECCurve custom = x9.getCurve();
+        ECCurve generic = createGenericCurve(custom);
+
+        assertTrue(custom instanceof ECCurve.Fp && !custom.getClass().equals(ECCurve.Fp.class));
+
+        ECPoint customG = x9.getG();
+        ECPoint genericG = generic.importPoint(customG);
+
+        for (int i = 0; i < 10; i++)
+        {
+            BigInteger k = new BigInteger(x9.getN().bitLength(), secRand);
+
+            ECPoint c = customG.multiply(k).normalize();
+            ECPoint g = genericG.multiply(k).normalize();
+
+            assertEquals(g.getAffineXCoord().toBigInteger(), c.getAffineXCoord().toBigInteger());
+            assertEquals(g.getAffineYCoord().toBigInteger(), c.getAffineYCoord().toBigInteger());
+            assertEquals(g, c);
+            assertEquals(c, g);
+
+            byte[] compressed = c.getEncoded(true);
+            assertEquals(c, custom.decodePoint(compressed));
+            assertTrue(Arrays.areEqual(g.getEncoded(true), compressed));
+        }
+
+        assertTrue(customG.multiply(x9.getN()).isInfinity());
+    }
+
+    private ECCurve createGenericCurve(ECCurve custom)
+    {
+        return new ECCurve.Fp(((ECCurve.Fp)custom).getQ(), custom.getA().toBigInteger(), custom.getB().toBigInteger());
+    }
+
+    private void assertFieldEquals(ECFieldElement expected, ECFieldElement actual)
+    {
+        assertEquals(expected.toBigInteger(), actual.toBigInteger());
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite(SecPCurveTest.class);
+    }
+}
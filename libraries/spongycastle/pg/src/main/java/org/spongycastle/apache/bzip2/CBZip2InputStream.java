@@ -25,6 +25,7 @@
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * An input stream that decompresses from the BZip2 format (with the file
@@ -34,6 +35,10 @@
  *
  * <b>NB:</b> note this class has been modified to read the leading BZ from the
  * start of the BZIP2 stream to make it compatible with other PGP programs.
+ * <p>
+ * The compressed data is read from the underlying stream in chunks, so the
+ * stream should not be used for anything else once it has been passed in.
+ * </p>
  */
 public class CBZip2InputStream extends InputStream implements BZip2Constants {
     private static void cadvise() {
@@ -84,8 +89,18 @@ private void makeMaps() {
 
     private boolean blockRandomised;
 
-    private int bsBuff;
+    /*
+      Codes of up to LOOKUP_BITS bits are decoded with a single table
+      lookup, longer ones with the limit, base and perm tables.
+    */
+    private static final int LOOKUP_BITS = 10;
+    private static final int LOOKUP_MASK = (1 << LOOKUP_BITS) - 1;
+
+    private long bsBuff;
     private int bsLive;
+    private byte[] bsInBuf = new byte[4096];
+    private int bsInPos;
+    private int bsInLen;
     private CRC mCrc = new CRC();
 
     private boolean[] inUse = new boolean[256];
@@ -97,8 +112,12 @@ private void makeMaps() {
     private char[] selector = new char[MAX_SELECTORS];
     private char[] selectorMtf = new char[MAX_SELECTORS];
 
+    /*
+      The low 8 bits of each entry hold the byte of the block at that
+      position, the rest the position of the byte that follows it in the
+      output.
+    */
     private int[] tt;
-    private char[] ll8;
 
     /*
       freq table collected to save a pass over the data
@@ -110,73 +129,74 @@ private void makeMaps() {
     private int[][] base = new int[N_GROUPS][MAX_ALPHA_SIZE];
     private int[][] perm = new int[N_GROUPS][MAX_ALPHA_SIZE];
     private int[] minLens = new int[N_GROUPS];
+    private int[][] lookup = new int[N_GROUPS][1 << LOOKUP_BITS];
 
     private InputStream bsStream;
 
     private boolean streamEnd = false;
 
-    private int currentChar = -1;
-
-    private static final int START_BLOCK_STATE = 1;
-    private static final int RAND_PART_A_STATE = 2;
-    private static final int RAND_PART_B_STATE = 3;
-    private static final int RAND_PART_C_STATE = 4;
-    private static final int NO_RAND_PART_A_STATE = 5;
-    private static final int NO_RAND_PART_B_STATE = 6;
-    private static final int NO_RAND_PART_C_STATE = 7;
-
-    private int currentState = START_BLOCK_STATE;
+    private byte[] singleByte = new byte[1];
 
     private int storedBlockCRC, storedCombinedCRC;
     private int computedBlockCRC, computedCombinedCRC;
 
-    int i2, count, chPrev, ch2;
-    int i, tPos;
-    int rNToGo = 0;
-    int rTPos  = 0;
-    int j2;
-    char z;
+    /*
+      Where the output of the current block has got to: the next position
+      in tt, the number of bytes of the block used, the last byte output and
+      how many times in a row it has been output, and how many more copies
+      of it are due from a run.
+    */
+    private int tPos;
+    private int blockPos;
+    private int lastChar;
+    private int runLength;
+    private int repeatLeft;
+    private int rNToGo = 0;
+    private int rTPos  = 0;
 
     public CBZip2InputStream(InputStream zStream)
         throws IOException
     {
-        ll8 = null;
         tt = null;
         bsSetStream(zStream);
         initialize();
-        initBlock();
-        setupBlock();
+        if (!streamEnd) {
+            initBlock();
+        }
+        if (!streamEnd) {
+            setupBlock();
+        }
     }
 
     public int read() {
+        if (read(singleByte, 0, 1) < 0) {
+            return -1;
+        }
+        return singleByte[0] & 0xff;
+    }
+
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
         if (streamEnd) {
             return -1;
-        } else {
-            int retChar = currentChar;
-            switch(currentState) {
-            case START_BLOCK_STATE:
-                break;
-            case RAND_PART_A_STATE:
-                break;
-            case RAND_PART_B_STATE:
-                setupRandPartB();
-                break;
-            case RAND_PART_C_STATE:
-                setupRandPartC();
-                break;
-            case NO_RAND_PART_A_STATE:
-                break;
-            case NO_RAND_PART_B_STATE:
-                setupNoRandPartB();
-                break;
-            case NO_RAND_PART_C_STATE:
-                setupNoRandPartC();
-                break;
-            default:
-                break;
+        }
+
+        int n = 0;
+        while (n < len) {
+            n += readBlock(b, off + n, len - n);
+            if (n < len) {
+                endBlock();
+                initBlock();
+                if (streamEnd) {
+                    break;
+                }
+                setupBlock();
             }
-            return retChar;
         }
+
+        return (n == 0) ? -1 : n;
     }
 
     private void initialize() throws IOException {
@@ -233,7 +253,6 @@ private void initBlock() {
         getAndMoveToFrontDecode();
 
         mCrc.initialiseCRC();
-        currentState = START_BLOCK_STATE;
     }
 
     private void endBlock() {
@@ -287,29 +306,67 @@ private void bsSetStream(InputStream f) {
         bsStream = f;
         bsLive = 0;
         bsBuff = 0;
+        bsInPos = 0;
+        bsInLen = 0;
     }
 
-    private int bsR(int n) {
-        int v;
-        while (bsLive < n) {
-            int zzi;
-            char thech = 0;
-            try {
-                thech = (char) bsStream.read();
-            } catch (IOException e) {
-                compressedStreamEOF();
-            }
-            if (thech == -1) {
-                compressedStreamEOF();
+    private boolean bsFillInput() {
+        if (bsStream == null) {
+            return false;
+        }
+
+        int len;
+        try {
+            do {
+                len = bsStream.read(bsInBuf, 0, bsInBuf.length);
+            } while (len == 0);
+        } catch (IOException e) {
+            compressedStreamEOF();
+            len = -1;
+        }
+
+        bsInPos = 0;
+        bsInLen = (len < 0) ? 0 : len;
+        return len > 0;
+    }
+
+    /*
+      Top bsBuff up to at least 57 bits, a word at a time while there is
+      one in the input buffer, unless the input runs out.
+    */
+    private void bsFill() {
+        if (bsLive <= 32 && bsInLen - bsInPos >= 4) {
+            int p = bsInPos;
+            int w = (bsInBuf[p] << 24) | ((bsInBuf[p + 1] & 0xff) << 16)
+                | ((bsInBuf[p + 2] & 0xff) << 8) | (bsInBuf[p + 3] & 0xff);
+            bsBuff = (bsBuff << 32) | (w & 0xffffffffL);
+            bsLive += 32;
+            bsInPos = p + 4;
+        }
+        while (bsLive <= 56) {
+            if (bsInPos == bsInLen && !bsFillInput()) {
+                return;
             }
-            zzi = thech;
-            bsBuff = (bsBuff << 8) | (zzi & 0xff);
+            bsBuff = (bsBuff << 8) | (bsInBuf[bsInPos++] & 0xff);
             bsLive += 8;
         }
+    }
+
+    private int bsR(int n) {
+        if (bsLive < n) {
+            bsFill();
+            while (bsLive < n) {
+                /*
+                  Past the end of the input - carry on with set bits as
+                  earlier versions did, the CRC check will report it.
+                */
+                bsBuff = (bsBuff << 8) | 0xff;
+                bsLive += 8;
+            }
+        }
 
-        v = (bsBuff >> (bsLive - n)) & ((1 << n) - 1);
         bsLive -= n;
-        return v;
+        return (int) (bsBuff >>> bsLive) & ((1 << n) - 1);
     }
 
     private char bsGetUChar() {
@@ -374,6 +431,64 @@ private void hbCreateDecodeTables(int[] limit, int[] base,
         }
     }
 
+    /*
+      Each entry is indexed by the next LOOKUP_BITS bits of the input and
+      holds (symbol << 5) | code length for the code they start with, or 0
+      if the code is longer than LOOKUP_BITS. The codes are assigned in the
+      same order as hbAssignCodes() in the compressor.
+    */
+    private static void hbCreateLookupTable(int[] table, char[] length,
+                                            int minLen, int maxLen, int alphaSize) {
+        Arrays.fill(table, 0);
+
+        int code = 0;
+        for (int n = minLen; n <= maxLen && n <= LOOKUP_BITS; n++) {
+            for (int i = 0; i < alphaSize; i++) {
+                if (length[i] == n) {
+                    /* an over-full set of lengths is left to the slow path */
+                    if (n > 0 && code < (1 << n)) {
+                        int shift = LOOKUP_BITS - n;
+                        int entry = (i << 5) | n;
+                        int start = code << shift;
+                        int end = start + (1 << shift);
+                        for (int j = start; j < end; j++) {
+                            table[j] = entry;
+                        }
+                    }
+                    code++;
+                }
+            }
+            code <<= 1;
+        }
+    }
+
+    private int getSymbol(int zt) {
+        if (bsLive < LOOKUP_BITS) {
+            bsFill();
+        }
+
+        int bits;
+        if (bsLive >= LOOKUP_BITS) {
+            bits = (int) (bsBuff >>> (bsLive - LOOKUP_BITS)) & LOOKUP_MASK;
+        } else {
+            bits = (int) (bsBuff << (LOOKUP_BITS - bsLive)) & LOOKUP_MASK;
+        }
+
+        int entry = lookup[zt][bits];
+        if (entry != 0 && (entry & 0x1f) <= bsLive) {
+            bsLive -= entry & 0x1f;
+            return entry >>> 5;
+        }
+
+        int zn = minLens[zt];
+        int zvec = bsR(zn);
+        while (zvec > limit[zt][zn]) {
+            zn++;
+            zvec = (zvec << 1) | bsR(1);
+        }
+        return perm[zt][zvec - base[zt][zn]];
+    }
+
     private void recvDecodingTables() {
         char len[][] = new char[N_GROUPS][MAX_ALPHA_SIZE];
         int i, j, t, nGroups, nSelectors, alphaSize;
@@ -466,6 +581,7 @@ private void recvDecodingTables() {
             }
             hbCreateDecodeTables(limit[t], base[t], perm[t], len[t], minLen,
                                  maxLen, alphaSize);
+            hbCreateLookupTable(lookup[t], len[t], minLen, maxLen, alphaSize);
             minLens[t] = minLen;
         }
     }
@@ -499,43 +615,12 @@ private void getAndMoveToFrontDecode() {
 
         last = -1;
 
-        {
-            int zt, zn, zvec, zj;
-            if (groupPos == 0) {
-                groupNo++;
-                groupPos = G_SIZE;
-            }
-            groupPos--;
-            zt = selector[groupNo];
-            zn = minLens[zt];
-            zvec = bsR(zn);
-            while (zvec > limit[zt][zn]) {
-                zn++;
-                {
-                    {
-                        while (bsLive < 1) {
-                            int zzi;
-                            char thech = 0;
-                            try {
-                                thech = (char) bsStream.read();
-                            } catch (IOException e) {
-                                compressedStreamEOF();
-                            }
-                            if (thech == -1) {
-                                compressedStreamEOF();
-                            }
-                            zzi = thech;
-                            bsBuff = (bsBuff << 8) | (zzi & 0xff);
-                            bsLive += 8;
-                        }
-                    }
-                    zj = (bsBuff >> (bsLive - 1)) & 1;
-                    bsLive--;
-                }
-                zvec = (zvec << 1) | zj;
-            }
-            nextSym = perm[zt][zvec - base[zt][zn]];
+        if (groupPos == 0) {
+            groupNo++;
+            groupPos = G_SIZE;
         }
+        groupPos--;
+        nextSym = getSymbol(selector[groupNo]);
 
         while (true) {
 
@@ -552,45 +637,14 @@ private void getAndMoveToFrontDecode() {
                         s = s + (0 + 1) * N;
                     } else if (nextSym == RUNB) {
                         s = s + (1 + 1) * N;
-                           }
+                    }
                     N = N * 2;
-                    {
-                        int zt, zn, zvec, zj;
-                        if (groupPos == 0) {
-                            groupNo++;
-                            groupPos = G_SIZE;
-                        }
-                        groupPos--;
-                        zt = selector[groupNo];
-                        zn = minLens[zt];
-                        zvec = bsR(zn);
-                        while (zvec > limit[zt][zn]) {
-                            zn++;
-                            {
-                                {
-                                    while (bsLive < 1) {
-                                        int zzi;
-                                        char thech = 0;
-                                        try {
-                                            thech = (char) bsStream.read();
-                                        } catch (IOException e) {
-                                            compressedStreamEOF();
-                                        }
-                                        if (thech == -1) {
-                                            compressedStreamEOF();
-                                        }
-                                        zzi = thech;
-                                        bsBuff = (bsBuff << 8) | (zzi & 0xff);
-                                        bsLive += 8;
-                                    }
-                                }
-                                zj = (bsBuff >> (bsLive - 1)) & 1;
-                                bsLive--;
-                            }
-                            zvec = (zvec << 1) | zj;
-                        }
-                        nextSym = perm[zt][zvec - base[zt][zn]];
+                    if (groupPos == 0) {
+                        groupNo++;
+                        groupPos = G_SIZE;
                     }
+                    groupPos--;
+                    nextSym = getSymbol(selector[groupNo]);
                 } while (nextSym == RUNA || nextSym == RUNB);
 
                 s++;
@@ -599,7 +653,7 @@ private void getAndMoveToFrontDecode() {
 
                 while (s > 0) {
                     last++;
-                    ll8[last] = ch;
+                    tt[last] = ch;
                     s--;
                 }
 
@@ -616,7 +670,7 @@ private void getAndMoveToFrontDecode() {
 
                 tmp = yy[nextSym - 1];
                 unzftab[seqToUnseq[tmp]]++;
-                ll8[last] = seqToUnseq[tmp];
+                tt[last] = seqToUnseq[tmp];
 
                 /*
                   This loop is hammered during decompression,
@@ -637,40 +691,12 @@ private void getAndMoveToFrontDecode() {
                 }
 
                 yy[0] = tmp;
-                {
-                    int zt, zn, zvec, zj;
-                    if (groupPos == 0) {
-                        groupNo++;
-                        groupPos = G_SIZE;
-                    }
-                    groupPos--;
-                    zt = selector[groupNo];
-                    zn = minLens[zt];
-                    zvec = bsR(zn);
-                    while (zvec > limit[zt][zn]) {
-                        zn++;
-                        {
-                            {
-                                while (bsLive < 1) {
-                                    int zzi;
-                                    char thech = 0;
-                                    try {
-                                        thech = (char) bsStream.read();
-                                    } catch (IOException e) {
-                                        compressedStreamEOF();
-                                    }
-                                    zzi = thech;
-                                    bsBuff = (bsBuff << 8) | (zzi & 0xff);
-                                    bsLive += 8;
-                                }
-                            }
-                            zj = (bsBuff >> (bsLive - 1)) & 1;
-                            bsLive--;
-                        }
-                        zvec = (zvec << 1) | zj;
-                    }
-                    nextSym = perm[zt][zvec - base[zt][zn]];
+                if (groupPos == 0) {
+                    groupNo++;
+                    groupPos = G_SIZE;
                 }
+                groupPos--;
+                nextSym = getSymbol(selector[groupNo]);
                 continue;
             }
         }
@@ -678,7 +704,7 @@ private void getAndMoveToFrontDecode() {
 
     private void setupBlock() {
         int[] cftab = new int[257];
-        char ch;
+        int i;
 
         cftab[0] = 0;
         for (i = 1; i <= 256; i++) {
@@ -689,80 +715,64 @@ private void setupBlock() {
         }
 
         for (i = 0; i <= last; i++) {
-            ch = (char) ll8[i];
-            tt[cftab[ch]] = i;
+            int ch = tt[i] & 0xff;
+            tt[cftab[ch]] |= i << 8;
             cftab[ch]++;
         }
         cftab = null;
 
-        tPos = tt[origPtr];
+        tPos = tt[origPtr] >>> 8;
 
-        count = 0;
-        i2 = 0;
-        ch2 = 256;   /* not a char and not EOF */
+        blockPos = 0;
+        lastChar = 256;   /* not a char and not EOF */
+        runLength = 0;
+        repeatLeft = 0;
 
         if (blockRandomised) {
             rNToGo = 0;
             rTPos = 0;
-            setupRandPartA();
-        } else {
-            setupNoRandPartA();
         }
     }
 
-    private void setupRandPartA() {
-        if (i2 <= last) {
-            chPrev = ch2;
-            ch2 = ll8[tPos];
-            tPos = tt[tPos];
-            if (rNToGo == 0) {
-                rNToGo = rNums[rTPos];
-                rTPos++;
-                if (rTPos == 512) {
-                    rTPos = 0;
+    /*
+      Undo the run length coding of the current block into b, returning
+      fewer than len bytes only if the block is used up.
+    */
+    private int readBlock(byte[] b, int off, int len) {
+        int[] tt = this.tt;
+        int[] crcTable = CRC.crc32Table;
+        boolean randomised = blockRandomised;
+        int tPos = this.tPos;
+        int blockPos = this.blockPos;
+        int ch = lastChar;
+        int count = runLength;
+        int repeat = repeatLeft;
+        int crc = mCrc.getGlobalCRC();
+        int pos = off;
+        int end = off + len;
+
+        while (pos < end) {
+            if (repeat > 0) {
+                int n = Math.min(repeat, end - pos);
+                byte v = (byte) ch;
+                repeat -= n;
+                while (n-- > 0) {
+                    b[pos++] = v;
+                    crc = (crc << 8) ^ crcTable[((crc >>> 24) ^ ch) & 0xff];
                 }
+                continue;
             }
-            rNToGo--;
-            ch2 ^= (int) ((rNToGo == 1) ? 1 : 0);
-            i2++;
-
-            currentChar = ch2;
-            currentState = RAND_PART_B_STATE;
-            mCrc.updateCRC(ch2);
-        } else {
-            endBlock();
-            initBlock();
-            setupBlock();
-        }
-    }
 
-    private void setupNoRandPartA() {
-        if (i2 <= last) {
-            chPrev = ch2;
-            ch2 = ll8[tPos];
-            tPos = tt[tPos];
-            i2++;
+            if (blockPos > last) {
+                break;
+            }
 
-            currentChar = ch2;
-            currentState = NO_RAND_PART_B_STATE;
-            mCrc.updateCRC(ch2);
-        } else {
-            endBlock();
-            initBlock();
-            setupBlock();
-        }
-    }
+            int next = tt[tPos];
+            tPos = next >>> 8;
+            next &= 0xff;
+            blockPos++;
 
-    private void setupRandPartB() {
-        if (ch2 != chPrev) {
-            currentState = RAND_PART_A_STATE;
-            count = 1;
-            setupRandPartA();
-        } else {
-            count++;
-            if (count >= 4) {
-                z = ll8[tPos];
-                tPos = tt[tPos];
+            if (randomised) {
                 if (rNToGo == 0) {
                     rNToGo = rNums[rTPos];
                     rTPos++;
@@ -771,61 +781,35 @@ private void setupRandPartB() {
                     }
                 }
                 rNToGo--;
-                z ^= ((rNToGo == 1) ? 1 : 0);
-                j2 = 0;
-                currentState = RAND_PART_C_STATE;
-                setupRandPartC();
-            } else {
-                currentState = RAND_PART_A_STATE;
-                setupRandPartA();
+                next ^= ((rNToGo == 1) ? 1 : 0);
             }
-        }
-    }
 
-    private void setupRandPartC() {
-        if (j2 < (int) z) {
-            currentChar = ch2;
-            mCrc.updateCRC(ch2);
-            j2++;
-        } else {
-            currentState = RAND_PART_A_STATE;
-            i2++;
-            count = 0;
-            setupRandPartA();
-        }
-    }
+            /* after four of a kind comes the number of further copies */
+            if (count == 4) {
+                repeat = next;
+                count = 0;
+                continue;
+            }
 
-    private void setupNoRandPartB() {
-        if (ch2 != chPrev) {
-            currentState = NO_RAND_PART_A_STATE;
-            count = 1;
-            setupNoRandPartA();
-        } else {
-            count++;
-            if (count >= 4) {
-                z = ll8[tPos];
-                tPos = tt[tPos];
-                currentState = NO_RAND_PART_C_STATE;
-                j2 = 0;
-                setupNoRandPartC();
+            if (next == ch) {
+                count++;
             } else {
-                currentState = NO_RAND_PART_A_STATE;
-                setupNoRandPartA();
+                ch = next;
+                count = 1;
             }
-        }
-    }
 
-    private void setupNoRandPartC() {
-        if (j2 < (int) z) {
-            currentChar = ch2;
-            mCrc.updateCRC(ch2);
-            j2++;
-        } else {
-            currentState = NO_RAND_PART_A_STATE;
-            i2++;
-            count = 0;
-            setupNoRandPartA();
+            b[pos++] = (byte) next;
+            crc = (crc << 8) ^ crcTable[((crc >>> 24) ^ next) & 0xff];
         }
+
+        this.tPos = tPos;
+        this.blockPos = blockPos;
+        lastChar = ch;
+        runLength = count;
+        repeatLeft = repeat;
+        mCrc.setGlobalCRC(crc);
+
+        return pos - off;
     }
 
     private void setDecompressStructureSizes(int newSize100k) {
@@ -841,7 +825,6 @@ private void setDecompressStructureSizes(int newSize100k) {
         }
 
         int n = baseBlockSize * newSize100k;
-        ll8 = new char[n];
         tt = new int[n];
     }
 }
@@ -24,8 +24,15 @@
 
 package org.spongycastle.apache.bzip2;
 
+import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.spongycastle.util.Parallel;
 
 /**
  * An output stream that compresses into the BZip2 format (with the file
@@ -36,6 +43,13 @@
  * TODO:    Update to BZip2 1.0.1
  * <b>NB:</b> note this class has been modified to add a leading BZ to the
  * start of the BZIP2 stream to make it compatible with other PGP programs.
+ * <p>
+ * If an executor is passed in, each full block is sorted and Huffman coded
+ * by a task on the executor while the next block is being collected, with up
+ * to the given number of blocks in progress at once. The coded blocks are
+ * written out in order, so the stream produced is exactly the one produced
+ * without an executor.
+ * </p>
  */
 public class CBZip2OutputStream extends OutputStream implements BZip2Constants {
     protected static final int SETMASK = (1 << 21);
@@ -277,12 +291,63 @@ protected static void hbMakeCodeLengths(char[] len, int[] freq,
     private int currentChar = -1;
     private int runLength = 0;
 
+    /*
+      When blocks are coded on an executor: the coders not in use, the
+      futures of the blocks being coded in block order, and the coder
+      whose block is being filled.
+    */
+    private ExecutorService executor;
+    private int threads;
+    private int coders;
+    private LinkedList idleCoders;
+    private LinkedList pendingBlocks;
+    private CBZip2OutputStream coder;
+
+    /*
+      In a block coder, where the bits of the block are written.
+    */
+    private ByteArrayOutputStream blockOut;
+
     public CBZip2OutputStream(OutputStream inStream) throws IOException {
         this(inStream, 9);
     }
 
     public CBZip2OutputStream(OutputStream inStream, int inBlockSize)
         throws IOException {
+        this(inStream, inBlockSize, null, 1);
+    }
+
+    /**
+     * Return the number of bytes a block coder for blocks of inBlockSize
+     * * 100k holds - the memory each block in progress on an executor
+     * takes on top of the data itself.
+     *
+     * @param inBlockSize the block size in units of 100k, from 1 to 9.
+     */
+    public static long getCoderMemory(int inBlockSize) {
+        long n = (long) baseBlockSize * Math.max(1, Math.min(9, inBlockSize));
+
+        // block (chars), quadrant and zptr (ints), szptr (2n shorts) and ftab
+        return 2 * n + 4 * n + 4 * n + 4 * n + 4 * 65537;
+    }
+
+    /**
+     * Create a stream which codes up to threads blocks at once on the
+     * passed in executor.
+     *
+     * @param inStream the stream to write the compressed data to.
+     * @param inBlockSize the block size in units of 100k, from 1 to 9.
+     * @param executor the executor to code blocks on, null to code them on the calling thread.
+     * @param threads the most blocks to have in progress at once, each
+     * holding getCoderMemory(inBlockSize) bytes.
+     */
+    public CBZip2OutputStream(OutputStream inStream, int inBlockSize,
+                              ExecutorService executor, int threads)
+        throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
         block = null;
         quadrant = null;
         zptr = null;
@@ -301,11 +366,31 @@ public CBZip2OutputStream(OutputStream inStream, int inBlockSize)
             inBlockSize = 1;
         }
         blockSize100k = inBlockSize;
-        allocateCompressStructures();
+        if (executor != null) {
+            this.executor = executor;
+            this.threads = threads;
+            idleCoders = new LinkedList();
+            pendingBlocks = new LinkedList();
+        } else {
+            allocateCompressStructures();
+        }
         initialize();
         initBlock();
     }
 
+    /*
+      A block coder - it only sorts and codes the blocks passed to it, into
+      blockOut.
+    */
+    private CBZip2OutputStream(int inBlockSize) {
+        blockOut = new ByteArrayOutputStream();
+        workFactor = 50;
+        blockSize100k = inBlockSize;
+        allocateCompressStructures();
+        finished = true;
+        closed = true;
+    }
+
     /**
      *
      * modified by Oliver Merkel, 010128
@@ -434,7 +519,11 @@ private void initialize() throws IOException {
 
     private int allowableBlockSize;
 
-    private void initBlock() {
+    private void initBlock() throws IOException {
+        if (executor != null) {
+            nextCoder();
+        }
+
         //        blockNo++;
         mCrc.initialiseCRC();
         last = -1;
@@ -453,6 +542,14 @@ private void endBlock() throws IOException {
         combinedCRC = (combinedCRC << 1) | (combinedCRC >>> 31);
         combinedCRC ^= blockCRC;
 
+        if (executor != null) {
+            submitBlock();
+        } else {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
         /* sort the block and establish posn of original string */
         doReversibleTransformation();
 
@@ -491,7 +588,82 @@ private void endBlock() throws IOException {
         moveToFrontCodeAndSend();
     }
 
+    /*
+      Make the next free coder's block the one being filled, creating a
+      coder if fewer than threads exist, or else waiting for the oldest
+      block in progress to be written out.
+    */
+    private void nextCoder() throws IOException {
+        if (idleCoders.isEmpty()) {
+            if (coders < threads) {
+                idleCoders.add(new CBZip2OutputStream(blockSize100k));
+                coders++;
+            } else {
+                writeCodedBlock();
+            }
+        }
+
+        coder = (CBZip2OutputStream) idleCoders.removeFirst();
+        block = coder.block;
+        inUse = coder.inUse;
+        mCrc = coder.mCrc;
+    }
+
+    private void submitBlock() {
+        final CBZip2OutputStream blockCoder = coder;
+
+        blockCoder.last = last;
+        blockCoder.blockCRC = blockCRC;
+        coder = null;
+
+        pendingBlocks.addLast(executor.submit(new Callable() {
+            public Object call() throws Exception {
+                blockCoder.codeBlock();
+                return blockCoder;
+            }
+        }));
+    }
+
+    /*
+      Run by a block coder on the executor - the whole bytes of the block
+      go to blockOut, leaving at most 7 bits in bsBuff.
+    */
+    private void codeBlock() throws IOException {
+        blockOut.reset();
+        bsSetStream(blockOut);
+        writeBlock();
+        while (bsLive >= 8) {
+            blockOut.write(bsBuff >> 24);
+            bsBuff <<= 8;
+            bsLive -= 8;
+        }
+    }
+
+    /*
+      Wait for the oldest block in progress and append its bits to the
+      stream.
+    */
+    private void writeCodedBlock() throws IOException {
+        CBZip2OutputStream done = (CBZip2OutputStream) Parallel.waitForIO((Future) pendingBlocks.removeFirst());
+        byte[] bytes = done.blockOut.toByteArray();
+
+        for (int i = 0; i < bytes.length; i++) {
+            bsW(8, bytes[i] & 0xff);
+        }
+        if (done.bsLive > 0) {
+            bsW(done.bsLive, done.bsBuff >>> (32 - done.bsLive));
+        }
+
+        idleCoders.add(done);
+    }
+
     private void endCompression() throws IOException {
+        if (executor != null) {
+            while (!pendingBlocks.isEmpty()) {
+                writeCodedBlock();
+            }
+        }
+
         /*
           Now another magic 48-bit number, 0x177245385090, to
           indicate the end of the last block.  (sqrt(pi), if
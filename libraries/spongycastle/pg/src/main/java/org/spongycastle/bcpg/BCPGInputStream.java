@@ -3,6 +3,7 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.spongycastle.util.io.Streams;
 
@@ -15,6 +16,8 @@
     InputStream    in;
     boolean        next = false;
     int            nextB;
+
+    private byte[] transferBuf;
     
     public BCPGInputStream(
         InputStream    in)
@@ -72,6 +75,53 @@ public int read(
         return 1;
     }
 
+    /**
+     * Read up to buf.remaining() bytes into the passed in buffer, advancing its position by
+     * the number of bytes read. Heap buffers are read into directly, direct buffers are filled
+     * through a single reusable transfer array.
+     *
+     * @param buf the buffer to read into.
+     * @return the number of bytes read, -1 if the end of stream has been reached.
+     * @throws IOException
+     */
+    public int read(
+        ByteBuffer buf)
+        throws IOException
+    {
+        int len = buf.remaining();
+
+        if (len == 0)
+        {
+            return 0;
+        }
+
+        if (buf.hasArray())
+        {
+            int readLen = this.read(buf.array(), buf.arrayOffset() + buf.position(), len);
+
+            if (readLen > 0)
+            {
+                buf.position(buf.position() + readLen);
+            }
+
+            return readLen;
+        }
+
+        if (transferBuf == null)
+        {
+            transferBuf = new byte[8192];
+        }
+
+        int readLen = this.read(transferBuf, 0, Math.min(len, transferBuf.length));
+
+        if (readLen > 0)
+        {
+            buf.put(transferBuf, 0, readLen);
+        }
+
+        return readLen;
+    }
+
     public void readFully(
         byte[]    buf,
         int       off,
@@ -283,6 +333,7 @@ public void close()
         private BCPGInputStream     in;
         private boolean             partial;
         private int                 dataLength;
+        private final byte[]        lenBuf = new byte[4];
 
         PartialInputStream(
             BCPGInputStream  in,
@@ -334,7 +385,9 @@ else if (l <= 223)
             }
             else if (l == 255)
             {
-                dataLength = (in.read() << 24) | (in.read() << 16) |  (in.read() << 8)  | in.read();
+                in.readFully(lenBuf, 0, 4);
+
+                dataLength = ((lenBuf[0] & 0xff) << 24) | ((lenBuf[1] & 0xff) << 16) | ((lenBuf[2] & 0xff) << 8) | (lenBuf[3] & 0xff);
             }
             else
             {
@@ -344,27 +397,46 @@ else if (l == 255)
             
             return dataLength;
         }
-        
+
+        /**
+         * Bulk read - data is transferred straight into buf, continuing across partial body
+         * chunk boundaries until len bytes have been read, the underlying stream returns short,
+         * or the end of the packet is reached.
+         */
         public int read(byte[] buf, int offset, int len)
             throws IOException
         {
+            if (len == 0)
+            {
+                return 0;
+            }
+
+            int totalRead = 0;
+
             do
             {
                 if (dataLength != 0)
                 {
-                    int readLen = (dataLength > len || dataLength < 0) ? len : dataLength;
-                    readLen = in.read(buf, offset, readLen);
+                    int remaining = len - totalRead;
+                    int readLen = (dataLength > remaining || dataLength < 0) ? remaining : dataLength;
+
+                    readLen = in.read(buf, offset + totalRead, readLen);
                     if (readLen < 0)
                     {
                         throw new EOFException("premature end of stream in PartialInputStream");
                     }
                     dataLength -= readLen;
-                    return readLen;
+                    totalRead += readLen;
+
+                    if (totalRead == len || dataLength != 0)
+                    {
+                        return totalRead;
+                    }
                 }
             }
             while (partial && loadDataLength() >= 0);
 
-            return -1;
+            return (totalRead > 0) ? totalRead : -1;
         }
         
         public int read()
@@ -24,10 +24,7 @@ public class LiteralDataPacket
         int    l = in.read();
         
         fileName = new byte[l];
-        for (int i = 0; i != fileName.length; i++)
-        {
-            fileName[i] = (byte)in.read();
-        }
+        in.readFully(fileName);
 
         modDate = ((long)in.read() << 24) | (in.read() << 16) | (in.read() << 8) | in.read();
     }
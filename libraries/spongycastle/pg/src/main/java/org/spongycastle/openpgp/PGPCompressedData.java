@@ -25,6 +25,12 @@ public PGPCompressedData(
     {
         data = (CompressedDataPacket)pIn.readPacket();
     }
+
+    PGPCompressedData(
+        CompressedDataPacket    data)
+    {
+        this.data = data;
+    }
     
     /**
      * Return the algorithm used for compression
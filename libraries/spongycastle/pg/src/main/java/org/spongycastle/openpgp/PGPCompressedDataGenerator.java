@@ -7,6 +7,7 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 
@@ -18,6 +19,8 @@ public class PGPCompressedDataGenerator
 {
     private int                     algorithm;
     private int                     compression;
+    private ExecutorService         executor;
+    private int                     threads;
 
     private OutputStream            dOut;
     private BCPGOutputStream        pkOut;
@@ -31,6 +34,28 @@ public PGPCompressedDataGenerator(
     public PGPCompressedDataGenerator(
         int                    algorithm,
         int                    compression)
+    {
+        this(algorithm, compression, null, 1);
+    }
+
+    /**
+     * Create a generator which spreads the compression over up to threads tasks on
+     * the passed in executor where the algorithm allows it. For BZIP2 each block is
+     * sorted and coded by its own task; the compressed data is the same as that
+     * produced without an executor. For ZIP and ZLIB the data is deflated in 128k
+     * chunks, each primed with the 32k before it, if the runtime supports a sync
+     * flush (Java 7 or Android 4.4 on) - otherwise a single Deflater is used.
+     *
+     * @param algorithm the compression algorithm to use.
+     * @param compression the compression level, for ZIP and ZLIB.
+     * @param executor the executor to run compression tasks on, null to compress on the calling thread.
+     * @param threads the most tasks to have in progress at once.
+     */
+    public PGPCompressedDataGenerator(
+        int                    algorithm,
+        int                    compression,
+        ExecutorService        executor,
+        int                    threads)
     {
         switch (algorithm)
         {
@@ -51,8 +76,15 @@ public PGPCompressedDataGenerator(
             }
         }
 
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
         this.algorithm = algorithm;
         this.compression = compression;
+        this.executor = executor;
+        this.threads = threads;
     }
 
     /**
@@ -133,13 +165,13 @@ private void doOpen() throws IOException
                 dOut = pkOut;
                 break;
             case CompressionAlgorithmTags.ZIP:
-                dOut = new SafeDeflaterOutputStream(pkOut, compression, true);
+                dOut = createDeflaterStream(true);
                 break;
             case CompressionAlgorithmTags.ZLIB:
-                dOut = new SafeDeflaterOutputStream(pkOut, compression, false);
+                dOut = createDeflaterStream(false);
                 break;
             case CompressionAlgorithmTags.BZIP2:
-                dOut = new SafeCBZip2OutputStream(pkOut);
+                dOut = new SafeCBZip2OutputStream(pkOut, executor, threads);
                 break;
             default:
                 // Constructor should guard against this possibility
@@ -147,6 +179,16 @@ private void doOpen() throws IOException
         }
     }
 
+    private OutputStream createDeflaterStream(boolean nowrap) throws IOException
+    {
+        if (executor != null && ParallelDeflaterOutputStream.isSupported())
+        {
+            return new ParallelDeflaterOutputStream(pkOut, compression, nowrap, executor, threads);
+        }
+
+        return new SafeDeflaterOutputStream(pkOut, compression, nowrap);
+    }
+
     /**
      * Close the compressed object - this is equivalent to calling close on the stream
      * returned by the open() method.
@@ -174,9 +216,9 @@ public void close()
 
     private static class SafeCBZip2OutputStream extends CBZip2OutputStream
     {
-        public SafeCBZip2OutputStream(OutputStream output) throws IOException
+        public SafeCBZip2OutputStream(OutputStream output, ExecutorService executor, int threads) throws IOException
         {
-            super(output);
+            super(output, 9, executor, threads);
         }
 
         public void close() throws IOException
@@ -10,64 +10,146 @@
 import org.spongycastle.bcpg.SymmetricKeyAlgorithmTags;
 import org.spongycastle.openpgp.operator.PGPDigestCalculator;
 import org.spongycastle.util.Arrays;
+import org.spongycastle.util.io.Streams;
 
 public abstract class PGPEncryptedData
     implements SymmetricKeyAlgorithmTags
 {
+    /**
+     * Holds back the trailing modification detection code packet (22 bytes) from the decrypted
+     * data. If a digest stream is given, the data is passed through it a chunk at a time as it is
+     * decrypted, so decryption, digesting and handing the data on all work over the same buffer.
+     */
     protected class TruncatedStream extends InputStream
     {
-        int[]         lookAhead = new int[22];
-        int           bufPtr;
+        private static final int LOOK_AHEAD = 22;
+        private static final int CHUNK_SIZE = 8192;
+
+        byte[]        buf = new byte[LOOK_AHEAD + CHUNK_SIZE];
+        int           bufOff;
+        int           bufEnd;
         InputStream   in;
-        
+        OutputStream  digestOut;
+
         TruncatedStream(
-            InputStream    in) 
+            InputStream    in)
             throws IOException
         {
-            for (int i = 0; i != lookAhead.length; i++)
+            this(in, null);
+        }
+
+        TruncatedStream(
+            InputStream    in,
+            OutputStream   digestOut)
+            throws IOException
+        {
+            this.in = in;
+            this.digestOut = digestOut;
+
+            while (bufEnd < LOOK_AHEAD)
             {
-                if ((lookAhead[i] = in.read()) < 0)
+                int len = in.read(buf, bufEnd, buf.length - bufEnd);
+
+                if (len < 0)
                 {
                     throw new EOFException();
                 }
+
+                bufEnd += len;
             }
-            
-            bufPtr = 0;
-            this.in = in;
+
+            release(0);
         }
 
-        public int read() 
+        /**
+         * Read the next chunk of data in behind the held back bytes.
+         *
+         * @return false if the end of the stream has been reached.
+         */
+        private boolean fill()
             throws IOException
         {
-            int    ch = in.read();
-            
-            if (ch >= 0)
+            System.arraycopy(buf, bufOff, buf, 0, LOOK_AHEAD);
+
+            bufOff = 0;
+            bufEnd = LOOK_AHEAD;
+
+            while (bufEnd == LOOK_AHEAD)
             {
-                int    c = lookAhead[bufPtr];
-                
-                lookAhead[bufPtr] = ch;
-                bufPtr = (bufPtr + 1) % lookAhead.length;
-                
-                return c;
+                int len = in.read(buf, bufEnd, buf.length - bufEnd);
+
+                if (len < 0)
+                {
+                    return false;
+                }
+
+                bufEnd += len;
             }
-            
-            return -1;
+
+            release(0);
+
+            return true;
         }
-        
-        int[] getLookAhead()
+
+        private void release(int off)
+            throws IOException
         {
-            int[]    tmp = new int[lookAhead.length];
-            int    count = 0;
-            
-            for (int i = bufPtr; i != lookAhead.length; i++)
+            if (digestOut != null && bufEnd - LOOK_AHEAD > off)
             {
-                tmp[count++] = lookAhead[i];
+                digestOut.write(buf, off, bufEnd - LOOK_AHEAD - off);
             }
-            for (int i = 0; i != bufPtr; i++)
+        }
+
+        public int read()
+            throws IOException
+        {
+            if (bufOff == bufEnd - LOOK_AHEAD && !fill())
+            {
+                return -1;
+            }
+
+            return buf[bufOff++] & 0xff;
+        }
+
+        public int read(
+            byte[] b,
+            int    off,
+            int    len)
+            throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+
+            if (bufOff == bufEnd - LOOK_AHEAD && !fill())
+            {
+                return -1;
+            }
+
+            int count = Math.min(len, bufEnd - LOOK_AHEAD - bufOff);
+
+            System.arraycopy(buf, bufOff, b, off, count);
+            bufOff += count;
+
+            return count;
+        }
+
+        public int available()
+            throws IOException
+        {
+            return bufEnd - LOOK_AHEAD - bufOff;
+        }
+
+        int[] getLookAhead()
+        {
+            int[]    tmp = new int[LOOK_AHEAD];
+
+            for (int i = 0; i != tmp.length; i++)
             {
-                tmp[count++] = lookAhead[i];
+                tmp[i] = buf[bufEnd - LOOK_AHEAD + i] & 0xff;
             }
-            
+
             return tmp;
         }
     }
@@ -119,10 +201,7 @@ public boolean verify()
         //
         // make sure we are at the end.
         //
-        while (encStream.read() >= 0)
-        {
-            // do nothing
-        }
+        Streams.drain(encStream);
 
         //
         // process the MDC packet
@@ -35,6 +35,12 @@ public PGPLiteralData(
     {
         data  = (LiteralDataPacket)pIn.readPacket();
     }
+
+    PGPLiteralData(
+        LiteralDataPacket    data)
+    {
+        this.data = data;
+    }
     
     /**
      * Return the format of the data stream - BINARY or TEXT.
@@ -13,7 +13,6 @@
 import org.spongycastle.openpgp.operator.PGPDataDecryptor;
 import org.spongycastle.openpgp.operator.jcajce.JcaPGPDigestCalculatorProviderBuilder;
 import org.spongycastle.openpgp.operator.jcajce.JcePBEDataDecryptorFactoryBuilder;
-import org.spongycastle.util.io.TeeInputStream;
 
 /**
  * A password based encryption object.
@@ -122,11 +121,11 @@ public InputStream getDataStream(
 
             if (withIntegrityPacket)
             {
-                truncStream = new TruncatedStream(encStream);
-
                 integrityCalculator = dataDecryptor.getIntegrityCalculator();
 
-                encStream = new TeeInputStream(truncStream, integrityCalculator.getOutputStream());
+                truncStream = new TruncatedStream(encStream, integrityCalculator.getOutputStream());
+
+                encStream = truncStream;
             }
 
             byte[] iv = new byte[dataDecryptor.getBlockSize()];
@@ -0,0 +1,204 @@
+package org.spongycastle.openpgp;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.spongycastle.bcpg.BCPGInputStream;
+import org.spongycastle.bcpg.CompressedDataPacket;
+import org.spongycastle.bcpg.InputStreamPacket;
+import org.spongycastle.bcpg.LiteralDataPacket;
+import org.spongycastle.bcpg.OnePassSignaturePacket;
+import org.spongycastle.bcpg.Packet;
+import org.spongycastle.bcpg.PublicKeyPacket;
+import org.spongycastle.bcpg.SecretKeyPacket;
+import org.spongycastle.bcpg.SignaturePacket;
+import org.spongycastle.bcpg.UserIDPacket;
+import org.spongycastle.openpgp.operator.KeyFingerPrintCalculator;
+import org.spongycastle.openpgp.operator.jcajce.JcaKeyFingerprintCalculator;
+import org.spongycastle.util.io.Streams;
+
+/**
+ * Pull parser for a PGP object stream.
+ * <p>
+ * Where PGPObjectFactory gathers consecutive signatures into a PGPSignatureList and key
+ * packets into whole key rings, this class stops at every packet. next() returns the packet
+ * tag of the next packet (one of the values in PacketTags) and the get methods give access
+ * to the packet just read, so key ring exports and signature bundles of any size can be
+ * scanned in constant memory.
+ * <p>
+ * Literal, compressed and encrypted data packets are returned at the start of their body,
+ * with the body left in the stream - calling next() skips over whatever has not been read.
+ */
+public class PGPPacketParser
+{
+    /**
+     * Returned by next() once the end of the stream has been reached.
+     */
+    public static final int END_OF_STREAM = -1;
+
+    private BCPGInputStream in;
+    private KeyFingerPrintCalculator fingerPrintCalculator;
+
+    private int    tag = END_OF_STREAM;
+    private Packet packet;
+
+    public PGPPacketParser(
+        InputStream in)
+    {
+        this(in, new JcaKeyFingerprintCalculator());
+    }
+
+    /**
+     * Create a parser for the passed in stream.
+     *
+     * @param in stream to read from
+     * @param fingerPrintCalculator  calculator to use in key finger print calculations.
+     */
+    public PGPPacketParser(
+        InputStream              in,
+        KeyFingerPrintCalculator fingerPrintCalculator)
+    {
+        this.in = new BCPGInputStream(in);
+        this.fingerPrintCalculator = fingerPrintCalculator;
+    }
+
+    public PGPPacketParser(
+        byte[] bytes)
+    {
+        this(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Move on to the next packet in the stream, skipping the rest of the body of the
+     * current packet if it has one.
+     *
+     * @return the packet tag of the next packet, END_OF_STREAM if there are no more.
+     * @throws IOException on a parse error
+     */
+    public int next()
+        throws IOException
+    {
+        if (packet instanceof InputStreamPacket)
+        {
+            Streams.drain(((InputStreamPacket)packet).getInputStream());
+        }
+
+        packet = null;
+        tag = in.nextPacketTag();
+
+        if (tag < 0)
+        {
+            tag = END_OF_STREAM;
+
+            return tag;
+        }
+
+        packet = in.readPacket();
+
+        return tag;
+    }
+
+    /**
+     * Return the packet tag of the current packet.
+     *
+     * @return a packet tag, END_OF_STREAM if the stream is exhausted.
+     */
+    public int getTag()
+    {
+        return tag;
+    }
+
+    /**
+     * Return the current packet in its raw form.
+     *
+     * @return the current packet, null if there is none.
+     */
+    public Packet getPacket()
+    {
+        return packet;
+    }
+
+    /**
+     * Return the public key carried by the current packet, which must be a public
+     * or secret key or subkey. The key has no user IDs or signatures attached - they
+     * follow as separate packets.
+     *
+     * @return the public key.
+     * @throws PGPException if the key cannot be processed.
+     */
+    public PGPPublicKey getPublicKey()
+        throws PGPException
+    {
+        if (packet instanceof SecretKeyPacket)
+        {
+            return new PGPPublicKey(((SecretKeyPacket)packet).getPublicKeyPacket(), fingerPrintCalculator);
+        }
+
+        return new PGPPublicKey((PublicKeyPacket)checkPacket(PublicKeyPacket.class, "key"), fingerPrintCalculator);
+    }
+
+    /**
+     * Return the user ID held in the current USER_ID packet.
+     *
+     * @return the user ID.
+     */
+    public String getUserID()
+    {
+        return ((UserIDPacket)checkPacket(UserIDPacket.class, "user ID")).getID();
+    }
+
+    /**
+     * Return the signature held in the current SIGNATURE packet.
+     *
+     * @return the signature.
+     * @throws PGPException if the signature cannot be processed.
+     */
+    public PGPSignature getSignature()
+        throws PGPException
+    {
+        return new PGPSignature((SignaturePacket)checkPacket(SignaturePacket.class, "signature"));
+    }
+
+    /**
+     * Return the one pass signature held in the current ONE_PASS_SIGNATURE packet.
+     *
+     * @return the one pass signature.
+     * @throws PGPException if the one pass signature cannot be processed.
+     */
+    public PGPOnePassSignature getOnePassSignature()
+        throws PGPException
+    {
+        return new PGPOnePassSignature((OnePassSignaturePacket)checkPacket(OnePassSignaturePacket.class, "one pass signature"));
+    }
+
+    /**
+     * Return the current LITERAL_DATA packet, positioned at the start of the literal data.
+     *
+     * @return the literal data.
+     */
+    public PGPLiteralData getLiteralData()
+    {
+        return new PGPLiteralData((LiteralDataPacket)checkPacket(LiteralDataPacket.class, "literal data"));
+    }
+
+    /**
+     * Return the current COMPRESSED_DATA packet, positioned at the start of the compressed data.
+     *
+     * @return the compressed data.
+     */
+    public PGPCompressedData getCompressedData()
+    {
+        return new PGPCompressedData((CompressedDataPacket)checkPacket(CompressedDataPacket.class, "compressed data"));
+    }
+
+    private Packet checkPacket(Class packetClass, String name)
+    {
+        if (!packetClass.isInstance(packet))
+        {
+            throw new IllegalStateException("current packet is not a " + name + " packet");
+        }
+
+        return packet;
+    }
+}
@@ -13,7 +13,6 @@
 import org.spongycastle.openpgp.operator.PGPDataDecryptor;
 import org.spongycastle.openpgp.operator.PublicKeyDataDecryptorFactory;
 import org.spongycastle.openpgp.operator.jcajce.JcePublicKeyDataDecryptorFactoryBuilder;
-import org.spongycastle.util.io.TeeInputStream;
 
 /**
  * A public key encrypted data object.
@@ -197,11 +196,11 @@ public InputStream getDataStream(
 
                 if (withIntegrityPacket)
                 {
-                    truncStream = new TruncatedStream(encStream);
-
                     integrityCalculator = dataDecryptor.getIntegrityCalculator();
 
-                    encStream = new TeeInputStream(truncStream, integrityCalculator.getOutputStream());
+                    truncStream = new TruncatedStream(encStream, integrityCalculator.getOutputStream());
+
+                    encStream = truncStream;
                 }
 
                 byte[] iv = new byte[dataDecryptor.getBlockSize()];
@@ -442,7 +442,7 @@ public Iterator getUserAttributes()
         return pub.getUserAttributes();
     }
 
-    private byte[] extractKeyData(
+    byte[] extractKeyData(
         PBESecretKeyDecryptor decryptorFactory)
         throws PGPException
     {
@@ -787,7 +787,19 @@ public static PGPSecretKey copyWithNewPassword(
             throw new PGPException("no private key in this SecretKey - public key present only.");
         }
 
-        byte[]     rawKeyData = key.extractKeyData(oldKeyDecryptor);
+        return copyWithNewPassword(key, key.extractKeyData(oldKeyDecryptor), newKeyEncryptor);
+    }
+
+    /**
+     * Return a copy of the passed in secret key, with its already decrypted key data
+     * encrypted using the passed in encryptor.
+     */
+    static PGPSecretKey copyWithNewPassword(
+        PGPSecretKey           key,
+        byte[]                 rawKeyData,
+        PBESecretKeyEncryptor  newKeyEncryptor)
+        throws PGPException
+    {
         int        s2kUsage = key.secret.getS2KUsage();
         byte[]      iv = null;
         S2K         s2k = null;
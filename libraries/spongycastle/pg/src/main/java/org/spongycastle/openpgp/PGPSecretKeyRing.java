@@ -12,17 +12,22 @@
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.spongycastle.bcpg.BCPGInputStream;
 import org.spongycastle.bcpg.PacketTags;
 import org.spongycastle.bcpg.PublicSubkeyPacket;
 import org.spongycastle.bcpg.SecretKeyPacket;
 import org.spongycastle.bcpg.SecretSubkeyPacket;
+import org.spongycastle.bcpg.SymmetricKeyAlgorithmTags;
 import org.spongycastle.bcpg.TrustPacket;
+import org.spongycastle.openpgp.operator.CachingPBESecretKeyDecryptor;
 import org.spongycastle.openpgp.operator.KeyFingerPrintCalculator;
 import org.spongycastle.openpgp.operator.PBESecretKeyDecryptor;
 import org.spongycastle.openpgp.operator.PBESecretKeyEncryptor;
 import org.spongycastle.openpgp.operator.jcajce.JcaKeyFingerprintCalculator;
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.Parallel;
 
 /**
  * Class to hold a single master secret key and its subkeys.
@@ -376,23 +381,170 @@ public static PGPSecretKeyRing copyWithNewPassword(
     {
         List newKeys = new ArrayList(ring.keys.size());
 
-        for (Iterator keys = ring.getSecretKeys(); keys.hasNext();)
+        if (newKeyEncryptor != null)
         {
-            PGPSecretKey key = (PGPSecretKey)keys.next();
+            newKeyEncryptor.cacheKey();
+        }
 
-            if (key.isPrivateKeyEmpty())
+        try
+        {
+            for (Iterator keys = ring.getSecretKeys(); keys.hasNext();)
             {
-                newKeys.add(key);
+                PGPSecretKey key = (PGPSecretKey)keys.next();
+
+                if (key.isPrivateKeyEmpty())
+                {
+                    newKeys.add(key);
+                }
+                else
+                {
+                    newKeys.add(PGPSecretKey.copyWithNewPassword(key, oldKeyDecryptor, newKeyEncryptor));
+                }
             }
-            else
+        }
+        finally
+        {
+            if (newKeyEncryptor != null)
             {
-                newKeys.add(PGPSecretKey.copyWithNewPassword(key, oldKeyDecryptor, newKeyEncryptor));
+                newKeyEncryptor.clear();
             }
         }
 
         return new PGPSecretKeyRing(newKeys, ring.extraPubKeys);
     }
 
+    /**
+     * Return a copy of the passed in secret key ring, with the private keys (where present) associated with the master key and sub keys
+     * are encrypted using a new password and the passed in algorithm.
+     * <p>
+     * The private keys are decrypted in parallel on the calling thread and the passed in executor, keys sharing an S2K
+     * specifier only paying for its derivation once, and are then re-encrypted in ring order, so the result is identical
+     * to that of the sequential version given the same source of randomness in newKeyEncryptor. The decrypted key data
+     * is wiped once it has been re-encrypted.
+     * </p>
+     * @param ring the PGPSecretKeyRing to be copied.
+     * @param oldKeyDecryptor the current decryptor based on the current password for key.
+     * @param newKeyEncryptor a new encryptor based on a new password for encrypting the secret key material.
+     * @param executor the executor to decrypt the private keys on.
+     * @return the updated key ring.
+     */
+    public static PGPSecretKeyRing copyWithNewPassword(
+        PGPSecretKeyRing       ring,
+        PBESecretKeyDecryptor  oldKeyDecryptor,
+        PBESecretKeyEncryptor  newKeyEncryptor,
+        ExecutorService        executor)
+        throws PGPException
+    {
+        final PBESecretKeyDecryptor decryptor;
+
+        if (oldKeyDecryptor instanceof CachingPBESecretKeyDecryptor)
+        {
+            decryptor = oldKeyDecryptor;
+        }
+        else
+        {
+            decryptor = new CachingPBESecretKeyDecryptor(oldKeyDecryptor);
+        }
+
+        final PGPSecretKey[] keys = (PGPSecretKey[])ring.keys.toArray(new PGPSecretKey[ring.keys.size()]);
+        final byte[][]       rawKeyData = new byte[keys.length][];
+        final PGPException[] failure = new PGPException[1];
+
+        if (newKeyEncryptor != null)
+        {
+            newKeyEncryptor.cacheKey();
+        }
+
+        try
+        {
+            // returns once every started decryption is done, so nothing touches the decryptor
+            // after it is cleared below.
+            Parallel.forEach(keys.length, executor, keys.length, new Parallel.Body()
+            {
+                public void run(int index)
+                {
+                    if (keys[index].isPrivateKeyEmpty() || getFailure(failure) != null)
+                    {
+                        return;
+                    }
+
+                    try
+                    {
+                        rawKeyData[index] = keys[index].extractKeyData(decryptor);
+                    }
+                    catch (PGPException e)
+                    {
+                        setFailure(failure, e);
+                    }
+                }
+            });
+
+            if (failure[0] != null)
+            {
+                throw failure[0];
+            }
+
+            List newKeys = new ArrayList(keys.length);
+
+            for (int i = 0; i != keys.length; i++)
+            {
+                if (rawKeyData[i] == null)
+                {
+                    newKeys.add(keys[i]);
+                }
+                else
+                {
+                    newKeys.add(PGPSecretKey.copyWithNewPassword(keys[i], rawKeyData[i], newKeyEncryptor));
+                }
+            }
+
+            return new PGPSecretKeyRing(newKeys, ring.extraPubKeys);
+        }
+        finally
+        {
+            if (decryptor != oldKeyDecryptor)
+            {
+                ((CachingPBESecretKeyDecryptor)decryptor).clear();
+            }
+            if (newKeyEncryptor != null)
+            {
+                newKeyEncryptor.clear();
+            }
+
+            // the raw key data of an unencrypted key is the key's own, and without encryption
+            // the new key holds on to it, so only decrypted copies are wiped.
+            if (newKeyEncryptor != null && newKeyEncryptor.getAlgorithm() != SymmetricKeyAlgorithmTags.NULL)
+            {
+                for (int i = 0; i != rawKeyData.length; i++)
+                {
+                    if (rawKeyData[i] != null && keys[i].getKeyEncryptionAlgorithm() != SymmetricKeyAlgorithmTags.NULL)
+                    {
+                        Arrays.fill(rawKeyData[i], (byte)0);
+                    }
+                }
+            }
+        }
+    }
+
+    private static PGPException getFailure(PGPException[] failure)
+    {
+        synchronized (failure)
+        {
+            return failure[0];
+        }
+    }
+
+    private static void setFailure(PGPException[] failure, PGPException e)
+    {
+        synchronized (failure)
+        {
+            if (failure[0] == null)
+            {
+                failure[0] = e;
+            }
+        }
+    }
+
     /**
      * Returns a new key ring with the secret key passed in either added or
      * replacing an existing one with the same key ID.
@@ -80,6 +80,17 @@
         this.trustPck = trustPacket;
     }
 
+    /**
+     * Copy constructor - the copy shares the signature packet, but has its own verification state.
+     */
+    PGPSignature(
+        PGPSignature       signature)
+    {
+        this.sigPck = signature.sigPck;
+        this.signatureType = signature.signatureType;
+        this.trustPck = signature.trustPck;
+    }
+
     /**
      * Return the OpenPGP version number for this signature.
      * 
@@ -0,0 +1,221 @@
+package org.spongycastle.openpgp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.spongycastle.openpgp.operator.PGPContentVerifierBuilderProvider;
+import org.spongycastle.util.Parallel;
+
+/**
+ * Verifies a batch of signatures, certifications and key bindings at once, spreading the
+ * work over a pool of threads if one is given.
+ * <p>
+ * Each entry is added with the signature, the key that made it, and whatever the signature
+ * is over. The index returned by the add method is the bit to look at in the result of
+ * verify(). The signatures passed in are not initialised or otherwise changed - each entry
+ * is checked against its own copy of the signature, so the same signature may be added more
+ * than once, and may be in use elsewhere at the same time.
+ * </p>
+ * <p>
+ * An entry which cannot be checked at all, for example because the key algorithm is not
+ * supported or the key data is broken, is reported as not verifying.
+ * </p>
+ */
+public class PGPSignatureBatchVerifier
+{
+    private final PGPContentVerifierBuilderProvider verifierBuilderProvider;
+    private final ExecutorService executor;
+    private final int threads;
+
+    private final List entries = new ArrayList();
+
+    /**
+     * Create a verifier which checks all entries on the calling thread.
+     *
+     * @param verifierBuilderProvider provider of the content verifiers for the signatures.
+     */
+    public PGPSignatureBatchVerifier(PGPContentVerifierBuilderProvider verifierBuilderProvider)
+    {
+        this(verifierBuilderProvider, null, 1);
+    }
+
+    /**
+     * Create a verifier which shares the entries between the calling thread and up to
+     * threads - 1 tasks run on the passed in executor.
+     *
+     * @param verifierBuilderProvider provider of the content verifiers for the signatures.
+     * @param executor the executor to run the extra tasks on, null to use the calling thread only.
+     * @param threads the most threads, including the calling one, to check entries on at once.
+     */
+    public PGPSignatureBatchVerifier(PGPContentVerifierBuilderProvider verifierBuilderProvider, ExecutorService executor, int threads)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
+        this.verifierBuilderProvider = verifierBuilderProvider;
+        this.executor = executor;
+        this.threads = (executor == null) ? 1 : threads;
+    }
+
+    /**
+     * Add a certification of a user ID on a key.
+     *
+     * @return the index of the entry in the result of verify().
+     */
+    public int addCertification(PGPSignature signature, PGPPublicKey signer, String id, PGPPublicKey key)
+    {
+        return add(new Entry(signature, signer, Entry.USER_ID, id, key));
+    }
+
+    /**
+     * Add a certification of a user attribute packet on a key.
+     *
+     * @return the index of the entry in the result of verify().
+     */
+    public int addCertification(PGPSignature signature, PGPPublicKey signer, PGPUserAttributeSubpacketVector userAttributes, PGPPublicKey key)
+    {
+        return add(new Entry(signature, signer, Entry.USER_ATTRIBUTE, userAttributes, key));
+    }
+
+    /**
+     * Add a key binding - a subkey binding made by masterKey, or a primary key binding made
+     * by the subkey pubKey.
+     *
+     * @return the index of the entry in the result of verify().
+     */
+    public int addCertification(PGPSignature signature, PGPPublicKey signer, PGPPublicKey masterKey, PGPPublicKey pubKey)
+    {
+        return add(new Entry(signature, signer, Entry.KEY_BINDING, masterKey, pubKey));
+    }
+
+    /**
+     * Add a key certification, such as a revocation, on a single key.
+     *
+     * @return the index of the entry in the result of verify().
+     */
+    public int addCertification(PGPSignature signature, PGPPublicKey signer, PGPPublicKey pubKey)
+    {
+        return add(new Entry(signature, signer, Entry.KEY, null, pubKey));
+    }
+
+    /**
+     * Add a signature over a block of data.
+     *
+     * @return the index of the entry in the result of verify().
+     */
+    public int addSignature(PGPSignature signature, PGPPublicKey signer, byte[] data)
+    {
+        return add(new Entry(signature, signer, Entry.DATA, data, null));
+    }
+
+    /**
+     * Return the number of entries added so far.
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Check all the entries added so far.
+     *
+     * @return a bit set with the bit for each entry that verified set.
+     */
+    public BitSet verify()
+    {
+        final int      count = entries.size();
+        final boolean[] results = new boolean[count];
+
+        Parallel.forEach(count, executor, threads, new Parallel.Body()
+        {
+            public void run(int index)
+            {
+                results[index] = ((Entry)entries.get(index)).verify(verifierBuilderProvider);
+            }
+        });
+
+        BitSet verified = new BitSet(count);
+
+        for (int i = 0; i != count; i++)
+        {
+            if (results[i])
+            {
+                verified.set(i);
+            }
+        }
+
+        return verified;
+    }
+
+    /**
+     * Remove all the entries, so the verifier can be used for another batch.
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+
+    private int add(Entry entry)
+    {
+        entries.add(entry);
+
+        return entries.size() - 1;
+    }
+
+    private static class Entry
+    {
+        static final int USER_ID = 0;
+        static final int USER_ATTRIBUTE = 1;
+        static final int KEY_BINDING = 2;
+        static final int KEY = 3;
+        static final int DATA = 4;
+
+        private final PGPSignature signature;
+        private final PGPPublicKey signer;
+        private final int type;
+        private final Object subject;
+        private final PGPPublicKey key;
+
+        Entry(PGPSignature signature, PGPPublicKey signer, int type, Object subject, PGPPublicKey key)
+        {
+            this.signature = signature;
+            this.signer = signer;
+            this.type = type;
+            this.subject = subject;
+            this.key = key;
+        }
+
+        boolean verify(PGPContentVerifierBuilderProvider verifierBuilderProvider)
+        {
+            try
+            {
+                PGPSignature sig = new PGPSignature(signature);
+
+                sig.init(verifierBuilderProvider, signer);
+
+                switch (type)
+                {
+                case USER_ID:
+                    return sig.verifyCertification((String)subject, key);
+                case USER_ATTRIBUTE:
+                    return sig.verifyCertification((PGPUserAttributeSubpacketVector)subject, key);
+                case KEY_BINDING:
+                    return sig.verifyCertification((PGPPublicKey)subject, key);
+                case KEY:
+                    return sig.verifyCertification(key);
+                default:
+                    sig.update((byte[])subject);
+                    return sig.verify();
+                }
+            }
+            catch (Exception e)
+            {
+                return false;
+            }
+        }
+    }
+}
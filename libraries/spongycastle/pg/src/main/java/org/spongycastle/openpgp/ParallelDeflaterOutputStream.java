@@ -0,0 +1,361 @@
+package org.spongycastle.openpgp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+import org.spongycastle.util.Parallel;
+
+/**
+ * A deflating output stream which compresses fixed size chunks of its input on an executor,
+ * in the manner of pigz.
+ * <p>
+ * Each chunk is deflated on its own with the last 32k of the chunk before it as a preset
+ * dictionary, so matches across the boundary are still found, and ended with a sync flush
+ * so the chunks simply follow each other. The result is one raw deflate stream, or with the
+ * ZLIB header and Adler-32 trailer added one ZLIB stream. It is not byte for byte the stream
+ * a single Deflater would produce, but will be a little larger at most.
+ * </p>
+ * <p>
+ * The sync flush is only available from Java 7 and Android 4.4 on - check isSupported()
+ * before using this class.
+ * </p>
+ */
+class ParallelDeflaterOutputStream
+    extends OutputStream
+{
+    private static final int CHUNK_SIZE = 128 * 1024;
+    private static final int DICT_SIZE = 32 * 1024;
+
+    private static final boolean SYNC_FLUSH_SUPPORTED = hasSyncFlush();
+
+    private final OutputStream out;
+    private final int level;
+    private final ExecutorService executor;
+    private final int threads;
+    private final Adler32 adler;
+
+    private final LinkedList idleChunks = new LinkedList();
+    private final LinkedList pendingChunks = new LinkedList();
+    private int chunks;
+    private Chunk current;
+
+    private final byte[] dict = new byte[DICT_SIZE];
+    private int dictLength;
+
+    private boolean finished;
+    private boolean closed;
+
+    static boolean isSupported()
+    {
+        return SYNC_FLUSH_SUPPORTED;
+    }
+
+    /**
+     * @param out the stream to write the compressed data to.
+     * @param level the Deflater compression level.
+     * @param nowrap true for raw deflate (ZIP), false for a ZLIB stream.
+     * @param executor the executor to compress the chunks on.
+     * @param threads the most chunks to have in progress at once.
+     */
+    ParallelDeflaterOutputStream(OutputStream out, int level, boolean nowrap, ExecutorService executor, int threads)
+        throws IOException
+    {
+        this.out = out;
+        this.level = level;
+        this.executor = executor;
+        this.threads = threads;
+
+        if (nowrap)
+        {
+            this.adler = null;
+        }
+        else
+        {
+            this.adler = new Adler32();
+
+            // CM 8 with a 32k window, FLEVEL as zlib sets it, FCHECK to make it a multiple of 31
+            int cmf = 0x78;
+            int flg;
+            if (level == 0 || level == 1)
+            {
+                flg = 0 << 6;
+            }
+            else if (level >= 2 && level <= 5)
+            {
+                flg = 1 << 6;
+            }
+            else if (level == 6 || level == Deflater.DEFAULT_COMPRESSION)
+            {
+                flg = 2 << 6;
+            }
+            else
+            {
+                flg = 3 << 6;
+            }
+            flg += 31 - ((cmf << 8) + flg) % 31;
+
+            out.write(cmf);
+            out.write(flg);
+        }
+    }
+
+    public void write(int b)
+        throws IOException
+    {
+        write(new byte[]{ (byte)b }, 0, 1);
+    }
+
+    public void write(byte[] b, int off, int len)
+        throws IOException
+    {
+        if (finished)
+        {
+            throw new IOException("write after finish");
+        }
+
+        while (len > 0)
+        {
+            if (current == null)
+            {
+                nextChunk();
+            }
+
+            int n = Math.min(len, CHUNK_SIZE - current.length);
+
+            System.arraycopy(b, off, current.input, current.length, n);
+            current.length += n;
+            off += n;
+            len -= n;
+
+            if (current.length == CHUNK_SIZE)
+            {
+                submitChunk(false);
+            }
+        }
+    }
+
+    /**
+     * Compress and write out everything written so far, ending the deflate stream, without
+     * closing the underlying stream.
+     */
+    public void finish()
+        throws IOException
+    {
+        if (finished)
+        {
+            return;
+        }
+
+        if (current == null)
+        {
+            nextChunk();
+        }
+        submitChunk(true);
+
+        while (!pendingChunks.isEmpty())
+        {
+            writeChunk();
+        }
+
+        if (adler != null)
+        {
+            int check = (int)adler.getValue();
+
+            out.write(check >>> 24);
+            out.write(check >>> 16);
+            out.write(check >>> 8);
+            out.write(check);
+        }
+
+        finished = true;
+    }
+
+    public void flush()
+        throws IOException
+    {
+        out.flush();
+    }
+
+    /**
+     * Finish the deflate stream and free the deflaters - the underlying stream is left open.
+     */
+    public void close()
+        throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+
+        try
+        {
+            finish();
+        }
+        finally
+        {
+            closed = true;
+            while (!pendingChunks.isEmpty())
+            {
+                try
+                {
+                    idleChunks.add(Parallel.waitForIO((Future)pendingChunks.removeFirst()));
+                }
+                catch (Exception e)
+                {
+                    // already failed, the first exception is the one to report
+                }
+            }
+            if (current != null)
+            {
+                idleChunks.add(current);
+                current = null;
+            }
+            while (!idleChunks.isEmpty())
+            {
+                ((Chunk)idleChunks.removeFirst()).deflater.end();
+            }
+        }
+    }
+
+    private void nextChunk()
+        throws IOException
+    {
+        if (idleChunks.isEmpty())
+        {
+            if (chunks < threads)
+            {
+                idleChunks.add(new Chunk(level));
+                chunks++;
+            }
+            else
+            {
+                writeChunk();
+            }
+        }
+
+        current = (Chunk)idleChunks.removeFirst();
+        current.length = 0;
+    }
+
+    private void submitChunk(boolean last)
+    {
+        Chunk chunk = current;
+
+        current = null;
+
+        System.arraycopy(dict, 0, chunk.dict, 0, dictLength);
+        chunk.dictLength = dictLength;
+        chunk.last = last;
+
+        dictLength = Math.min(chunk.length, DICT_SIZE);
+        System.arraycopy(chunk.input, chunk.length - dictLength, dict, 0, dictLength);
+
+        if (adler != null)
+        {
+            adler.update(chunk.input, 0, chunk.length);
+        }
+
+        pendingChunks.addLast(executor.submit(chunk));
+    }
+
+    private void writeChunk()
+        throws IOException
+    {
+        Chunk chunk = (Chunk)Parallel.waitForIO((Future)pendingChunks.removeFirst());
+
+        out.write(chunk.output, 0, chunk.outputLength);
+
+        idleChunks.add(chunk);
+    }
+
+    private static boolean hasSyncFlush()
+    {
+        try
+        {
+            Deflater.class.getMethod("deflate", new Class[]{ byte[].class, int.class, int.class, int.class });
+
+            return true;
+        }
+        catch (Exception e)
+        {
+            return false;
+        }
+    }
+
+    private static class Chunk
+        implements Callable
+    {
+        final Deflater deflater;
+        final byte[] input = new byte[CHUNK_SIZE];
+        final byte[] dict = new byte[DICT_SIZE];
+        int length;
+        int dictLength;
+        boolean last;
+
+        byte[] output = new byte[CHUNK_SIZE + (CHUNK_SIZE >> 4) + 64];
+        int outputLength;
+
+        Chunk(int level)
+        {
+            deflater = new Deflater(level, true);
+        }
+
+        public Object call()
+        {
+            deflater.reset();
+            if (dictLength > 0)
+            {
+                deflater.setDictionary(dict, 0, dictLength);
+            }
+            deflater.setInput(input, 0, length);
+            outputLength = 0;
+
+            if (last)
+            {
+                deflater.finish();
+                while (!deflater.finished())
+                {
+                    deflate(Deflater.NO_FLUSH);
+                }
+            }
+            else
+            {
+                // a full output buffer means there may be more to come
+                int left;
+                do
+                {
+                    left = deflate(Deflater.SYNC_FLUSH);
+                }
+                while (left == 0);
+            }
+
+            return this;
+        }
+
+        /**
+         * Run the deflater into the rest of the output buffer, growing it first if it is full.
+         *
+         * @return the space left in the output buffer afterwards.
+         */
+        private int deflate(int flush)
+        {
+            if (outputLength == output.length)
+            {
+                byte[] tmp = new byte[output.length * 2];
+
+                System.arraycopy(output, 0, tmp, 0, outputLength);
+                output = tmp;
+            }
+
+            outputLength += deflater.deflate(output, outputLength, output.length - outputLength, flush);
+
+            return output.length - outputLength;
+        }
+    }
+}
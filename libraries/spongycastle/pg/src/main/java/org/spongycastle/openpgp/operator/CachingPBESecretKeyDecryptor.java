@@ -0,0 +1,156 @@
+package org.spongycastle.openpgp.operator;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.spongycastle.bcpg.S2K;
+import org.spongycastle.openpgp.PGPException;
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.encoders.Hex;
+
+/**
+ * A PBESecretKeyDecryptor which remembers the keys derived from its pass phrase, so that
+ * secret keys sharing an S2K specifier (salt, iteration count, hash algorithm) and key
+ * algorithm only pay for the S2K derivation once over the lifetime of the decryptor.
+ * <p>
+ * This is an opt in wrapper around another decryptor - use it when unlocking several keys
+ * from the same ring with one pass phrase, and call clear() once finished with it. Once
+ * cleared, the decryptor still works but derives every key afresh.
+ * </p>
+ */
+public class CachingPBESecretKeyDecryptor
+    extends PBESecretKeyDecryptor
+{
+    private final PBESecretKeyDecryptor decryptor;
+    private final Map keyCache = new HashMap();
+
+    private volatile boolean cleared;
+
+    /**
+     * Base constructor.
+     *
+     * @param decryptor the decryptor to derive keys and recover key data with.
+     */
+    public CachingPBESecretKeyDecryptor(PBESecretKeyDecryptor decryptor)
+    {
+        super(null, null);
+
+        this.decryptor = decryptor;
+    }
+
+    public PGPDigestCalculator getChecksumCalculator(int hashAlgorithm)
+        throws PGPException
+    {
+        return decryptor.getChecksumCalculator(hashAlgorithm);
+    }
+
+    public byte[] makeKeyFromPassPhrase(int keyAlgorithm, S2K s2k)
+        throws PGPException
+    {
+        String    cacheKey = getCacheKey(keyAlgorithm, s2k);
+        CachedKey cachedKey = null;
+
+        synchronized (keyCache)
+        {
+            if (!cleared)
+            {
+                cachedKey = (CachedKey)keyCache.get(cacheKey);
+
+                if (cachedKey == null)
+                {
+                    cachedKey = new CachedKey();
+
+                    keyCache.put(cacheKey, cachedKey);
+                }
+            }
+        }
+
+        if (cachedKey == null)
+        {
+            return decryptor.makeKeyFromPassPhrase(keyAlgorithm, s2k);
+        }
+
+        // derivations for different S2Ks can run at the same time, a second caller
+        // for the same S2K waits for the first to finish.
+        synchronized (cachedKey)
+        {
+            if (cachedKey.key == null)
+            {
+                byte[] key = decryptor.makeKeyFromPassPhrase(keyAlgorithm, s2k);
+
+                // cleared while waiting for the entry, don't leave a key in it
+                if (cleared)
+                {
+                    return key;
+                }
+
+                cachedKey.key = key;
+            }
+
+            return Arrays.clone(cachedKey.key);
+        }
+    }
+
+    public byte[] recoverKeyData(int encAlgorithm, byte[] key, byte[] iv, byte[] keyData, int keyOff, int keyLen)
+        throws PGPException
+    {
+        return decryptor.recoverKeyData(encAlgorithm, key, iv, keyData, keyOff, keyLen);
+    }
+
+    /**
+     * Wipe and forget any keys derived so far, and stop caching new ones.
+     */
+    public void clear()
+    {
+        synchronized (keyCache)
+        {
+            cleared = true;
+
+            for (Iterator it = keyCache.values().iterator(); it.hasNext();)
+            {
+                CachedKey cachedKey = (CachedKey)it.next();
+
+                synchronized (cachedKey)
+                {
+                    if (cachedKey.key != null)
+                    {
+                        Arrays.fill(cachedKey.key, (byte)0);
+                        cachedKey.key = null;
+                    }
+                }
+            }
+
+            keyCache.clear();
+        }
+    }
+
+    private static String getCacheKey(int keyAlgorithm, S2K s2k)
+    {
+        if (s2k == null)
+        {
+            return Integer.toString(keyAlgorithm);
+        }
+
+        StringBuffer sb = new StringBuffer();
+
+        sb.append(keyAlgorithm).append(':').append(s2k.getType()).append(':').append(s2k.getHashAlgorithm());
+
+        if (s2k.getType() == S2K.SALTED || s2k.getType() == S2K.SALTED_AND_ITERATED)
+        {
+            sb.append(':').append(Hex.toHexString(s2k.getIV()));
+        }
+
+        if (s2k.getType() == S2K.SALTED_AND_ITERATED)
+        {
+            sb.append(':').append(s2k.getIterationCount());
+        }
+
+        return sb.toString();
+    }
+
+    private static class CachedKey
+    {
+        byte[] key;
+    }
+}
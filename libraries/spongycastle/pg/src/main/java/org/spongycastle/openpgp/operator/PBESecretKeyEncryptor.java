@@ -4,6 +4,7 @@
 
 import org.spongycastle.bcpg.S2K;
 import org.spongycastle.openpgp.PGPException;
+import org.spongycastle.util.Arrays;
 
 public abstract class PBESecretKeyEncryptor
 {
@@ -15,6 +16,10 @@
 
     protected SecureRandom random;
 
+    private boolean cacheKey;
+    private S2K keyS2K;
+    private byte[] key;
+
     protected PBESecretKeyEncryptor(int encAlgorithm, PGPDigestCalculator s2kDigestCalculator, SecureRandom random, char[] passPhrase)
     {
         this(encAlgorithm, s2kDigestCalculator, 0x60, random, passPhrase);
@@ -50,10 +55,57 @@ public int getHashAlgorithm()
         return -1;
     }
 
-    public byte[] getKey()
+    /**
+     * Return the key derived from the pass phrase using the current S2K. If key caching has been
+     * turned on using cacheKey() the derivation is only done once per S2K, until clear() is called.
+     *
+     * @return the key to encrypt the secret key material with.
+     * @throws PGPException on error in the S2K derivation.
+     */
+    public synchronized byte[] getKey()
         throws PGPException
     {
-        return PGPUtil.makeKeyFromPassPhrase(s2kDigestCalculator, encAlgorithm, s2k, passPhrase);
+        if (!cacheKey)
+        {
+            return PGPUtil.makeKeyFromPassPhrase(s2kDigestCalculator, encAlgorithm, s2k, passPhrase);
+        }
+
+        if (key == null || keyS2K != s2k)
+        {
+            clearKey();
+            key = PGPUtil.makeKeyFromPassPhrase(s2kDigestCalculator, encAlgorithm, s2k, passPhrase);
+            keyS2K = s2k;
+        }
+
+        return Arrays.clone(key);
+    }
+
+    /**
+     * Keep the key derived from the pass phrase between calls to getKey(), for encrypting several
+     * secret keys in a row. Callers should call clear() in a finally block once they are done.
+     */
+    public synchronized void cacheKey()
+    {
+        cacheKey = true;
+    }
+
+    /**
+     * Wipe any key cached since cacheKey() was called and stop caching.
+     */
+    public synchronized void clear()
+    {
+        cacheKey = false;
+        clearKey();
+    }
+
+    private void clearKey()
+    {
+        if (key != null)
+        {
+            Arrays.fill(key, (byte)0);
+            key = null;
+            keyS2K = null;
+        }
     }
 
     public S2K getS2K()
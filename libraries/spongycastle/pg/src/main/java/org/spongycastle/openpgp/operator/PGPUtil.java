@@ -7,6 +7,7 @@
 import org.spongycastle.bcpg.S2K;
 import org.spongycastle.bcpg.SymmetricKeyAlgorithmTags;
 import org.spongycastle.openpgp.PGPException;
+import org.spongycastle.util.Arrays;
 import org.spongycastle.util.Strings;
 
 /**
@@ -15,12 +16,25 @@
 class PGPUtil
     implements HashAlgorithmTags
 {
+    private static final int ITERATION_BLOCK_SIZE = 16 * 1024;
+
     static byte[] makeKeyFromPassPhrase(
         PGPDigestCalculator digestCalculator,
         int     algorithm,
         S2K     s2k,
         char[]  passPhrase)
         throws PGPException
+    {
+        return makeKeyFromPassPhrase(digestCalculator, null, algorithm, s2k, passPhrase);
+    }
+
+    private static byte[] makeKeyFromPassPhrase(
+        PGPDigestCalculator         digestCalculator,
+        PGPDigestCalculatorProvider digCalcProvider,
+        int     algorithm,
+        S2K     s2k,
+        char[]  passPhrase)
+        throws PGPException
     {
         String    algName = null;
         int        keySize = 0;
@@ -92,61 +106,56 @@ static byte[] makeKeyFromPassPhrase(
             }
         }
 
-        OutputStream dOut = digestCalculator.getOutputStream();
-
         try
         {
             while (generatedBytes < keyBytes.length)
             {
-                if (s2k != null)
+                //
+                // if we can get more calculators we run all the passes still required
+                // over a single walk of the S2K input, each pass preloaded with its own
+                // number of zero bytes.
+                //
+                int passes = 1;
+
+                if (digCalcProvider != null)
+                {
+                    int digestLength = getDigestLength(digestCalculator.getAlgorithm());
+
+                    if (digestLength > 0)
+                    {
+                        passes = (keyBytes.length - generatedBytes + digestLength - 1) / digestLength;
+                    }
+                }
+
+                PGPDigestCalculator[] calculators = new PGPDigestCalculator[passes];
+                OutputStream[]        dOuts = new OutputStream[passes];
+
+                for (int i = 0; i != passes; i++)
                 {
-                    for (int i = 0; i != loopCount; i++)
+                    calculators[i] = (i == 0) ? digestCalculator : digCalcProvider.get(digestCalculator.getAlgorithm());
+                    dOuts[i] = calculators[i].getOutputStream();
+
+                    if (loopCount + i != 0)
                     {
-                        dOut.write(0);
+                        dOuts[i].write(new byte[loopCount + i]);
                     }
+                }
 
+                if (s2k != null)
+                {
                     byte[]    iv = s2k.getIV();
 
                     switch (s2k.getType())
                     {
                     case S2K.SIMPLE:
-                        dOut.write(pBytes);
+                        write(dOuts, pBytes, 0, pBytes.length);
                         break;
                     case S2K.SALTED:
-                        dOut.write(iv);
-                        dOut.write(pBytes);
+                        write(dOuts, iv, 0, iv.length);
+                        write(dOuts, pBytes, 0, pBytes.length);
                         break;
                     case S2K.SALTED_AND_ITERATED:
-                        long    count = s2k.getIterationCount();
-                        dOut.write(iv);
-                        dOut.write(pBytes);
-
-                        count -= iv.length + pBytes.length;
-
-                        while (count > 0)
-                        {
-                            if (count < iv.length)
-                            {
-                                dOut.write(iv, 0, (int)count);
-                                break;
-                            }
-                            else
-                            {
-                                dOut.write(iv);
-                                count -= iv.length;
-                            }
-
-                            if (count < pBytes.length)
-                            {
-                                dOut.write(pBytes, 0, (int)count);
-                                count = 0;
-                            }
-                            else
-                            {
-                                dOut.write(pBytes);
-                                count -= pBytes.length;
-                            }
-                        }
+                        writeIterated(dOuts, iv, pBytes, s2k.getIterationCount());
                         break;
                     default:
                         throw new PGPException("unknown S2K type: " + s2k.getType());
@@ -154,30 +163,28 @@ static byte[] makeKeyFromPassPhrase(
                 }
                 else
                 {
-                    for (int i = 0; i != loopCount; i++)
-                    {
-                        dOut.write((byte)0);
-                    }
-
-                    dOut.write(pBytes);
+                    write(dOuts, pBytes, 0, pBytes.length);
                 }
 
-                dOut.close();
+                for (int i = 0; i != passes && generatedBytes < keyBytes.length; i++)
+                {
+                    dOuts[i].close();
 
-                byte[]    dig = digestCalculator.getDigest();
+                    byte[]    dig = calculators[i].getDigest();
 
-                if (dig.length > (keyBytes.length - generatedBytes))
-                {
-                    System.arraycopy(dig, 0, keyBytes, generatedBytes, keyBytes.length - generatedBytes);
-                }
-                else
-                {
-                    System.arraycopy(dig, 0, keyBytes, generatedBytes, dig.length);
-                }
+                    if (dig.length > (keyBytes.length - generatedBytes))
+                    {
+                        System.arraycopy(dig, 0, keyBytes, generatedBytes, keyBytes.length - generatedBytes);
+                    }
+                    else
+                    {
+                        System.arraycopy(dig, 0, keyBytes, generatedBytes, dig.length);
+                    }
 
-                generatedBytes += dig.length;
+                    generatedBytes += dig.length;
+                }
 
-                loopCount++;
+                loopCount += passes;
             }
         }
         catch (IOException e)
@@ -193,6 +200,99 @@ static byte[] makeKeyFromPassPhrase(
         return keyBytes;
     }
 
+    /**
+     * Feed the salted and iterated S2K input - salt||passphrase repeated until count bytes,
+     * but at least one full salt||passphrase, have been written - to the passed in streams.
+     * <p>
+     * Rather than writing the salt and passphrase separately count / (salt + passphrase)
+     * times, a block holding as many whole copies of salt||passphrase as fit in ITERATION_BLOCK_SIZE
+     * bytes is built once and written in one call per stream, with the final partial block taken
+     * from the front of it.
+     */
+    private static void writeIterated(
+        OutputStream[] dOuts,
+        byte[]         iv,
+        byte[]         pBytes,
+        long           count)
+        throws IOException
+    {
+        int  unitLength = iv.length + pBytes.length;
+
+        if (count < unitLength)
+        {
+            count = unitLength;
+        }
+
+        int     units = Math.max(1, ITERATION_BLOCK_SIZE / unitLength);
+        int     blockLength = (int)Math.min(count, (long)units * unitLength);
+        byte[]  block = new byte[blockLength];
+
+        for (int off = 0; off < blockLength; off += unitLength)
+        {
+            System.arraycopy(iv, 0, block, off, Math.min(iv.length, blockLength - off));
+            if (off + iv.length < blockLength)
+            {
+                System.arraycopy(pBytes, 0, block, off + iv.length, Math.min(pBytes.length, blockLength - off - iv.length));
+            }
+        }
+
+        while (count >= blockLength)
+        {
+            write(dOuts, block, 0, blockLength);
+            count -= blockLength;
+        }
+
+        if (count > 0)
+        {
+            write(dOuts, block, 0, (int)count);
+        }
+
+        Arrays.fill(block, (byte)0);
+    }
+
+    private static void write(
+        OutputStream[] dOuts,
+        byte[]         buf,
+        int            off,
+        int            len)
+        throws IOException
+    {
+        for (int i = 0; i != dOuts.length; i++)
+        {
+            dOuts[i].write(buf, off, len);
+        }
+    }
+
+    /**
+     * Return the output length of the given hash algorithm, -1 if we do not know it.
+     */
+    private static int getDigestLength(
+        int hashAlgorithm)
+    {
+        switch (hashAlgorithm)
+        {
+        case MD2:
+        case MD5:
+            return 16;
+        case SHA1:
+        case RIPEMD160:
+        case HAVAL_5_160:
+            return 20;
+        case TIGER_192:
+            return 24;
+        case SHA224:
+            return 28;
+        case SHA256:
+            return 32;
+        case SHA384:
+            return 48;
+        case SHA512:
+            return 64;
+        default:
+            return -1;
+        }
+    }
+
     public static byte[] makeKeyFromPassPhrase(
         PGPDigestCalculatorProvider digCalcProvider,
         int     algorithm,
@@ -211,6 +311,6 @@ public static byte[] makeKeyFromPassPhrase(
             digestCalculator = digCalcProvider.get(HashAlgorithmTags.MD5);
         }
 
-        return makeKeyFromPassPhrase(digestCalculator, algorithm, s2k, passPhrase);
+        return makeKeyFromPassPhrase(digestCalculator, digCalcProvider, algorithm, s2k, passPhrase);
     }
 }
@@ -1,5 +1,7 @@
 package org.spongycastle.openpgp.operator.bc;
 
+import java.util.concurrent.ExecutorService;
+
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.BufferedBlockCipher;
 import org.spongycastle.openpgp.PGPException;
@@ -12,6 +14,9 @@
 public class BcPBEDataDecryptorFactory
     extends PBEDataDecryptorFactory
 {
+    private ExecutorService executor;
+    private int parallelism;
+
     /**
      * Base constructor.
      *
@@ -23,6 +28,22 @@ public BcPBEDataDecryptorFactory(char[] pass, BcPGPDigestCalculatorProvider calc
         super(pass, calculatorProvider);
     }
 
+    /**
+     * Decrypt integrity protected data using up to parallelism threads from the passed in executor.
+     * Data without an integrity packet is always decrypted on the calling thread.
+     *
+     * @param executor the executor to use.
+     * @param parallelism the maximum number of threads to decrypt with at once.
+     * @return the current factory.
+     */
+    public BcPBEDataDecryptorFactory setExecutor(ExecutorService executor, int parallelism)
+    {
+        this.executor = executor;
+        this.parallelism = parallelism;
+
+        return this;
+    }
+
     public byte[] recoverSessionData(int keyAlgorithm, byte[] key, byte[] secKeyData)
         throws PGPException
     {
@@ -60,6 +81,11 @@ public byte[] recoverSessionData(int keyAlgorithm, byte[] key, byte[] secKeyData
     public PGPDataDecryptor createDataDecryptor(boolean withIntegrityPacket, int encAlgorithm, byte[] key)
         throws PGPException
     {
+        if (withIntegrityPacket && executor != null)
+        {
+            return BcUtil.createParallelDataDecryptor(encAlgorithm, key, executor, parallelism);
+        }
+
         BlockCipher engine = BcImplProvider.createBlockCipher(encAlgorithm);
 
         return BcUtil.createDataDecryptor(withIntegrityPacket, engine, key);
@@ -1,5 +1,7 @@
 package org.spongycastle.openpgp.operator.bc;
 
+import java.util.concurrent.ExecutorService;
+
 import org.spongycastle.crypto.AsymmetricBlockCipher;
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.BufferedAsymmetricBlockCipher;
@@ -20,12 +22,30 @@
 {
     private BcPGPKeyConverter keyConverter = new BcPGPKeyConverter();
     private PGPPrivateKey privKey;
+    private ExecutorService executor;
+    private int parallelism;
 
     public BcPublicKeyDataDecryptorFactory(PGPPrivateKey privKey)
     {
         this.privKey = privKey;
     }
 
+    /**
+     * Decrypt integrity protected data using up to parallelism threads from the passed in executor.
+     * Data without an integrity packet is always decrypted on the calling thread.
+     *
+     * @param executor the executor to use.
+     * @param parallelism the maximum number of threads to decrypt with at once.
+     * @return the current factory.
+     */
+    public BcPublicKeyDataDecryptorFactory setExecutor(ExecutorService executor, int parallelism)
+    {
+        this.executor = executor;
+        this.parallelism = parallelism;
+
+        return this;
+    }
+
     public byte[] recoverSessionData(int keyAlgorithm, byte[][] secKeyData)
         throws PGPException
     {
@@ -93,6 +113,11 @@ public byte[] recoverSessionData(int keyAlgorithm, byte[][] secKeyData)
     public PGPDataDecryptor createDataDecryptor(boolean withIntegrityPacket, int encAlgorithm, byte[] key)
         throws PGPException
     {
+        if (withIntegrityPacket && executor != null)
+        {
+            return BcUtil.createParallelDataDecryptor(encAlgorithm, key, executor, parallelism);
+        }
+
         BlockCipher engine = BcImplProvider.createBlockCipher(encAlgorithm);
 
         return BcUtil.createDataDecryptor(withIntegrityPacket, engine, key);
@@ -1,14 +1,19 @@
 package org.spongycastle.openpgp.operator.bc;
 
 import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
 
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.engines.AESFastEngine;
 import org.spongycastle.crypto.io.CipherInputStream;
+import org.spongycastle.crypto.io.ParallelCFBInputStream;
+import org.spongycastle.crypto.modes.AESCFBBlockCipher;
 import org.spongycastle.crypto.modes.CFBBlockCipher;
 import org.spongycastle.crypto.modes.OpenPGPCFBBlockCipher;
 import org.spongycastle.crypto.params.KeyParameter;
 import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.openpgp.PGPException;
 import org.spongycastle.openpgp.operator.PGPDataDecryptor;
 import org.spongycastle.openpgp.operator.PGPDigestCalculator;
 
@@ -18,7 +23,13 @@ static BufferedBlockCipher createStreamCipher(boolean forEncryption, BlockCipher
     {
         BufferedBlockCipher c;
 
-        if (withIntegrityPacket)
+        // the word oriented AES/CFB mode is built on AESFastEngine - any other engine,
+        // such as the constant table AESEngine, keeps the generic CFB mode.
+        if (withIntegrityPacket && engine instanceof AESFastEngine)
+        {
+            c = new BufferedBlockCipher(new AESCFBBlockCipher((AESFastEngine)engine));
+        }
+        else if (withIntegrityPacket)
         {
             c = new BufferedBlockCipher(new CFBBlockCipher(engine, engine.getBlockSize() * 8));
         }
@@ -64,6 +75,42 @@ public PGPDigestCalculator getIntegrityCalculator()
         };
     }
 
+    /**
+     * Create a decryptor for integrity protected data which decrypts using up to parallelism
+     * copies of the cipher at once, with the work spread over the passed in executor.
+     */
+    public static PGPDataDecryptor createParallelDataDecryptor(int encAlgorithm, byte[] key, final ExecutorService executor, int parallelism)
+        throws PGPException
+    {
+        final BlockCipher[] engines = new BlockCipher[Math.max(1, parallelism)];
+
+        for (int i = 0; i != engines.length; i++)
+        {
+            engines[i] = BcImplProvider.createBlockCipher(encAlgorithm);
+        }
+
+        final int blockSize = engines[0].getBlockSize();
+        final ParametersWithIV params = new ParametersWithIV(new KeyParameter(key), new byte[blockSize]);
+
+        return new PGPDataDecryptor()
+        {
+            public InputStream getInputStream(InputStream in)
+            {
+                return new ParallelCFBInputStream(in, engines, params, executor);
+            }
+
+            public int getBlockSize()
+            {
+                return blockSize;
+            }
+
+            public PGPDigestCalculator getIntegrityCalculator()
+            {
+                return new SHA1PGPDigestCalculator();
+            }
+        };
+    }
+
     public static BufferedBlockCipher createSymmetricKeyWrapper(boolean forEncryption, BlockCipher engine, byte[] key, byte[] iv)
     {
         BufferedBlockCipher c = new BufferedBlockCipher(new CFBBlockCipher(engine, engine.getBlockSize() * 8));
@@ -7,12 +7,12 @@
 import java.security.SecureRandom;
 
 import javax.crypto.Cipher;
-import javax.crypto.CipherOutputStream;
 import javax.crypto.spec.IvParameterSpec;
 
 import org.spongycastle.jcajce.DefaultJcaJceHelper;
 import org.spongycastle.jcajce.NamedJcaJceHelper;
 import org.spongycastle.jcajce.ProviderJcaJceHelper;
+import org.spongycastle.jcajce.io.CipherOutputStream;
 import org.spongycastle.openpgp.PGPException;
 import org.spongycastle.openpgp.operator.PGPDataEncryptor;
 import org.spongycastle.openpgp.operator.PGPDataEncryptorBuilder;
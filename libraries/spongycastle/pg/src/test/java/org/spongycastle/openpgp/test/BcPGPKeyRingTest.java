@@ -8,6 +8,8 @@
 import java.security.Security;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.spongycastle.jce.provider.BouncyCastleProvider;
 import org.spongycastle.jce.spec.ElGamalParameterSpec;
@@ -27,6 +29,7 @@
 import org.spongycastle.openpgp.PGPSignatureList;
 import org.spongycastle.openpgp.operator.bc.BcKeyFingerprintCalculator;
 import org.spongycastle.openpgp.operator.bc.BcPBESecretKeyDecryptorBuilder;
+import org.spongycastle.openpgp.operator.bc.BcPBESecretKeyEncryptorBuilder;
 import org.spongycastle.openpgp.operator.bc.BcPGPContentVerifierBuilderProvider;
 import org.spongycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
 import org.spongycastle.util.encoders.Base64;
@@ -2161,6 +2164,77 @@ private void rewrapTest()
         }
     }
 
+    private void parallelRewrapTest()
+        throws Exception
+    {
+        PGPSecretKeyRing pgpPriv = new PGPSecretKeyRing(rewrapKey, new BcKeyFingerprintCalculator());
+        char[]           newPass = "fred".toCharArray();
+        byte[]           seed = Hex.decode("000102030405060708090a0b0c0d0e0f");
+
+        SecureRandom seqRand = SecureRandom.getInstance("SHA1PRNG");
+        seqRand.setSeed(seed);
+
+        PGPSecretKeyRing seqRing = PGPSecretKeyRing.copyWithNewPassword(pgpPriv,
+            new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(rewrapPass),
+            new BcPBESecretKeyEncryptorBuilder(PGPEncryptedData.AES_256).setSecureRandom(seqRand).build(newPass));
+
+        SecureRandom parRand = SecureRandom.getInstance("SHA1PRNG");
+        parRand.setSeed(seed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        PGPSecretKeyRing parRing;
+        PGPSecretKeyRing plainRing;
+        try
+        {
+            parRing = PGPSecretKeyRing.copyWithNewPassword(pgpPriv,
+                new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(rewrapPass),
+                new BcPBESecretKeyEncryptorBuilder(PGPEncryptedData.AES_256).setSecureRandom(parRand).build(newPass),
+                executor);
+
+            // the unencrypted copy keeps the decrypted key data, it must not be wiped
+            plainRing = PGPSecretKeyRing.copyWithNewPassword(seqRing,
+                new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(newPass),
+                null,
+                executor);
+
+            try
+            {
+                PGPSecretKeyRing.copyWithNewPassword(seqRing,
+                    new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(rewrapPass),
+                    new BcPBESecretKeyEncryptorBuilder(PGPEncryptedData.AES_256).build(newPass),
+                    executor);
+
+                fail("parallel re-encryption with the wrong pass phrase did not fail");
+            }
+            catch (PGPException e)
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        if (!areEqual(pgpPriv.getEncoded(), plainRing.getEncoded()))
+        {
+            fail("parallel decryption does not restore the original key");
+        }
+
+        if (!areEqual(seqRing.getEncoded(), parRing.getEncoded()))
+        {
+            fail("parallel re-encryption does not match sequential");
+        }
+
+        for (Iterator it = parRing.getSecretKeys(); it.hasNext();)
+        {
+            PGPSecretKey pgpKey = (PGPSecretKey)it.next();
+
+            pgpKey.extractPrivateKey(new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(newPass));
+        }
+    }
+
     private void testPublicKeyRingWithX509()
         throws Exception
     {
@@ -2314,6 +2388,7 @@ public void performTest()
             generateTest();
             generateSha1Test();
             rewrapTest();
+            parallelRewrapTest();
             testPublicKeyRingWithX509();
             testSecretKeyRingWithPersonalCertificate();
             insertMasterTest();
@@ -6,6 +6,8 @@
 import java.security.SecureRandom;
 import java.security.Security;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.spongycastle.jce.provider.BouncyCastleProvider;
 import org.spongycastle.openpgp.PGPCompressedData;
@@ -23,6 +25,7 @@
 import org.spongycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
 import org.spongycastle.util.encoders.Base64;
 import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.io.Streams;
 import org.spongycastle.util.test.SimpleTest;
 import org.spongycastle.util.test.UncloseableOutputStream;
 
@@ -383,6 +386,91 @@ public void performTest()
         {
             fail("wrong plain text in buffer generated packet");
         }
+
+        parallelDecryptTest(rand);
+    }
+
+    private void parallelDecryptTest(SecureRandom rand)
+        throws Exception
+    {
+        byte[] msg = new byte[300000];
+
+        rand.nextBytes(msg);
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        PGPLiteralDataGenerator lData = new PGPLiteralDataGenerator();
+        OutputStream ldOut = lData.open(new UncloseableOutputStream(bOut), PGPLiteralData.BINARY, PGPLiteralData.CONSOLE, msg.length, TEST_DATE);
+
+        ldOut.write(msg);
+        ldOut.close();
+
+        ByteArrayOutputStream cbOut = new ByteArrayOutputStream();
+        PGPEncryptedDataGenerator cPk = new PGPEncryptedDataGenerator(new BcPGPDataEncryptorBuilder(PGPEncryptedData.AES_256).setWithIntegrityPacket(true).setSecureRandom(rand));
+
+        cPk.addMethod(new BcPBEKeyEncryptionMethodGenerator(pass));
+
+        OutputStream cOut = cPk.open(new UncloseableOutputStream(cbOut), new byte[1 << 12]);
+
+        cOut.write(bOut.toByteArray());
+        cOut.close();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            PGPObjectFactory pgpF = new PGPObjectFactory(cbOut.toByteArray());
+            PGPEncryptedDataList enc = (PGPEncryptedDataList)pgpF.nextObject();
+            PGPPBEEncryptedData pbe = (PGPPBEEncryptedData)enc.get(0);
+
+            InputStream clear = pbe.getDataStream(new BcPBEDataDecryptorFactory(pass, new BcPGPDigestCalculatorProvider()).setExecutor(executor, 4));
+
+            PGPLiteralData ld = (PGPLiteralData)new PGPObjectFactory(clear).nextObject();
+
+            bOut = new ByteArrayOutputStream();
+            Streams.pipeAll(ld.getInputStream(), bOut);
+
+            if (!areEqual(bOut.toByteArray(), msg))
+            {
+                fail("wrong plain text from parallel decryption");
+            }
+
+            if (!pbe.verify())
+            {
+                fail("integrity check failed on parallel decryption");
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        //
+        // a damaged MDC must be picked up by the chunked integrity check
+        //
+        byte[] tampered = cbOut.toByteArray();
+
+        tampered[tampered.length - 1] ^= 1;
+
+        PGPObjectFactory pgpF = new PGPObjectFactory(tampered);
+        PGPEncryptedDataList enc = (PGPEncryptedDataList)pgpF.nextObject();
+        PGPPBEEncryptedData pbe = (PGPPBEEncryptedData)enc.get(0);
+
+        InputStream clear = pbe.getDataStream(new BcPBEDataDecryptorFactory(pass, new BcPGPDigestCalculatorProvider()));
+
+        PGPLiteralData ld = (PGPLiteralData)new PGPObjectFactory(clear).nextObject();
+
+        bOut = new ByteArrayOutputStream();
+        Streams.pipeAll(ld.getInputStream(), bOut);
+
+        if (!areEqual(bOut.toByteArray(), msg))
+        {
+            fail("wrong plain text from tampered message");
+        }
+
+        if (pbe.verify())
+        {
+            fail("integrity check passed on tampered message");
+        }
     }
 
     public String getName()
@@ -13,6 +13,9 @@
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.Security;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 
 public class PGPCompressionTest 
     extends SimpleTest
@@ -25,6 +28,11 @@ public void performTest()
         testCompression(PGPCompressedData.ZLIB);
         testCompression(PGPCompressedData.BZIP2);
 
+        testParallelBZip2();
+        testBZip2Reads();
+        testParallelDeflate(PGPCompressedData.ZIP);
+        testParallelDeflate(PGPCompressedData.ZLIB);
+
         //
         // new style - using stream close
         //
@@ -128,6 +136,204 @@ private void testCompression(
         }
     }
 
+    private void testParallelBZip2()
+        throws IOException, PGPException
+    {
+        // a little over 2 blocks, with runs and repeats mixed into the noise
+        byte[] data = new byte[2000000];
+        int    seed = 1;
+
+        for (int i = 0; i != data.length; i++)
+        {
+            seed = seed * 1103515245 + 12345;
+            if ((i / 50000) % 4 == 1)
+            {
+                data[i] = (byte)(i / 1000);
+            }
+            else if ((i / 50000) % 4 == 2)
+            {
+                data[i] = data[i - 5000];
+            }
+            else
+            {
+                data[i] = (byte)(seed >>> 24);
+            }
+        }
+
+        byte[] expected = compress(data, null, 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            for (int threads = 1; threads <= 3; threads++)
+            {
+                byte[] compressed = compress(data, executor, threads);
+
+                if (!areEqual(expected, compressed))
+                {
+                    fail("parallel BZIP2 output differs with " + threads + " threads");
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        PGPObjectFactory pgpFact = new PGPObjectFactory(expected);
+        PGPCompressedData c1 = (PGPCompressedData)pgpFact.nextObject();
+        InputStream pIn = c1.getDataStream();
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int len;
+
+        while ((len = pIn.read(buf, 0, buf.length)) >= 0)
+        {
+            bOut.write(buf, 0, len);
+        }
+
+        if (!areEqual(bOut.toByteArray(), data))
+        {
+            fail("parallel BZIP2 data failed to decompress");
+        }
+    }
+
+    private void testBZip2Reads()
+        throws IOException, PGPException
+    {
+        // short period repeats make the compressor randomise the block
+        byte[] data = new byte[300000];
+
+        for (int i = 0; i != data.length; i++)
+        {
+            data[i] = (byte)("hello world!".charAt(i % 3));
+        }
+
+        byte[] compressed = compress(data, null, 1);
+
+        PGPCompressedData c1 = (PGPCompressedData)new PGPObjectFactory(compressed).nextObject();
+        InputStream pIn = c1.getDataStream();
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        int ch;
+
+        while ((ch = pIn.read()) >= 0)
+        {
+            bOut.write(ch);
+        }
+
+        if (!areEqual(bOut.toByteArray(), data))
+        {
+            fail("BZIP2 single byte reads failed");
+        }
+
+        c1 = (PGPCompressedData)new PGPObjectFactory(compressed).nextObject();
+        pIn = c1.getDataStream();
+        bOut.reset();
+
+        byte[] buf = new byte[1000];
+        int len;
+
+        for (int i = 1; (len = pIn.read(buf, 0, (i * 37) % buf.length + 1)) >= 0; i++)
+        {
+            bOut.write(buf, 0, len);
+        }
+
+        if (!areEqual(bOut.toByteArray(), data))
+        {
+            fail("BZIP2 array reads failed");
+        }
+    }
+
+    private void testParallelDeflate(int algorithm)
+        throws IOException, PGPException
+    {
+        // a block of noise repeated every 20000 bytes - without the dictionaries each chunk
+        // would have to start again with literals
+        byte[] data = new byte[700000];
+        int    seed = 7;
+
+        for (int i = 0; i != data.length; i++)
+        {
+            seed = seed * 1103515245 + 12345;
+            data[i] = (i < 20000) ? (byte)(seed >>> 24) : data[i - 20000];
+        }
+
+        int[] sizes = { 0, 1, 128 * 1024, 128 * 1024 + 1, data.length };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            for (int i = 0; i != sizes.length; i++)
+            {
+                byte[] input = new byte[sizes[i]];
+
+                System.arraycopy(data, 0, input, 0, input.length);
+
+                byte[] sequential = compress(algorithm, input, null, 1);
+
+                for (int threads = 1; threads <= 3; threads++)
+                {
+                    byte[] parallel = compress(algorithm, input, executor, threads);
+
+                    if (!areEqual(decompress(parallel), input))
+                    {
+                        fail("parallel deflate failed for " + input.length + " bytes with " + threads + " threads");
+                    }
+                    if (parallel.length > sequential.length + sequential.length / 10 + 32)
+                    {
+                        fail("parallel deflate too large: " + parallel.length + " against " + sequential.length);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private byte[] decompress(byte[] compressed)
+        throws IOException, PGPException
+    {
+        PGPCompressedData c1 = (PGPCompressedData)new PGPObjectFactory(compressed).nextObject();
+        InputStream pIn = c1.getDataStream();
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int len;
+
+        while ((len = pIn.read(buf, 0, buf.length)) >= 0)
+        {
+            bOut.write(buf, 0, len);
+        }
+
+        return bOut.toByteArray();
+    }
+
+    private byte[] compress(byte[] data, ExecutorService executor, int threads)
+        throws IOException
+    {
+        return compress(PGPCompressedData.BZIP2, data, executor, threads);
+    }
+
+    private byte[] compress(int algorithm, byte[] data, ExecutorService executor, int threads)
+        throws IOException
+    {
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        PGPCompressedDataGenerator cPacket = new PGPCompressedDataGenerator(
+                algorithm, Deflater.DEFAULT_COMPRESSION, executor, threads);
+
+        OutputStream out = cPacket.open(new UncloseableOutputStream(bOut));
+
+        out.write(data);
+
+        out.close();
+
+        return bOut.toByteArray();
+    }
+
     public String getName()
     {
         return "PGPCompressionTest";
@@ -1,9 +1,11 @@
 package org.spongycastle.openpgp.test;
 
+import org.spongycastle.bcpg.BCPGInputStream;
 import org.spongycastle.jce.provider.BouncyCastleProvider;
 import org.spongycastle.openpgp.PGPLiteralData;
 import org.spongycastle.openpgp.PGPLiteralDataGenerator;
 import org.spongycastle.openpgp.PGPObjectFactory;
+import org.spongycastle.util.Arrays;
 import org.spongycastle.util.test.SimpleTest;
 import org.spongycastle.util.test.UncloseableOutputStream;
 
@@ -11,6 +13,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.Security;
 import java.util.Date;
 import java.util.Random;
@@ -76,6 +79,81 @@ private void bufferTest(
         }
     }
     
+    private void partialBulkReadTest()
+        throws IOException
+    {
+        Random                  rand = new Random();
+        byte[]                  buf = new byte[MAX];
+
+        rand.nextBytes(buf);
+
+        int[] readSizes = { 1, 7, 512, 513, 4096, MAX };
+
+        for (int i = 0; i != readSizes.length; i++)
+        {
+            partialBulkReadTest(buf, 512, readSizes[i], false);
+            partialBulkReadTest(buf, 512, readSizes[i], true);
+            partialBulkReadTest(buf, 1 << 16, readSizes[i], false);
+        }
+    }
+
+    private void partialBulkReadTest(
+        byte[]  buf,
+        int     chunkSize,
+        int     readSize,
+        boolean direct)
+        throws IOException
+    {
+        PGPLiteralDataGenerator generator = new PGPLiteralDataGenerator();
+        ByteArrayOutputStream   bOut = new ByteArrayOutputStream();
+        OutputStream            out = generator.open(
+            new UncloseableOutputStream(bOut),
+            PGPLiteralData.BINARY,
+            PGPLiteralData.CONSOLE,
+            new Date(),
+            new byte[chunkSize]);
+
+        out.write(buf);
+
+        generator.close();
+
+        PGPObjectFactory        fact = new PGPObjectFactory(bOut.toByteArray());
+        PGPLiteralData          data = (PGPLiteralData)fact.nextObject();
+        BCPGInputStream         in = (BCPGInputStream)data.getInputStream();
+        byte[]                  result = new byte[buf.length];
+        int                     off = 0;
+
+        if (direct)
+        {
+            ByteBuffer bBuf = ByteBuffer.allocateDirect(readSize);
+            int        len;
+
+            while ((len = in.read(bBuf)) >= 0)
+            {
+                bBuf.flip();
+                bBuf.get(result, off, len);
+                bBuf.clear();
+                off += len;
+            }
+        }
+        else
+        {
+            byte[] readBuf = new byte[readSize];
+            int    len;
+
+            while ((len = in.read(readBuf, 0, readBuf.length)) >= 0)
+            {
+                System.arraycopy(readBuf, 0, result, off, len);
+                off += len;
+            }
+        }
+
+        if (off != buf.length || !Arrays.areEqual(buf, result))
+        {
+            fail("failed partial bulk read test - chunk = " + chunkSize + " read = " + readSize + " direct = " + direct);
+        }
+    }
+
     public void performTest()
         throws IOException
     {
@@ -86,6 +164,8 @@ public void performTest()
         PGPLiteralDataGenerator newGenerator = new PGPLiteralDataGenerator(false);
         
         readBackTest(newGenerator);
+
+        partialBulkReadTest();
     }
 
     public String getName()
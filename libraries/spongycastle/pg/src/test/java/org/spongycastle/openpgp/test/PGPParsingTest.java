@@ -1,11 +1,23 @@
 package org.spongycastle.openpgp.test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.security.Security;
+import java.util.Date;
+import java.util.Iterator;
 
+import org.spongycastle.bcpg.PacketTags;
 import org.spongycastle.jce.provider.BouncyCastleProvider;
+import org.spongycastle.openpgp.PGPLiteralData;
+import org.spongycastle.openpgp.PGPLiteralDataGenerator;
+import org.spongycastle.openpgp.PGPPacketParser;
+import org.spongycastle.openpgp.PGPPublicKey;
+import org.spongycastle.openpgp.PGPPublicKeyRing;
 import org.spongycastle.openpgp.PGPPublicKeyRingCollection;
 import org.spongycastle.openpgp.PGPUtil;
+import org.spongycastle.util.io.Streams;
 import org.spongycastle.util.test.SimpleTest;
+import org.spongycastle.util.test.UncloseableOutputStream;
 
 public class PGPParsingTest
     extends SimpleTest
@@ -14,6 +26,130 @@ public void performTest()
         throws Exception
     {
         PGPPublicKeyRingCollection pubRingCollection = new PGPPublicKeyRingCollection(PGPUtil.getDecoderStream(this.getClass().getResourceAsStream("bigpub.asc")));
+
+        packetParserTest(pubRingCollection);
+        packetParserSkipTest();
+    }
+
+    private void packetParserTest(PGPPublicKeyRingCollection pubRingCollection)
+        throws Exception
+    {
+        int keyCount = 0;
+        int userIDCount = 0;
+        int sigCount = 0;
+
+        for (Iterator rIt = pubRingCollection.getKeyRings(); rIt.hasNext();)
+        {
+            PGPPublicKeyRing pubRing = (PGPPublicKeyRing)rIt.next();
+
+            for (Iterator kIt = pubRing.getPublicKeys(); kIt.hasNext();)
+            {
+                PGPPublicKey pubKey = (PGPPublicKey)kIt.next();
+
+                keyCount++;
+                for (Iterator it = pubKey.getUserIDs(); it.hasNext(); it.next())
+                {
+                    userIDCount++;
+                }
+                for (Iterator it = pubKey.getSignatures(); it.hasNext(); it.next())
+                {
+                    sigCount++;
+                }
+            }
+        }
+
+        PGPPacketParser parser = new PGPPacketParser(PGPUtil.getDecoderStream(this.getClass().getResourceAsStream("bigpub.asc")));
+        int             tag;
+        long            lastKeyID = 0;
+
+        while ((tag = parser.next()) != PGPPacketParser.END_OF_STREAM)
+        {
+            switch (tag)
+            {
+            case PacketTags.PUBLIC_KEY:
+            case PacketTags.PUBLIC_SUBKEY:
+                lastKeyID = parser.getPublicKey().getKeyID();
+                if (pubRingCollection.getPublicKey(lastKeyID) == null)
+                {
+                    fail("parsed key not found in collection");
+                }
+                keyCount--;
+                break;
+            case PacketTags.USER_ID:
+                if (!contains(pubRingCollection.getPublicKey(lastKeyID).getUserIDs(), parser.getUserID()))
+                {
+                    fail("parsed user ID not found on key");
+                }
+                userIDCount--;
+                break;
+            case PacketTags.SIGNATURE:
+                parser.getSignature();
+                sigCount--;
+                break;
+            default:
+                // trust and user attribute packets are of no interest here.
+            }
+        }
+
+        if (keyCount != 0 || userIDCount != 0 || sigCount != 0)
+        {
+            fail("packet parser counts do not match key ring collection: " + keyCount + " " + userIDCount + " " + sigCount);
+        }
+    }
+
+    private void packetParserSkipTest()
+        throws Exception
+    {
+        PGPLiteralDataGenerator lGen = new PGPLiteralDataGenerator();
+        ByteArrayOutputStream   bOut = new ByteArrayOutputStream();
+        byte[]                  data = new byte[10000];
+
+        for (int i = 0; i != 2; i++)
+        {
+            OutputStream lOut = lGen.open(new UncloseableOutputStream(bOut), PGPLiteralData.BINARY, "test" + i, new Date(), new byte[512]);
+
+            data[0] = (byte)i;
+            lOut.write(data);
+            lGen.close();
+        }
+
+        PGPPacketParser parser = new PGPPacketParser(bOut.toByteArray());
+
+        // skip the first body completely.
+        if (parser.next() != PacketTags.LITERAL_DATA || !"test0".equals(parser.getLiteralData().getFileName()))
+        {
+            fail("first literal data packet not found");
+        }
+
+        if (parser.next() != PacketTags.LITERAL_DATA || !"test1".equals(parser.getLiteralData().getFileName()))
+        {
+            fail("second literal data packet not found");
+        }
+
+        byte[] body = Streams.readAll(parser.getLiteralData().getInputStream());
+
+        if (body.length != data.length || body[0] != 1)
+        {
+            fail("second literal data body corrupted");
+        }
+
+        if (parser.next() != PGPPacketParser.END_OF_STREAM)
+        {
+            fail("end of stream not found");
+        }
+    }
+
+    private static boolean contains(Iterator it, String id)
+    {
+        while (it.hasNext())
+        {
+            if (id.equals(it.next()))
+            {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     public String getName()
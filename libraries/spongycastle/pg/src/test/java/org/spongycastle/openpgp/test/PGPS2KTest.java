@@ -0,0 +1,321 @@
+package org.spongycastle.openpgp.test;
+
+import java.security.SecureRandom;
+import java.security.Security;
+
+import org.spongycastle.bcpg.HashAlgorithmTags;
+import org.spongycastle.bcpg.S2K;
+import org.spongycastle.bcpg.SymmetricKeyAlgorithmTags;
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.digests.MD5Digest;
+import org.spongycastle.crypto.digests.SHA1Digest;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.digests.SHA512Digest;
+import org.spongycastle.jce.provider.BouncyCastleProvider;
+import org.spongycastle.openpgp.PGPException;
+import org.spongycastle.openpgp.operator.CachingPBESecretKeyDecryptor;
+import org.spongycastle.openpgp.operator.PBESecretKeyDecryptor;
+import org.spongycastle.openpgp.operator.PBESecretKeyEncryptor;
+import org.spongycastle.openpgp.operator.bc.BcPBESecretKeyDecryptorBuilder;
+import org.spongycastle.openpgp.operator.bc.BcPBESecretKeyEncryptorBuilder;
+import org.spongycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
+import org.spongycastle.openpgp.operator.jcajce.JcaPGPDigestCalculatorProviderBuilder;
+import org.spongycastle.openpgp.operator.jcajce.JcePBESecretKeyDecryptorBuilder;
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.Strings;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * Checks the S2K key derivation against a straightforward implementation of RFC 4880 3.7.1.
+ */
+public class PGPS2KTest
+    extends SimpleTest
+{
+    private static final int[] hashAlgorithms = {
+        HashAlgorithmTags.MD5, HashAlgorithmTags.SHA1, HashAlgorithmTags.SHA256, HashAlgorithmTags.SHA512 };
+
+    private static final int[] keyAlgorithms = {
+        SymmetricKeyAlgorithmTags.CAST5, SymmetricKeyAlgorithmTags.TRIPLE_DES,
+        SymmetricKeyAlgorithmTags.AES_128, SymmetricKeyAlgorithmTags.AES_256, SymmetricKeyAlgorithmTags.TWOFISH };
+
+    private static final int[] keySizes = { 16, 24, 16, 32, 32 };
+
+    // encoded counts: 0 -> 1024 bytes, 0x60 -> 65536 bytes, 0xff -> 65011712 bytes
+    private static final int[] itCounts = { 0, 0x60, 0xff };
+
+    private static final char[][] passPhrases = {
+        "".toCharArray(), "hello world".toCharArray(), "a rather long pass phrase, longer than the salt and not a divisor of the block size".toCharArray() };
+
+    public String getName()
+    {
+        return "PGPS2KTest";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        SecureRandom random = new SecureRandom();
+        byte[]       salt = new byte[8];
+
+        random.nextBytes(salt);
+
+        for (int h = 0; h != hashAlgorithms.length; h++)
+        {
+            for (int k = 0; k != keyAlgorithms.length; k++)
+            {
+                for (int p = 0; p != passPhrases.length; p++)
+                {
+                    checkS2K(new S2K(hashAlgorithms[h]), keyAlgorithms[k], keySizes[k], passPhrases[p]);
+                    checkS2K(new S2K(hashAlgorithms[h], salt), keyAlgorithms[k], keySizes[k], passPhrases[p]);
+
+                    for (int c = 0; c != itCounts.length; c++)
+                    {
+                        // the full 65 MB count is slow in the reference, so only do it once per hash.
+                        if (itCounts[c] == 0xff && (k != 3 || p != 1))
+                        {
+                            continue;
+                        }
+
+                        checkS2K(new S2K(hashAlgorithms[h], salt, itCounts[c]), keyAlgorithms[k], keySizes[k], passPhrases[p]);
+                    }
+                }
+            }
+        }
+
+        // iteration count shorter than salt||passphrase
+        checkS2K(new S2K(HashAlgorithmTags.SHA1, salt, 0), SymmetricKeyAlgorithmTags.AES_256, 32, new char[2000]);
+
+        encryptorTest(random);
+
+        cachingDecryptorTest(salt);
+
+        // known answers generated before the bulk S2K rewrite
+        knownAnswerTest(new S2K(HashAlgorithmTags.SHA1, Hex.decode("0102030405060708"), 0x60),
+            SymmetricKeyAlgorithmTags.AES_256, "3251cc71bbba6d556b738cd47f5070e3634833e818a6d2bafab4a582d1deba88");
+        knownAnswerTest(new S2K(HashAlgorithmTags.SHA256, Hex.decode("0102030405060708"), 0xff),
+            SymmetricKeyAlgorithmTags.TWOFISH, "aec1ea2b4998d1eb68d638784b6e12401cb8bbe0ceebda969dd566fcddd48a64");
+    }
+
+    private void knownAnswerTest(S2K s2k, int keyAlgorithm, String expected)
+        throws Exception
+    {
+        byte[] key = new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider())
+            .build("hello world".toCharArray()).makeKeyFromPassPhrase(keyAlgorithm, s2k);
+
+        if (!Arrays.areEqual(Hex.decode(expected), key))
+        {
+            fail("known answer test failed", expected, Hex.toHexString(key));
+        }
+    }
+
+    private void checkS2K(S2K s2k, int keyAlgorithm, int keySize, char[] passPhrase)
+        throws Exception
+    {
+        byte[] expected = referenceKey(s2k, keySize, passPhrase);
+
+        PBESecretKeyDecryptor bcDecryptor = new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(passPhrase);
+
+        if (!Arrays.areEqual(expected, bcDecryptor.makeKeyFromPassPhrase(keyAlgorithm, s2k)))
+        {
+            fail("bc S2K mismatch: type " + s2k.getType() + " hash " + s2k.getHashAlgorithm() + " alg " + keyAlgorithm);
+        }
+
+        PBESecretKeyDecryptor jceDecryptor = new JcePBESecretKeyDecryptorBuilder(
+            new JcaPGPDigestCalculatorProviderBuilder().setProvider("SC").build()).setProvider("SC").build(passPhrase);
+
+        if (!Arrays.areEqual(expected, jceDecryptor.makeKeyFromPassPhrase(keyAlgorithm, s2k)))
+        {
+            fail("jce S2K mismatch: type " + s2k.getType() + " hash " + s2k.getHashAlgorithm() + " alg " + keyAlgorithm);
+        }
+    }
+
+    private void encryptorTest(SecureRandom random)
+        throws Exception
+    {
+        char[] passPhrase = "hello world".toCharArray();
+
+        for (int h = 0; h != hashAlgorithms.length; h++)
+        {
+            PBESecretKeyEncryptor encryptor = new BcPBESecretKeyEncryptorBuilder(SymmetricKeyAlgorithmTags.AES_256,
+                new BcPGPDigestCalculatorProvider().get(hashAlgorithms[h]), 0x60).setSecureRandom(random).build(passPhrase);
+
+            encryptor.encryptKeyData(new byte[16], 0, 16);   // sets up the S2K
+
+            byte[] expected = referenceKey(encryptor.getS2K(), 32, passPhrase);
+
+            if (!Arrays.areEqual(expected, encryptor.getKey()))
+            {
+                fail("encryptor S2K mismatch: hash " + hashAlgorithms[h]);
+            }
+
+            encryptor.cacheKey();
+
+            byte[] cached = encryptor.getKey();
+
+            Arrays.fill(cached, (byte)0);   // the cache must hand out copies
+
+            if (!Arrays.areEqual(expected, encryptor.getKey()))
+            {
+                fail("cached encryptor key mismatch: hash " + hashAlgorithms[h]);
+            }
+
+            encryptor.clear();
+
+            if (!Arrays.areEqual(expected, encryptor.getKey()))
+            {
+                fail("cleared encryptor key mismatch: hash " + hashAlgorithms[h]);
+            }
+        }
+    }
+
+    private void cachingDecryptorTest(byte[] salt)
+        throws Exception
+    {
+        final int[]           derivations = new int[1];
+        char[]                passPhrase = "hello world".toCharArray();
+        PBESecretKeyDecryptor decryptor = new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider()).build(passPhrase);
+        CachingPBESecretKeyDecryptor cachingDecryptor = new CachingPBESecretKeyDecryptor(new PBESecretKeyDecryptor(passPhrase, new BcPGPDigestCalculatorProvider())
+        {
+            public byte[] makeKeyFromPassPhrase(int keyAlgorithm, S2K s2k)
+                throws PGPException
+            {
+                derivations[0]++;
+
+                return super.makeKeyFromPassPhrase(keyAlgorithm, s2k);
+            }
+
+            public byte[] recoverKeyData(int encAlgorithm, byte[] key, byte[] iv, byte[] keyData, int keyOff, int keyLen)
+                throws PGPException
+            {
+                throw new IllegalStateException("not used");
+            }
+        });
+
+        byte[] otherSalt = Arrays.clone(salt);
+
+        otherSalt[0] ^= 1;
+
+        S2K[] s2ks = {
+            new S2K(HashAlgorithmTags.SHA1, salt, 0x60),
+            new S2K(HashAlgorithmTags.SHA1, Arrays.clone(salt), 0x60),
+            new S2K(HashAlgorithmTags.SHA1, salt, 0x61),
+            new S2K(HashAlgorithmTags.SHA1, otherSalt, 0x60),
+            new S2K(HashAlgorithmTags.SHA256, salt, 0x60),
+            new S2K(HashAlgorithmTags.SHA1, salt) };
+
+        for (int round = 0; round != 2; round++)
+        {
+            for (int i = 0; i != s2ks.length; i++)
+            {
+                byte[] expected = decryptor.makeKeyFromPassPhrase(SymmetricKeyAlgorithmTags.AES_256, s2ks[i]);
+
+                if (!Arrays.areEqual(expected, cachingDecryptor.makeKeyFromPassPhrase(SymmetricKeyAlgorithmTags.AES_256, s2ks[i])))
+                {
+                    fail("caching decryptor key mismatch on " + i);
+                }
+            }
+        }
+
+        cachingDecryptor.makeKeyFromPassPhrase(SymmetricKeyAlgorithmTags.CAST5, s2ks[0]);
+
+        // s2ks[1] shares the S2K of s2ks[0], everything else should have been derived once.
+        if (derivations[0] != s2ks.length)
+        {
+            fail("caching decryptor derived " + derivations[0] + " keys");
+        }
+
+        cachingDecryptor.clear();
+
+        // once cleared, every key is derived afresh and nothing is cached
+        byte[] expected = decryptor.makeKeyFromPassPhrase(SymmetricKeyAlgorithmTags.AES_256, s2ks[0]);
+
+        for (int i = 0; i != 2; i++)
+        {
+            if (!Arrays.areEqual(expected, cachingDecryptor.makeKeyFromPassPhrase(SymmetricKeyAlgorithmTags.AES_256, s2ks[0])))
+            {
+                fail("cleared caching decryptor key mismatch");
+            }
+        }
+
+        if (derivations[0] != s2ks.length + 2)
+        {
+            fail("caching decryptor not cleared");
+        }
+    }
+
+    private static Digest createDigest(int hashAlgorithm)
+    {
+        switch (hashAlgorithm)
+        {
+        case HashAlgorithmTags.MD5:
+            return new MD5Digest();
+        case HashAlgorithmTags.SHA1:
+            return new SHA1Digest();
+        case HashAlgorithmTags.SHA256:
+            return new SHA256Digest();
+        case HashAlgorithmTags.SHA512:
+            return new SHA512Digest();
+        default:
+            throw new IllegalArgumentException("unknown hash algorithm: " + hashAlgorithm);
+        }
+    }
+
+    static byte[] referenceKey(S2K s2k, int keySize, char[] passPhrase)
+    {
+        Digest digest = createDigest(s2k.getHashAlgorithm());
+        byte[] pBytes = Strings.toUTF8ByteArray(passPhrase);
+        byte[] keyBytes = new byte[keySize];
+        byte[] iv = s2k.getIV();
+        int    generatedBytes = 0;
+
+        for (int loopCount = 0; generatedBytes < keyBytes.length; loopCount++)
+        {
+            for (int i = 0; i != loopCount; i++)
+            {
+                digest.update((byte)0);
+            }
+
+            switch (s2k.getType())
+            {
+            case S2K.SIMPLE:
+                digest.update(pBytes, 0, pBytes.length);
+                break;
+            case S2K.SALTED:
+                digest.update(iv, 0, iv.length);
+                digest.update(pBytes, 0, pBytes.length);
+                break;
+            case S2K.SALTED_AND_ITERATED:
+                long count = Math.max(s2k.getIterationCount(), iv.length + pBytes.length);
+
+                for (long i = 0; i != count; i++)
+                {
+                    long pos = i % (iv.length + pBytes.length);
+
+                    digest.update((pos < iv.length) ? iv[(int)pos] : pBytes[(int)pos - iv.length]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown S2K type: " + s2k.getType());
+            }
+
+            byte[] dig = new byte[digest.getDigestSize()];
+
+            digest.doFinal(dig, 0);
+
+            System.arraycopy(dig, 0, keyBytes, generatedBytes, Math.min(dig.length, keyBytes.length - generatedBytes));
+
+            generatedBytes += dig.length;
+        }
+
+        return keyBytes;
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        Security.addProvider(new BouncyCastleProvider());
+
+        runTest(new PGPS2KTest());
+    }
+}
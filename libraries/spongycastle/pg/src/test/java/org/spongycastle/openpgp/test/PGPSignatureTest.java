@@ -8,7 +8,10 @@
 import java.security.NoSuchProviderException;
 import java.security.Security;
 import java.security.SignatureException;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.spongycastle.bcpg.CompressionAlgorithmTags;
 import org.spongycastle.bcpg.HashAlgorithmTags;
@@ -29,6 +32,7 @@
 import org.spongycastle.openpgp.PGPSecretKey;
 import org.spongycastle.openpgp.PGPSecretKeyRing;
 import org.spongycastle.openpgp.PGPSignature;
+import org.spongycastle.openpgp.PGPSignatureBatchVerifier;
 import org.spongycastle.openpgp.PGPSignatureGenerator;
 import org.spongycastle.openpgp.PGPSignatureList;
 import org.spongycastle.openpgp.PGPSignatureSubpacketGenerator;
@@ -353,6 +357,11 @@ public void performTest()
             fail("found wrong number of unhashed packets in override test");
         }
 
+        //
+        // batch verification
+        //
+        testBatchVerifier(secretKey.getPublicKey(), pgpPrivKey, secretDSAKey.getPublicKey(), pgpPrivDSAKey);
+
         //
         // general signatures
         //
@@ -413,6 +422,94 @@ public void performTest()
         testSubpacketGenerator();
     }
 
+    private void testBatchVerifier(PGPPublicKey rsaPub, PGPPrivateKey rsaPriv, PGPPublicKey dsaPub, PGPPrivateKey dsaPriv)
+        throws Exception
+    {
+        PGPSignatureGenerator sGen = new PGPSignatureGenerator(new JcaPGPContentSignerBuilder(PublicKeyAlgorithmTags.RSA_GENERAL, HashAlgorithmTags.SHA1).setProvider("SC"));
+
+        sGen.init(PGPSignature.KEY_REVOCATION, rsaPriv);
+
+        PGPSignature revocation = sGen.generateCertification(rsaPub);
+
+        sGen = new PGPSignatureGenerator(new JcaPGPContentSignerBuilder(PublicKeyAlgorithmTags.DSA, HashAlgorithmTags.SHA1).setProvider("SC"));
+
+        sGen.init(PGPSignature.POSITIVE_CERTIFICATION, dsaPriv);
+
+        PGPSignature idCert = sGen.generateCertification(TEST_USER_ID, rsaPub);
+
+        sGen.init(PGPSignature.SUBKEY_BINDING, dsaPriv);
+
+        PGPSignature binding = sGen.generateCertification(dsaPub, rsaPub);
+
+        sGen = new PGPSignatureGenerator(new JcaPGPContentSignerBuilder(PublicKeyAlgorithmTags.RSA_GENERAL, HashAlgorithmTags.SHA256).setProvider("SC"));
+
+        sGen.init(PGPSignature.BINARY_DOCUMENT, rsaPriv);
+
+        sGen.update(TEST_DATA);
+
+        PGPSignature dataSig = sGen.generate();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            checkBatch(new PGPSignatureBatchVerifier(new JcaPGPContentVerifierBuilderProvider().setProvider("SC")),
+                rsaPub, dsaPub, revocation, idCert, binding, dataSig);
+            checkBatch(new PGPSignatureBatchVerifier(new JcaPGPContentVerifierBuilderProvider().setProvider("SC"), executor, 4),
+                rsaPub, dsaPub, revocation, idCert, binding, dataSig);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // the signatures passed in should be left alone.
+        idCert.init(new JcaPGPContentVerifierBuilderProvider().setProvider("SC"), dsaPub);
+
+        if (!idCert.verifyCertification(TEST_USER_ID, rsaPub))
+        {
+            fail("certification failed after batch verification.");
+        }
+    }
+
+    private void checkBatch(PGPSignatureBatchVerifier verifier, PGPPublicKey rsaPub, PGPPublicKey dsaPub,
+                            PGPSignature revocation, PGPSignature idCert, PGPSignature binding, PGPSignature dataSig)
+    {
+        BitSet expected = new BitSet();
+
+        for (int i = 0; i != 10; i++)
+        {
+            expected.set(verifier.addCertification(revocation, rsaPub, rsaPub));
+            expected.set(verifier.addCertification(idCert, dsaPub, TEST_USER_ID, rsaPub));
+            verifier.addCertification(idCert, dsaPub, "wrong id", rsaPub);
+            verifier.addCertification(idCert, rsaPub, TEST_USER_ID, rsaPub);
+            expected.set(verifier.addCertification(binding, dsaPub, dsaPub, rsaPub));
+            verifier.addCertification(binding, dsaPub, rsaPub, dsaPub);
+            verifier.addCertification(idCert, dsaPub, rsaPub);
+            expected.set(verifier.addSignature(dataSig, rsaPub, TEST_DATA));
+            verifier.addSignature(dataSig, rsaPub, TEST_DATA_WITH_CRLF);
+        }
+
+        if (verifier.size() != 90)
+        {
+            fail("wrong batch size");
+        }
+
+        BitSet verified = verifier.verify();
+
+        if (!expected.equals(verified))
+        {
+            fail("batch verification wrong: expected " + expected + " got " + verified);
+        }
+
+        verifier.clear();
+
+        if (verifier.size() != 0 || !verifier.verify().isEmpty())
+        {
+            fail("batch not cleared");
+        }
+    }
+
     private void testSubpacketGenerator()
     {
         PGPSignatureSubpacketGenerator sGen = new PGPSignatureSubpacketGenerator();
@@ -0,0 +1,144 @@
+package org.spongycastle.openpgp.test.speedy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.spongycastle.apache.bzip2.CBZip2InputStream;
+import org.spongycastle.apache.bzip2.CBZip2OutputStream;
+
+/**
+ * Decompresses 16 MB of partly repetitive data compressed with BZIP2 through
+ * CBZip2InputStream using array and single byte reads, with the same data compressed
+ * with ZLIB through an InflaterInputStream for comparison.
+ */
+public class BZip2DecompressThroughputTest
+{
+    private static final int DATA_SIZE = 16 * 1024 * 1024;
+    private static final int READ_SIZE = 64 * 1024;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args)
+        throws IOException
+    {
+        byte[] data = createData(DATA_SIZE);
+        byte[] bzip2 = compress(new CBZip2OutputStreamFactory(), data);
+        byte[] zlib = compress(new DeflaterOutputStreamFactory(), data);
+
+        System.out.println("Warmup");
+        readArray(new CBZip2InputStream(new ByteArrayInputStream(bzip2)));
+        readSingle(new CBZip2InputStream(new ByteArrayInputStream(bzip2)));
+
+        for (int i = 0; i < RUNS; i++)
+        {
+            report("BZIP2 byte[] read", readArray(new CBZip2InputStream(new ByteArrayInputStream(bzip2))));
+            report("BZIP2 single byte read", readSingle(new CBZip2InputStream(new ByteArrayInputStream(bzip2))));
+            report("ZLIB byte[] read", readArray(new InflaterInputStream(new ByteArrayInputStream(zlib))));
+        }
+    }
+
+    private static void report(String name, long time)
+    {
+        long mbPerSecond = (long)((double)DATA_SIZE / time * 1000000000 / (1024 * 1024));
+
+        System.out.println(name + ": " + (time / 1000000) + "ms, " + mbPerSecond + " MB/s");
+    }
+
+    private static long readArray(InputStream in)
+        throws IOException
+    {
+        byte[] buf = new byte[READ_SIZE];
+        long   total = 0;
+        long   start = System.nanoTime();
+        int    len;
+
+        while ((len = in.read(buf, 0, buf.length)) >= 0)
+        {
+            total += len;
+        }
+
+        return check(total, start);
+    }
+
+    private static long readSingle(InputStream in)
+        throws IOException
+    {
+        long total = 0;
+        long start = System.nanoTime();
+
+        while (in.read() >= 0)
+        {
+            total++;
+        }
+
+        return check(total, start);
+    }
+
+    private static long check(long total, long start)
+    {
+        long delta = System.nanoTime() - start;
+
+        if (total != DATA_SIZE)
+        {
+            throw new IllegalStateException("read " + total + " bytes, expected " + DATA_SIZE);
+        }
+
+        return delta;
+    }
+
+    private static byte[] compress(OutputStreamFactory factory, byte[] data)
+        throws IOException
+    {
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        OutputStream out = factory.create(bOut);
+
+        out.write(data);
+        out.close();
+
+        return bOut.toByteArray();
+    }
+
+    private static byte[] createData(int size)
+    {
+        byte[] data = new byte[size];
+        int    seed = 1;
+
+        for (int i = 0; i != size; i++)
+        {
+            seed = seed * 1103515245 + 12345;
+            data[i] = ((i / 4096) % 2 == 0) ? (byte)(seed >>> 28) : data[i / 2];
+        }
+
+        return data;
+    }
+
+    private interface OutputStreamFactory
+    {
+        OutputStream create(OutputStream out)
+            throws IOException;
+    }
+
+    private static class CBZip2OutputStreamFactory
+        implements OutputStreamFactory
+    {
+        public OutputStream create(OutputStream out)
+            throws IOException
+        {
+            return new CBZip2OutputStream(out);
+        }
+    }
+
+    private static class DeflaterOutputStreamFactory
+        implements OutputStreamFactory
+    {
+        public OutputStream create(OutputStream out)
+        {
+            return new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.spongycastle.openpgp.test.speedy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.spongycastle.apache.bzip2.CBZip2OutputStream;
+
+/**
+ * Compresses 32 MB of partly repetitive data with CBZip2OutputStream on the calling
+ * thread, and with blocks coded on a pool of 2, 4 and 8 threads.
+ */
+public class BZip2ThroughputTest
+{
+    private static final int DATA_SIZE = 32 * 1024 * 1024;
+    private static final int WRITE_SIZE = 64 * 1024;
+    private static final int RUNS = 3;
+
+    private static final int[] THREADS = { 2, 4, 8 };
+
+    public static void main(String[] args)
+        throws IOException
+    {
+        byte[] data = createData(DATA_SIZE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS[THREADS.length - 1]);
+
+        try
+        {
+            System.out.println("Warmup");
+            compress(data, DATA_SIZE / 8, null, 1);
+            compress(data, DATA_SIZE / 8, executor, THREADS[0]);
+
+            for (int i = 0; i < RUNS; i++)
+            {
+                report("calling thread", compress(data, DATA_SIZE, null, 1));
+
+                for (int t = 0; t != THREADS.length; t++)
+                {
+                    report(THREADS[t] + " threads", compress(data, DATA_SIZE, executor, THREADS[t]));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void report(String name, long time)
+    {
+        long mbPerSecond = (long)((double)DATA_SIZE / time * 1000000000 / (1024 * 1024));
+
+        System.out.println(name + ": " + (time / 1000000) + "ms, " + mbPerSecond + " MB/s");
+    }
+
+    private static long compress(byte[] data, int size, ExecutorService executor, int threads)
+        throws IOException
+    {
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+
+        CBZip2OutputStream bzOut = new CBZip2OutputStream(out, 9, executor, threads);
+
+        for (int off = 0; off < size; off += WRITE_SIZE)
+        {
+            bzOut.write(data, off, Math.min(WRITE_SIZE, size - off));
+        }
+
+        bzOut.close();
+
+        return System.nanoTime() - start;
+    }
+
+    private static byte[] createData(int size)
+    {
+        byte[] data = new byte[size];
+        int    seed = 1;
+
+        for (int i = 0; i != size; i++)
+        {
+            seed = seed * 1103515245 + 12345;
+            data[i] = ((i / 4096) % 2 == 0) ? (byte)(seed >>> 28) : data[i / 2];
+        }
+
+        return data;
+    }
+
+    private static class CountingOutputStream
+        extends OutputStream
+    {
+        long count;
+
+        public void write(int b)
+        {
+            count++;
+        }
+
+        public void write(byte[] buf, int off, int len)
+        {
+            count += len;
+        }
+    }
+}
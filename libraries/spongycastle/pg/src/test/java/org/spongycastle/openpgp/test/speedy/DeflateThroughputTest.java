@@ -0,0 +1,111 @@
+package org.spongycastle.openpgp.test.speedy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+
+import org.spongycastle.openpgp.PGPCompressedData;
+import org.spongycastle.openpgp.PGPCompressedDataGenerator;
+import org.spongycastle.openpgp.PGPException;
+
+/**
+ * Compresses 64 MB of partly repetitive data as a ZLIB compressed data packet with a
+ * single Deflater, and in chunks on a pool of 2, 4 and 8 threads.
+ */
+public class DeflateThroughputTest
+{
+    private static final int DATA_SIZE = 64 * 1024 * 1024;
+    private static final int WRITE_SIZE = 64 * 1024;
+    private static final int RUNS = 3;
+
+    private static final int[] THREADS = { 2, 4, 8 };
+
+    public static void main(String[] args)
+        throws IOException, PGPException
+    {
+        byte[] data = createData(DATA_SIZE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS[THREADS.length - 1]);
+
+        try
+        {
+            System.out.println("Warmup");
+            compress(data, DATA_SIZE / 8, null, 1);
+            compress(data, DATA_SIZE / 8, executor, THREADS[0]);
+
+            for (int i = 0; i < RUNS; i++)
+            {
+                report("single Deflater", compress(data, DATA_SIZE, null, 1));
+
+                for (int t = 0; t != THREADS.length; t++)
+                {
+                    report(THREADS[t] + " threads", compress(data, DATA_SIZE, executor, THREADS[t]));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void report(String name, long[] result)
+    {
+        long mbPerSecond = (long)((double)DATA_SIZE / result[0] * 1000000000 / (1024 * 1024));
+
+        System.out.println(name + ": " + (result[0] / 1000000) + "ms, " + mbPerSecond + " MB/s, "
+            + result[1] + " bytes");
+    }
+
+    private static long[] compress(byte[] data, int size, ExecutorService executor, int threads)
+        throws IOException, PGPException
+    {
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+
+        PGPCompressedDataGenerator cPacket = new PGPCompressedDataGenerator(
+            PGPCompressedData.ZLIB, Deflater.DEFAULT_COMPRESSION, executor, threads);
+        OutputStream cOut = cPacket.open(out, new byte[1 << 16]);
+
+        for (int off = 0; off < size; off += WRITE_SIZE)
+        {
+            cOut.write(data, off, Math.min(WRITE_SIZE, size - off));
+        }
+
+        cPacket.close();
+
+        return new long[]{ System.nanoTime() - start, out.count };
+    }
+
+    private static byte[] createData(int size)
+    {
+        byte[] data = new byte[size];
+        int    seed = 1;
+
+        for (int i = 0; i != size; i++)
+        {
+            seed = seed * 1103515245 + 12345;
+            data[i] = ((i / 4096) % 2 == 0) ? (byte)(seed >>> 28) : data[i - 3000];
+        }
+
+        return data;
+    }
+
+    private static class CountingOutputStream
+        extends OutputStream
+    {
+        long count;
+
+        public void write(int b)
+        {
+            count++;
+        }
+
+        public void write(byte[] buf, int off, int len)
+        {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.spongycastle.openpgp.test.speedy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.util.Date;
+
+import org.spongycastle.openpgp.PGPEncryptedData;
+import org.spongycastle.openpgp.PGPEncryptedDataGenerator;
+import org.spongycastle.openpgp.PGPEncryptedDataList;
+import org.spongycastle.openpgp.PGPException;
+import org.spongycastle.openpgp.PGPLiteralData;
+import org.spongycastle.openpgp.PGPLiteralDataGenerator;
+import org.spongycastle.openpgp.PGPObjectFactory;
+import org.spongycastle.openpgp.PGPPBEEncryptedData;
+import org.spongycastle.openpgp.operator.bc.BcPBEDataDecryptorFactory;
+import org.spongycastle.openpgp.operator.bc.BcPBEKeyEncryptionMethodGenerator;
+import org.spongycastle.openpgp.operator.bc.BcPGPDataEncryptorBuilder;
+import org.spongycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
+
+/**
+ * Decrypts a 128 MB integrity protected (SEIP + MDC) message and reports the
+ * throughput of decryption, MDC digesting and literal data reading combined.
+ */
+public class IntegrityDecryptThroughputTest
+{
+    private static final int DATA_SIZE = 128 * 1024 * 1024;
+    private static final int READ_SIZE = 64 * 1024;
+    private static final int RUNS = 3;
+
+    private static final char[] PASS = "hello world".toCharArray();
+
+    public static void main(String[] args)
+        throws Exception
+    {
+        System.out.println("Initialising test data.");
+        byte[] message = createMessage(PGPEncryptedData.AES_256);
+        System.out.println("Init complete.");
+
+        System.out.println("Warmup");
+        decrypt(message);
+
+        for (int i = 0; i < RUNS; i++)
+        {
+            long time = decrypt(message);
+            long mbPerSecond = (long)((double)DATA_SIZE / time * 1000000000 / (1024 * 1024));
+
+            System.out.println("AES-256 with MDC: " + (time / 1000000) + "ms, " + mbPerSecond + " MB/s");
+        }
+    }
+
+    private static byte[] createMessage(int algorithm)
+        throws IOException, PGPException
+    {
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream(DATA_SIZE + 1024 * 1024);
+
+        PGPEncryptedDataGenerator encGen = new PGPEncryptedDataGenerator(
+            new BcPGPDataEncryptorBuilder(algorithm).setWithIntegrityPacket(true).setSecureRandom(new SecureRandom()));
+
+        encGen.addMethod(new BcPBEKeyEncryptionMethodGenerator(PASS));
+
+        OutputStream encOut = encGen.open(bOut, new byte[1 << 16]);
+        OutputStream litOut = new PGPLiteralDataGenerator().open(encOut, PGPLiteralData.BINARY, PGPLiteralData.CONSOLE, new Date(), new byte[1 << 16]);
+
+        byte[] buf = new byte[READ_SIZE];
+        for (int i = 0; i != buf.length; i++)
+        {
+            buf[i] = (byte)i;
+        }
+
+        for (int i = 0; i < DATA_SIZE / buf.length; i++)
+        {
+            litOut.write(buf);
+        }
+
+        litOut.close();
+        encOut.close();
+
+        return bOut.toByteArray();
+    }
+
+    private static long decrypt(byte[] message)
+        throws Exception
+    {
+        long start = System.nanoTime();
+
+        PGPObjectFactory pgpF = new PGPObjectFactory(message);
+        PGPEncryptedDataList enc = (PGPEncryptedDataList)pgpF.nextObject();
+        PGPPBEEncryptedData pbe = (PGPPBEEncryptedData)enc.get(0);
+
+        InputStream clear = pbe.getDataStream(new BcPBEDataDecryptorFactory(PASS, new BcPGPDigestCalculatorProvider()));
+        PGPLiteralData ld = (PGPLiteralData)new PGPObjectFactory(clear).nextObject();
+
+        InputStream in = ld.getInputStream();
+        byte[] buf = new byte[READ_SIZE];
+        long total = 0;
+        int len;
+
+        while ((len = in.read(buf)) >= 0)
+        {
+            total += len;
+        }
+
+        if (total != DATA_SIZE || !pbe.verify())
+        {
+            throw new IllegalStateException("decryption failed");
+        }
+
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,211 @@
+package org.spongycastle.openpgp.test.speedy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.spongycastle.bcpg.BCPGInputStream;
+import org.spongycastle.bcpg.PacketTags;
+import org.spongycastle.openpgp.PGPLiteralData;
+import org.spongycastle.openpgp.PGPObjectFactory;
+
+/**
+ * Streams a 1 GB partial body length literal data packet through
+ * PGPLiteralData.getInputStream() using single byte, array and direct buffer reads.
+ */
+public class LiteralDataThroughputTest
+{
+    private static final long DATA_SIZE = 1024L * 1024 * 1024;
+    private static final int CHUNK_POWER = 16;
+    private static final int READ_SIZE = 64 * 1024;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args)
+        throws IOException
+    {
+        System.out.println("Warmup");
+        readArray(DATA_SIZE / 16);
+        readDirect(DATA_SIZE / 16);
+
+        for (int i = 0; i < RUNS; i++)
+        {
+            report("byte[] read", DATA_SIZE, readArray(DATA_SIZE));
+            report("direct ByteBuffer read", DATA_SIZE, readDirect(DATA_SIZE));
+        }
+
+        report("single byte read", DATA_SIZE / 16, readSingle(DATA_SIZE / 16));
+    }
+
+    private static void report(String name, long size, long time)
+    {
+        long mbPerSecond = (long)((double)size / time * 1000000000 / (1024 * 1024));
+
+        System.out.println(name + ": " + (time / 1000000) + "ms, " + mbPerSecond + " MB/s");
+    }
+
+    private static long readArray(long size)
+        throws IOException
+    {
+        InputStream in = open(size);
+        byte[]      buf = new byte[READ_SIZE];
+        long        total = 0;
+        long        start = System.nanoTime();
+        int         len;
+
+        while ((len = in.read(buf, 0, buf.length)) >= 0)
+        {
+            total += len;
+        }
+
+        return check(size, total, start);
+    }
+
+    private static long readDirect(long size)
+        throws IOException
+    {
+        BCPGInputStream in = (BCPGInputStream)open(size);
+        ByteBuffer      buf = ByteBuffer.allocateDirect(READ_SIZE);
+        long            total = 0;
+        long            start = System.nanoTime();
+        int             len;
+
+        while ((len = in.read(buf)) >= 0)
+        {
+            buf.clear();
+            total += len;
+        }
+
+        return check(size, total, start);
+    }
+
+    private static long readSingle(long size)
+        throws IOException
+    {
+        InputStream in = open(size);
+        long        total = 0;
+        long        start = System.nanoTime();
+
+        while (in.read() >= 0)
+        {
+            total++;
+        }
+
+        return check(size, total, start);
+    }
+
+    private static long check(long size, long total, long start)
+    {
+        long delta = System.nanoTime() - start;
+
+        if (total != size)
+        {
+            throw new IllegalStateException("read " + total + " bytes, expected " + size);
+        }
+
+        return delta;
+    }
+
+    private static InputStream open(long size)
+        throws IOException
+    {
+        PGPObjectFactory fact = new PGPObjectFactory(new PartialLiteralPacketStream(size));
+
+        return ((PGPLiteralData)fact.nextObject()).getInputStream();
+    }
+
+    /**
+     * Synthesises a new format literal data packet of the given body size, encoded as a
+     * sequence of partial body length chunks of 2^CHUNK_POWER bytes, without buffering it.
+     */
+    private static class PartialLiteralPacketStream
+        extends InputStream
+    {
+        private static final byte[] LITERAL_HEADER = { (byte)PGPLiteralData.BINARY, 0, 0, 0, 0, 0 };
+
+        private final byte[] chunk = new byte[(1 << CHUNK_POWER) + 6];
+        private int chunkLen;
+        private int chunkOff;
+        private long remaining;
+        private boolean first = true;
+        private boolean done = false;
+
+        PartialLiteralPacketStream(long dataSize)
+        {
+            this.remaining = dataSize + LITERAL_HEADER.length;
+            for (int i = 0; i != chunk.length; i++)
+            {
+                chunk[i] = (byte)i;
+            }
+        }
+
+        private boolean fill()
+        {
+            if (done)
+            {
+                return false;
+            }
+
+            int off = 0;
+            if (first)
+            {
+                chunk[off++] = (byte)(0xc0 | PacketTags.LITERAL_DATA);
+            }
+
+            int bodyLen;
+            if (remaining > (1 << CHUNK_POWER))
+            {
+                bodyLen = 1 << CHUNK_POWER;
+                chunk[off++] = (byte)(0xe0 | CHUNK_POWER);
+            }
+            else
+            {
+                bodyLen = (int)remaining;
+                chunk[off++] = (byte)0xff;
+                chunk[off++] = (byte)(bodyLen >> 24);
+                chunk[off++] = (byte)(bodyLen >> 16);
+                chunk[off++] = (byte)(bodyLen >> 8);
+                chunk[off++] = (byte)bodyLen;
+                done = true;
+            }
+
+            if (first)
+            {
+                System.arraycopy(LITERAL_HEADER, 0, chunk, off, LITERAL_HEADER.length);
+                first = false;
+            }
+
+            remaining -= bodyLen;
+            chunkOff = 0;
+            chunkLen = off + bodyLen;
+
+            return true;
+        }
+
+        public int read()
+            throws IOException
+        {
+            if (chunkOff == chunkLen && !fill())
+            {
+                return -1;
+            }
+
+            return chunk[chunkOff++] & 0xff;
+        }
+
+        public int read(byte[] buf, int off, int len)
+            throws IOException
+        {
+            if (chunkOff == chunkLen && !fill())
+            {
+                return -1;
+            }
+
+            int readLen = Math.min(len, chunkLen - chunkOff);
+
+            System.arraycopy(chunk, chunkOff, buf, off, readLen);
+            chunkOff += readLen;
+
+            return readLen;
+        }
+    }
+}
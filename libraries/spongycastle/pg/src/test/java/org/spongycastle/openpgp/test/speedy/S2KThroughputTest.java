@@ -0,0 +1,148 @@
+package org.spongycastle.openpgp.test.speedy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.Security;
+
+import org.spongycastle.bcpg.HashAlgorithmTags;
+import org.spongycastle.bcpg.S2K;
+import org.spongycastle.bcpg.SymmetricKeyAlgorithmTags;
+import org.spongycastle.jce.provider.BouncyCastleProvider;
+import org.spongycastle.openpgp.PGPException;
+import org.spongycastle.openpgp.operator.PBESecretKeyDecryptor;
+import org.spongycastle.openpgp.operator.PGPDigestCalculator;
+import org.spongycastle.openpgp.operator.PGPDigestCalculatorProvider;
+import org.spongycastle.openpgp.operator.bc.BcPBESecretKeyDecryptorBuilder;
+import org.spongycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
+import org.spongycastle.openpgp.operator.jcajce.JcaPGPDigestCalculatorProviderBuilder;
+import org.spongycastle.openpgp.operator.jcajce.JcePBESecretKeyDecryptorBuilder;
+import org.spongycastle.util.Strings;
+
+/**
+ * Times an iterated and salted S2K derivation at the maximum iteration count (65011712 bytes)
+ * against the previous salt/passphrase-at-a-time implementation.
+ */
+public class S2KThroughputTest
+{
+    private static final int RUNS = 5;
+
+    public static void main(String[] args)
+        throws Exception
+    {
+        Security.addProvider(new BouncyCastleProvider());
+
+        char[] passPhrase = "hello world".toCharArray();
+        byte[] salt = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+        PGPDigestCalculatorProvider bcProvider = new BcPGPDigestCalculatorProvider();
+        PGPDigestCalculatorProvider jcaProvider = new JcaPGPDigestCalculatorProviderBuilder().setProvider("SC").build();
+
+        int[] hashAlgorithms = { HashAlgorithmTags.SHA1, HashAlgorithmTags.SHA256 };
+        int[] keyAlgorithms = { SymmetricKeyAlgorithmTags.AES_128, SymmetricKeyAlgorithmTags.AES_256 };
+
+        for (int h = 0; h != hashAlgorithms.length; h++)
+        {
+            S2K s2k = new S2K(hashAlgorithms[h], salt, 0xff);
+
+            for (int k = 0; k != keyAlgorithms.length; k++)
+            {
+                int keySize = (keyAlgorithms[k] == SymmetricKeyAlgorithmTags.AES_128) ? 16 : 32;
+                String name = "hash " + hashAlgorithms[h] + " alg " + keyAlgorithms[k];
+
+                PBESecretKeyDecryptor bcDecryptor = new BcPBESecretKeyDecryptorBuilder(bcProvider).build(passPhrase);
+                PBESecretKeyDecryptor jceDecryptor = new JcePBESecretKeyDecryptorBuilder(jcaProvider).setProvider("SC").build(passPhrase);
+
+                long oldBc = 0, newBc = 0, oldJca = 0, newJca = 0;
+                for (int i = 0; i != RUNS + 1; i++)
+                {
+                    long start = System.nanoTime();
+                    previousMakeKey(bcProvider, keySize, s2k, passPhrase);
+                    long t1 = System.nanoTime();
+                    bcDecryptor.makeKeyFromPassPhrase(keyAlgorithms[k], s2k);
+                    long t2 = System.nanoTime();
+                    previousMakeKey(jcaProvider, keySize, s2k, passPhrase);
+                    long t3 = System.nanoTime();
+                    jceDecryptor.makeKeyFromPassPhrase(keyAlgorithms[k], s2k);
+                    long t4 = System.nanoTime();
+
+                    if (i != 0)     // first run is warmup
+                    {
+                        oldBc += t1 - start;
+                        newBc += t2 - t1;
+                        oldJca += t3 - t2;
+                        newJca += t4 - t3;
+                    }
+                }
+
+                System.out.println(name + " bc:  previous " + (oldBc / RUNS / 1000000) + "ms, now " + (newBc / RUNS / 1000000) + "ms");
+                System.out.println(name + " jca: previous " + (oldJca / RUNS / 1000000) + "ms, now " + (newJca / RUNS / 1000000) + "ms");
+            }
+        }
+    }
+
+    /**
+     * The S2K loop as it was before the bulk rewrite, salt and passphrase written separately.
+     */
+    private static byte[] previousMakeKey(PGPDigestCalculatorProvider provider, int keySize, S2K s2k, char[] passPhrase)
+        throws PGPException, IOException
+    {
+        PGPDigestCalculator digestCalculator = provider.get(s2k.getHashAlgorithm());
+        OutputStream dOut = digestCalculator.getOutputStream();
+        byte[] pBytes = Strings.toUTF8ByteArray(passPhrase);
+        byte[] keyBytes = new byte[keySize];
+        int    generatedBytes = 0;
+        int    loopCount = 0;
+
+        while (generatedBytes < keyBytes.length)
+        {
+            for (int i = 0; i != loopCount; i++)
+            {
+                dOut.write(0);
+            }
+
+            byte[] iv = s2k.getIV();
+            long   count = s2k.getIterationCount();
+
+            dOut.write(iv);
+            dOut.write(pBytes);
+
+            count -= iv.length + pBytes.length;
+
+            while (count > 0)
+            {
+                if (count < iv.length)
+                {
+                    dOut.write(iv, 0, (int)count);
+                    break;
+                }
+                else
+                {
+                    dOut.write(iv);
+                    count -= iv.length;
+                }
+
+                if (count < pBytes.length)
+                {
+                    dOut.write(pBytes, 0, (int)count);
+                    count = 0;
+                }
+                else
+                {
+                    dOut.write(pBytes);
+                    count -= pBytes.length;
+                }
+            }
+
+            dOut.close();
+
+            byte[] dig = digestCalculator.getDigest();
+
+            System.arraycopy(dig, 0, keyBytes, generatedBytes, Math.min(dig.length, keyBytes.length - generatedBytes));
+
+            generatedBytes += dig.length;
+            loopCount++;
+        }
+
+        return keyBytes;
+    }
+}
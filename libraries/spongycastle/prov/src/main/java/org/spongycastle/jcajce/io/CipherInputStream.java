@@ -8,6 +8,7 @@
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
 
 import org.spongycastle.crypto.io.InvalidCipherTextIOException;
 
@@ -28,7 +29,7 @@
     extends FilterInputStream
 {
     private final Cipher cipher;
-    private final byte[] inputBuffer = new byte[512];
+    private final byte[] inputBuffer = new byte[2048];
     private boolean finalized = false;
     private byte[] buf;
     private int maxBuf;
@@ -75,10 +76,20 @@ private int nextChunk()
                 return maxBuf;
             }
 
-            buf = cipher.update(inputBuffer, 0, read);
-            if (buf != null)
+            // reuse the same output buffer for every update rather than have the cipher allocate one
+            int outLen = cipher.getOutputSize(read);
+            if ((buf == null) || (buf.length < outLen))
             {
-                maxBuf = buf.length;
+                buf = new byte[outLen];
+            }
+
+            try
+            {
+                maxBuf = cipher.update(inputBuffer, 0, read, buf, 0);
+            }
+            catch (ShortBufferException e)
+            {
+                throw new IOException("Error processing stream " + e);
             }
         }
         return maxBuf;
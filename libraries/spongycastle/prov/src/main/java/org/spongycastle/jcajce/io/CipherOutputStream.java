@@ -8,6 +8,7 @@
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
 
 import org.spongycastle.crypto.io.InvalidCipherTextIOException;
 
@@ -28,8 +29,11 @@
 public class CipherOutputStream
     extends FilterOutputStream
 {
+    private static final int MAX_CHUNK_SIZE = 4096;
+
     private final Cipher cipher;
     private final byte[] oneByte = new byte[1];
+    private byte[] buf;
 
     /**
      * Constructs a CipherOutputStream from an OutputStream and a Cipher.
@@ -65,10 +69,32 @@ public void write(int b)
     public void write(byte[] b, int off, int len)
         throws IOException
     {
-        byte[] outData = cipher.update(b, off, len);
-        if (outData != null)
+        // large writes go through in chunks so a single output buffer can be reused throughout
+        while (len > 0)
         {
-            out.write(outData);
+            int chunk = Math.min(len, MAX_CHUNK_SIZE);
+            int outLen = cipher.getOutputSize(chunk);
+            if ((buf == null) || (buf.length < outLen))
+            {
+                buf = new byte[outLen];
+            }
+
+            try
+            {
+                outLen = cipher.update(b, off, chunk, buf, 0);
+            }
+            catch (ShortBufferException e)
+            {
+                throw new IOException("Error processing stream " + e);
+            }
+
+            if (outLen != 0)
+            {
+                out.write(buf, 0, outLen);
+            }
+
+            off += chunk;
+            len -= chunk;
         }
     }
 
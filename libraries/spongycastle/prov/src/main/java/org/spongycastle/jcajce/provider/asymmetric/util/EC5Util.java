@@ -11,6 +11,9 @@
 import org.spongycastle.jce.spec.ECNamedCurveParameterSpec;
 import org.spongycastle.jce.spec.ECNamedCurveSpec;
 import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.custom.sec.SecP256R1Curve;
+import org.spongycastle.math.ec.custom.sec.SecP384R1Curve;
+import org.spongycastle.math.ec.custom.sec.SecP521R1Curve;
 
 public class EC5Util
 {
@@ -53,7 +56,7 @@ public static ECCurve convertCurve(
 
         if (field instanceof ECFieldFp)
         {
-            return new ECCurve.Fp(((ECFieldFp)field).getP(), a, b);
+            return convertCurveFp(((ECFieldFp)field).getP(), a, b);
         }
         else
         {
@@ -64,6 +67,34 @@ public static ECCurve convertCurve(
         }
     }
 
+    /**
+     * Return a prime curve, using the fixed width implementation if the parameters
+     * are those of one of the curves which has one.
+     */
+    private static ECCurve convertCurveFp(
+        BigInteger p,
+        BigInteger a,
+        BigInteger b)
+    {
+        ECCurve curve = new ECCurve.Fp(p, a, b);
+        ECCurve custom = null;
+
+        if (p.equals(SecP256R1Curve.q))
+        {
+            custom = new SecP256R1Curve();
+        }
+        else if (p.equals(SecP384R1Curve.q))
+        {
+            custom = new SecP384R1Curve();
+        }
+        else if (p.equals(SecP521R1Curve.q))
+        {
+            custom = new SecP521R1Curve();
+        }
+
+        return (custom != null && custom.equals(curve)) ? custom : curve;
+    }
+
     public static ECParameterSpec convertSpec(
         EllipticCurve ellipticCurve,
         org.spongycastle.jce.spec.ECParameterSpec spec)